@@ -0,0 +1,77 @@
+package com.bootcamp.customerservice.service;
+
+import com.bootcamp.customerservice.entity.Customer;
+import com.bootcamp.customerservice.metrics.HotPathMetrics;
+import com.bootcamp.customerservice.model.CustomerDTO;
+import com.bootcamp.customerservice.model.CustomerType;
+import com.bootcamp.customerservice.repository.CustomerRepository;
+import com.bootcamp.customerservice.service.cache.CustomerCache;
+import com.bootcamp.customerservice.service.events.CustomerEventPublisher;
+import com.bootcamp.customerservice.service.search.CustomerSearchIndex;
+import com.bootcamp.customerservice.service.statistics.CustomerStatisticsCounters;
+import com.bootcamp.customerservice.service.write.CustomerWriteBehind;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared data and wiring for the customer service benchmarks.
+ */
+final class CustomerBenchmarkFixtures {
+
+    private CustomerBenchmarkFixtures() {
+    }
+
+    static CustomerService customerService(CustomerRepository customerRepository) {
+        return customerService(customerRepository, true);
+    }
+
+    /**
+     * @param creditCard Whether the stub credit client reports a credit card, so that VIP and PYME customers are accepted.
+     */
+    static CustomerService customerService(CustomerRepository customerRepository, boolean creditCard) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CustomerCache customerCache = new CustomerCache(10_000, 300, meterRegistry);
+        HotPathMetrics hotPathMetrics = new HotPathMetrics(meterRegistry);
+        CustomerService customerService = new CustomerService();
+        ReflectionTestUtils.setField(customerService, "customerRepository", customerRepository);
+        ReflectionTestUtils.setField(customerService, "customerCache", customerCache);
+        ReflectionTestUtils.setField(customerService, "hotPathMetrics", hotPathMetrics);
+        // a zero staleness bound makes every validation call the stub clients
+        ReflectionTestUtils.setField(customerService, "eligibilityService", new EligibilityService(customerRepository,
+                customerCache, new StubCreditServiceClient(creditCard), new StubBankAccountWebClient(1500.0, true), hotPathMetrics, 0));
+        ReflectionTestUtils.setField(customerService, "customerEventPublisher", new CustomerEventPublisher(1000, 256, meterRegistry));
+        ReflectionTestUtils.setField(customerService, "customerSearchIndex", new CustomerSearchIndex(customerRepository, 1000, meterRegistry));
+        ReflectionTestUtils.setField(customerService, "customerStatisticsCounters", new CustomerStatisticsCounters(customerRepository));
+        ReflectionTestUtils.setField(customerService, "customerWriteBehind", new CustomerWriteBehind(customerRepository,
+                hotPathMetrics, false, 5, 500, "acknowledged", 5000));
+        ReflectionTestUtils.setField(customerService, "importBatchSize", 500);
+        ReflectionTestUtils.setField(customerService, "defaultPageSize", 100);
+        return customerService;
+    }
+
+    static Customer customer(int i, CustomerType type) {
+        return Customer.builder()
+                .id(String.format("%024x", i))
+                .name("Customer " + i)
+                .email("customer" + i + "@bootcamp.com")
+                .type(type)
+                .version(0L)
+                .build();
+    }
+
+    static CustomerDTO customerDTO(int i, CustomerType type) {
+        return CustomerMapper.toDto(customer(i, type));
+    }
+
+    static List<CustomerDTO> customerDTOs(int size) {
+        CustomerType[] types = CustomerType.values();
+        List<CustomerDTO> customers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            customers.add(customerDTO(i, types[i % types.length]));
+        }
+        return customers;
+    }
+}
@@ -0,0 +1,49 @@
+package com.bootcamp.customerservice.service;
+
+import com.bootcamp.customerservice.entity.Customer;
+import com.bootcamp.customerservice.model.CustomerDTO;
+import com.bootcamp.customerservice.model.CustomerType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity/DTO conversion done on every request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerMapperBenchmark {
+
+    private Customer customer;
+
+    private CustomerDTO customerDTO;
+
+    @Setup
+    public void setUp() {
+        customer = CustomerBenchmarkFixtures.customer(1, CustomerType.PERSONAL);
+        customerDTO = CustomerBenchmarkFixtures.customerDTO(2, CustomerType.BUSINESS);
+    }
+
+    @Benchmark
+    public Customer toEntity() {
+        return CustomerMapper.toEntity(customerDTO);
+    }
+
+    @Benchmark
+    public CustomerDTO toDto() {
+        return CustomerMapper.toDto(customer);
+    }
+}
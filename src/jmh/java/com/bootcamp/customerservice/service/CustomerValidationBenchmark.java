@@ -0,0 +1,67 @@
+package com.bootcamp.customerservice.service;
+
+import com.bootcamp.customerservice.entity.Customer;
+import com.bootcamp.customerservice.model.CustomerDTO;
+import com.bootcamp.customerservice.model.CustomerType;
+import com.bootcamp.customerservice.repository.memory.InMemoryCustomerRepository;
+import com.bootcamp.customerservice.repository.memory.InMemoryPersistence;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The validateCustomer reactive chain, alone and as part of the update path,
+ * with downstream clients and the repository answering in memory.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerValidationBenchmark {
+
+    @Param({"PERSONAL", "VIP", "PYME"})
+    public CustomerType type;
+
+    private CustomerService customerService;
+
+    private Customer customer;
+
+    private CustomerDTO customerDTO;
+
+    @Setup
+    public void setUp() {
+        customerService = CustomerBenchmarkFixtures.customerService(new InMemoryCustomerRepository(InMemoryPersistence.none()));
+        customer = CustomerBenchmarkFixtures.customer(1, type);
+        customerDTO = customerService.createCustomer(
+                        Mono.just(CustomerBenchmarkFixtures.customerDTO(1, CustomerType.PERSONAL)), null, null)
+                .block()
+                .getBody();
+        // unversioned updates always win, so each invocation takes the same path
+        customerDTO.setVersion(null);
+        customerDTO.setType(type);
+    }
+
+    @Benchmark
+    public Customer validateCustomer() {
+        return customerService.validateCustomer(customer).block();
+    }
+
+    @Benchmark
+    public ResponseEntity<CustomerDTO> updateCustomer() {
+        return customerService.updateCustomer(customerDTO.getId(), Mono.just(customerDTO), null, null).block();
+    }
+}
@@ -0,0 +1,29 @@
+package com.bootcamp.customerservice.service;
+
+import com.bootcamp.customerservice.webclient.BankAccountWebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Account client answering immediately, so that benchmarks only measure local work.
+ */
+class StubBankAccountWebClient implements BankAccountWebClient {
+
+    private final Mono<Double> savingAccountBalance;
+
+    private final Mono<Boolean> currentAccount;
+
+    StubBankAccountWebClient(double savingAccountBalance, boolean currentAccount) {
+        this.savingAccountBalance = Mono.just(savingAccountBalance);
+        this.currentAccount = Mono.just(currentAccount);
+    }
+
+    @Override
+    public Mono<Double> getSavingAccountBalance(String customerId) {
+        return savingAccountBalance;
+    }
+
+    @Override
+    public Mono<Boolean> hasCurrentAccount(String customerId) {
+        return currentAccount;
+    }
+}
@@ -0,0 +1,21 @@
+package com.bootcamp.customerservice.service;
+
+import com.bootcamp.customerservice.webclient.CreditServiceClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Credit client answering immediately, so that benchmarks only measure local work.
+ */
+class StubCreditServiceClient implements CreditServiceClient {
+
+    private final Mono<Boolean> creditCard;
+
+    StubCreditServiceClient(boolean creditCard) {
+        this.creditCard = Mono.just(creditCard);
+    }
+
+    @Override
+    public Mono<Boolean> hasCreditCard(String customerId) {
+        return creditCard;
+    }
+}
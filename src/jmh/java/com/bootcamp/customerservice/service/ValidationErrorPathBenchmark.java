@@ -0,0 +1,99 @@
+package com.bootcamp.customerservice.service;
+
+import com.bootcamp.customerservice.model.CustomerDTO;
+import com.bootcamp.customerservice.model.CustomerType;
+import com.bootcamp.customerservice.repository.memory.InMemoryCustomerRepository;
+import com.bootcamp.customerservice.repository.memory.InMemoryPersistence;
+import com.bootcamp.customerservice.service.exceptions.CustomerValidationException;
+import com.bootcamp.customerservice.service.exceptions.ValidationExceptionHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.helpers.MessageFormatter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Updates rejected by the VIP/PYME validation, answered by {@link ValidationExceptionHandler},
+ * against the error path as it was before the validation exceptions became stackless.
+ * The stub credit client reports no credit card, so every invocation is rejected.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationErrorPathBenchmark {
+
+    @Param({"VIP", "PYME"})
+    public CustomerType type;
+
+    private CustomerService customerService;
+
+    private ValidationExceptionHandler errorHandler;
+
+    private CustomerDTO customerDTO;
+
+    @Setup
+    public void setUp() {
+        customerService = CustomerBenchmarkFixtures.customerService(
+                new InMemoryCustomerRepository(InMemoryPersistence.none()), false);
+        errorHandler = new ValidationExceptionHandler(new SimpleMeterRegistry(), 10, 60);
+        customerDTO = customerService.createCustomer(
+                        Mono.just(CustomerBenchmarkFixtures.customerDTO(1, CustomerType.PERSONAL)), null, null)
+                .block()
+                .getBody();
+        customerDTO.setVersion(null);
+        customerDTO.setType(type);
+    }
+
+    @Benchmark
+    public Object rejectUpdate() {
+        return customerService.updateCustomer(customerDTO.getId(), Mono.just(customerDTO), null, null)
+                .<Object>map(response -> response)
+                .onErrorResume(CustomerValidationException.class, e -> Mono.just(errorHandler.handleValidation(e)))
+                .block();
+    }
+
+    /**
+     * Approximates the previous error path: a new exception with a stack trace per rejection,
+     * the three log lines formatted for it along the chain, and the default error attributes.
+     */
+    @Benchmark
+    public Object rejectUpdateWithStackTraces(Blackhole blackhole) {
+        String customerId = customerDTO.getId();
+        return customerService.updateCustomer(customerId, Mono.just(customerDTO), null, null)
+                .<Object>map(response -> response)
+                .onErrorMap(CustomerValidationException.class, e -> new IllegalArgumentException(e.getMessage()))
+                .onErrorResume(e -> {
+                    blackhole.consume(MessageFormatter.format("Validation failed for {} customer {}", type, customerId).getMessage());
+                    blackhole.consume(MessageFormatter.arrayFormat("Error during validation of {} customer {}: {}",
+                            new Object[]{type, customerId, e.getMessage()}).getMessage());
+                    blackhole.consume(MessageFormatter.format("Error updating customer: {}", e.getMessage()).getMessage());
+                    Map<String, Object> attributes = new LinkedHashMap<>();
+                    attributes.put("timestamp", System.currentTimeMillis());
+                    attributes.put("path", "/customers/" + customerId);
+                    attributes.put("status", HttpStatus.BAD_REQUEST.value());
+                    attributes.put("error", HttpStatus.BAD_REQUEST.getReasonPhrase());
+                    attributes.put("message", e.getMessage());
+                    return Mono.just(ResponseEntity.badRequest().body(attributes));
+                })
+                .block();
+    }
+}
@@ -0,0 +1,129 @@
+package com.bootcamp.customerservice.webclient;
+
+import com.bootcamp.customerservice.webclient.model.AccountType;
+import com.bootcamp.customerservice.webclient.model.BankAccountDTO;
+import com.bootcamp.customerservice.webclient.probe.StreamingJsonProbe;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Current account and savings balance probes against a local account service stub,
+ * binding whole accounts as the WebClient codecs do versus reading single tokens with
+ * {@link StreamingJsonProbe}. The account listing holds {@code size} accounts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountProbeBenchmark {
+
+    private static final String LISTING = "/accounts/customer/c1/type/CURRENT";
+
+    private static final String FIRST_ACCOUNT = "/accounts/first-account/customer/c1/type/SAVINGS";
+
+    @Param({"1", "100", "1000"})
+    public int size;
+
+    private DisposableServer server;
+
+    private WebClient webClient;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<BankAccountDTO> accounts = IntStream.range(0, size)
+                .mapToObj(i -> account("account-" + i, AccountType.CURRENT, 100.0 * i))
+                .collect(Collectors.toList());
+        byte[] listing = objectMapper.writeValueAsBytes(accounts);
+        byte[] firstAccount = objectMapper.writeValueAsBytes(account("account-0", AccountType.SAVINGS, 10_000.0));
+        server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes
+                        .get(LISTING, (request, response) -> response
+                                .header("Content-Type", "application/json")
+                                .sendByteArray(Mono.just(listing)))
+                        .get(FIRST_ACCOUNT, (request, response) -> response
+                                .header("Content-Type", "application/json")
+                                .sendByteArray(Mono.just(firstAccount))))
+                .bindNow();
+        webClient = WebClient.create("http://localhost:" + server.port());
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.disposeNow();
+    }
+
+    @Benchmark
+    public Boolean hasCurrentAccountDecoding() {
+        return webClient.get()
+                .uri(LISTING)
+                .retrieve()
+                .bodyToFlux(BankAccountDTO.class)
+                .hasElements()
+                .block();
+    }
+
+    @Benchmark
+    public Boolean hasCurrentAccountStreaming() {
+        return webClient.get()
+                .uri(LISTING)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchangeToMono(response -> StreamingJsonProbe.hasElements(response.bodyToFlux(DataBuffer.class)))
+                .block();
+    }
+
+    @Benchmark
+    public Double savingAccountBalanceDecoding() {
+        return webClient.get()
+                .uri(FIRST_ACCOUNT)
+                .retrieve()
+                .bodyToMono(BankAccountDTO.class)
+                .map(BankAccountDTO::getBalance)
+                .block();
+    }
+
+    @Benchmark
+    public Double savingAccountBalanceStreaming() {
+        return webClient.get()
+                .uri(FIRST_ACCOUNT)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchangeToMono(response -> StreamingJsonProbe.numberField(response.bodyToFlux(DataBuffer.class), "balance"))
+                .block();
+    }
+
+    private static BankAccountDTO account(String id, AccountType type, double balance) {
+        BankAccountDTO account = new BankAccountDTO();
+        account.setId(id);
+        account.setCustomerId("c1");
+        account.setType(type);
+        account.setBalance(balance);
+        return account;
+    }
+}
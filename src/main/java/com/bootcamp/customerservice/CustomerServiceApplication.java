@@ -1,13 +1,10 @@
 package com.bootcamp.customerservice;
 
-import com.bootcamp.customerservice.repository.CustomerRepository;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 
 
 @SpringBootApplication
-@EnableMongoRepositories(basePackageClasses = CustomerRepository.class)
 public class CustomerServiceApplication {
 
     public static void main(String[] args) {
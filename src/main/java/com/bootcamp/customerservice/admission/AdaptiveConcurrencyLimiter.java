@@ -0,0 +1,110 @@
+package com.bootcamp.customerservice.admission;
+
+import com.bootcamp.customerservice.config.AdmissionProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that adapts to the observed latency.
+ * The limit moves towards {@code limit * gradient + sqrt(limit)}, where the gradient is
+ * the ratio between the tolerated latency ({@code latencyTolerance} times the lowest
+ * recent latency) and the latency of the request, capped to [0.5, 1]. While requests
+ * are as fast as when the service is idle the limit grows; once they queue up it
+ * shrinks. Failed requests shrink it by {@code backoffRatio}.
+ * The lowest latency is re-measured every {@code rttWindow} samples so that the
+ * limiter follows lasting changes.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final AdmissionProperties.Limit config;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private volatile double limit;
+
+    private long minRttNanos = Long.MAX_VALUE;
+
+    private long windowMinRttNanos = Long.MAX_VALUE;
+
+    private int windowSamples;
+
+    public AdaptiveConcurrencyLimiter(AdmissionProperties.Limit config) {
+        this.config = config;
+        this.limit = config.getInitialLimit();
+    }
+
+    /**
+     * Takes a slot if fewer requests than the current limit are in flight.
+     *
+     * @return whether the request is admitted; admitted requests must be released exactly once.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a slot of a request that completed, using its latency to adjust the limit.
+     *
+     * @param rttNanos Latency of the request.
+     */
+    public void onSuccess(long rttNanos) {
+        int inflightAtCompletion = inflight.getAndDecrement();
+        synchronized (this) {
+            updateMinRtt(rttNanos);
+            double gradient = Math.max(0.5, Math.min(1.0, config.getLatencyTolerance() * minRttNanos / (double) rttNanos));
+            double target = limit * gradient + Math.sqrt(limit);
+            if (gradient >= 1.0 && inflightAtCompletion < limit / 2) {
+                // the limit was not the bottleneck, growing it would not be backed by evidence
+                return;
+            }
+            setLimit(limit * (1 - config.getSmoothing()) + target * config.getSmoothing());
+        }
+    }
+
+    /**
+     * Releases a slot of a request that failed or timed out, and backs the limit off.
+     */
+    public void onDropped() {
+        inflight.decrementAndGet();
+        synchronized (this) {
+            setLimit(limit * config.getBackoffRatio());
+        }
+    }
+
+    /**
+     * Releases a slot without adjusting the limit, for requests cancelled by the client.
+     */
+    public void onIgnore() {
+        inflight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    private void updateMinRtt(long rttNanos) {
+        windowMinRttNanos = Math.min(windowMinRttNanos, rttNanos);
+        minRttNanos = Math.min(minRttNanos, rttNanos);
+        if (++windowSamples >= config.getRttWindow()) {
+            minRttNanos = windowMinRttNanos;
+            windowMinRttNanos = Long.MAX_VALUE;
+            windowSamples = 0;
+        }
+    }
+
+    private void setLimit(double newLimit) {
+        limit = Math.max(config.getMinLimit(), Math.min(config.getMaxLimit(), newLimit));
+    }
+}
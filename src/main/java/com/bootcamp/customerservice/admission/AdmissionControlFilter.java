@@ -0,0 +1,162 @@
+package com.bootcamp.customerservice.admission;
+
+import com.bootcamp.customerservice.config.AdmissionProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission control in front of the customer API.
+ * Reads and writes each go through their own adaptive concurrency limit, since
+ * writes are slowed down by the downstream validation calls. Requests over the
+ * limit are rejected at once with 503 and Retry-After instead of queueing. When
+ * enabled, each client is also held to a token bucket and rejected with 429.
+ * The event stream is not limited, since its requests stay open.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AdmissionControlFilter implements WebFilter {
+
+    private static final String API_PATH = "/customers";
+
+    private static final String EVENTS_PATH = "/customers/events";
+
+    private static final String READ = "read";
+
+    private static final String WRITE = "write";
+
+    private final AdmissionProperties properties;
+
+    private final AdaptiveConcurrencyLimiter readLimiter;
+
+    private final AdaptiveConcurrencyLimiter writeLimiter;
+
+    private final ClientRateLimiter clientRateLimiter;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Counter readRateRejections;
+
+    private final Counter readConcurrencyRejections;
+
+    private final Counter writeRateRejections;
+
+    private final Counter writeConcurrencyRejections;
+
+    public AdmissionControlFilter(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.readLimiter = register(READ, new AdaptiveConcurrencyLimiter(properties.getRead()));
+        this.writeLimiter = register(WRITE, new AdaptiveConcurrencyLimiter(properties.getWrite()));
+        this.readRateRejections = rejections(READ, "rate");
+        this.readConcurrencyRejections = rejections(READ, "concurrency");
+        this.writeRateRejections = rejections(WRITE, "rate");
+        this.writeConcurrencyRejections = rejections(WRITE, "concurrency");
+        this.clientRateLimiter = properties.getRateLimit().isEnabled()
+                ? new ClientRateLimiter(properties.getRateLimit())
+                : null;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+        if (!properties.isEnabled() || !path.startsWith(API_PATH) || path.startsWith(EVENTS_PATH)) {
+            return chain.filter(exchange);
+        }
+        boolean read = exchange.getRequest().getMethod() == HttpMethod.GET || exchange.getRequest().getMethod() == HttpMethod.HEAD;
+
+        if (clientRateLimiter != null) {
+            long waitNanos = clientRateLimiter.tryAcquire(clientId(exchange));
+            if (waitNanos > 0) {
+                return reject(exchange, HttpStatus.TOO_MANY_REQUESTS, read ? readRateRejections : writeRateRejections,
+                        Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1)));
+            }
+        }
+
+        AdaptiveConcurrencyLimiter limiter = read ? readLimiter : writeLimiter;
+        if (!limiter.tryAcquire()) {
+            return reject(exchange, HttpStatus.SERVICE_UNAVAILABLE, read ? readConcurrencyRejections : writeConcurrencyRejections,
+                    Math.max(1, properties.getRetryAfter().getSeconds()));
+        }
+        long start = System.nanoTime();
+        AtomicBoolean failed = new AtomicBoolean();
+        return chain.filter(exchange)
+                .doOnError(e -> failed.set(isServerFailure(e)))
+                .doFinally(signal -> {
+                    if (signal == SignalType.CANCEL) {
+                        limiter.onIgnore();
+                    } else if (failed.get() || isServerFailure(exchange.getResponse().getStatusCode())) {
+                        limiter.onDropped();
+                    } else {
+                        limiter.onSuccess(System.nanoTime() - start);
+                    }
+                });
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, HttpStatus status, Counter rejections, long retryAfterSeconds) {
+        rejections.increment();
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return response.setComplete();
+    }
+
+    private String clientId(ServerWebExchange exchange) {
+        String clientId = exchange.getRequest().getHeaders().getFirst(properties.getRateLimit().getClientHeader());
+        if (clientId != null) {
+            return clientId;
+        }
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        return remoteAddress != null ? remoteAddress.getHostString() : "unknown";
+    }
+
+    private AdaptiveConcurrencyLimiter register(String limitClass, AdaptiveConcurrencyLimiter limiter) {
+        Gauge.builder("customer.admission.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("class", limitClass)
+                .register(meterRegistry);
+        Gauge.builder("customer.admission.inflight", limiter, AdaptiveConcurrencyLimiter::getInflight)
+                .description("Admitted requests in flight")
+                .tag("class", limitClass)
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    private Counter rejections(String limitClass, String reason) {
+        return Counter.builder("customer.admission.rejected")
+                .description("Requests rejected by admission control")
+                .tags("class", limitClass, "reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static boolean isServerFailure(HttpStatus status) {
+        return status != null && status.is5xxServerError();
+    }
+
+    private static boolean isServerFailure(Throwable failure) {
+        if (failure instanceof ResponseStatusException) {
+            return ((ResponseStatusException) failure).getStatus().is5xxServerError();
+        }
+        ResponseStatus status = AnnotatedElementUtils.findMergedAnnotation(failure.getClass(), ResponseStatus.class);
+        return status == null || status.code().is5xxServerError();
+    }
+}
@@ -0,0 +1,58 @@
+package com.bootcamp.customerservice.admission;
+
+import com.bootcamp.customerservice.config.AdmissionProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * Token bucket per client. Buckets refill at {@code permitsPerSecond} up to {@code burst}
+ * tokens, and idle clients are forgotten so that the number of buckets stays bounded.
+ */
+public class ClientRateLimiter {
+
+    private final AdmissionProperties.RateLimit config;
+
+    private final Cache<String, TokenBucket> buckets;
+
+    public ClientRateLimiter(AdmissionProperties.RateLimit config) {
+        this.config = config;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(config.getMaxClients())
+                .expireAfterAccess(Duration.ofSeconds((long) Math.ceil(config.getBurst() / config.getPermitsPerSecond()) + 1))
+                .build();
+    }
+
+    /**
+     * Takes a token from the bucket of the client.
+     *
+     * @param clientId The client the request comes from.
+     * @return 0 if the request is allowed, otherwise the number of nanoseconds until the next token.
+     */
+    public long tryAcquire(String clientId) {
+        return buckets.get(clientId, id -> new TokenBucket(config.getBurst()))
+                .tryAcquire(System.nanoTime(), config.getPermitsPerSecond(), config.getBurst());
+    }
+
+    private static class TokenBucket {
+
+        private double tokens;
+
+        private long refilledAt = System.nanoTime();
+
+        TokenBucket(double tokens) {
+            this.tokens = tokens;
+        }
+
+        synchronized long tryAcquire(long now, double permitsPerSecond, int burst) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) / 1e9 * permitsPerSecond);
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / permitsPerSecond * 1e9);
+        }
+    }
+}
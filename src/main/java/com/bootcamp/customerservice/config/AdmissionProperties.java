@@ -0,0 +1,45 @@
+package com.bootcamp.customerservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Concurrency limits and per-client rate limits applied to the customer API
+ * before requests reach the service.
+ */
+@Data
+@ConfigurationProperties(prefix = "admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    private Limit read = new Limit();
+
+    private Limit write = new Limit();
+
+    private RateLimit rateLimit = new RateLimit();
+
+    @Data
+    public static class Limit {
+        private int initialLimit = 64;
+        private int minLimit = 4;
+        private int maxLimit = 512;
+        private double latencyTolerance = 2.0;
+        private double smoothing = 0.1;
+        private double backoffRatio = 0.9;
+        private int rttWindow = 500;
+    }
+
+    @Data
+    public static class RateLimit {
+        private boolean enabled = false;
+        private String clientHeader = "X-Client-Id";
+        private double permitsPerSecond = 50;
+        private int burst = 100;
+        private long maxClients = 10_000;
+    }
+}
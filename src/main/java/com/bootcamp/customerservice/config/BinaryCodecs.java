@@ -0,0 +1,86 @@
+package com.bootcamp.customerservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.CodecConfigurer;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CBOR and Smile codecs, configured like the JSON codec of the application.
+ * They are registered ahead of the default codecs on the server, and on the downstream
+ * clients that are set to use a binary format.
+ */
+@Component
+public class BinaryCodecs implements CodecCustomizer {
+
+    /**
+     * The media types of the binary codecs. Without them the Jackson codecs default to the
+     * JSON media types, and would take JSON requests from the default JSON codecs.
+     */
+    private static final MimeType[] SMILE_MIME_TYPES = {
+            new MimeType("application", "x-jackson-smile"),
+            new MimeType("application", "*+x-jackson-smile")
+    };
+
+    private final ObjectMapper cborMapper;
+
+    private final ObjectMapper smileMapper;
+
+    public BinaryCodecs(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        this.cborMapper = objectMapperBuilder.factory(new CBORFactory()).build();
+        this.smileMapper = objectMapperBuilder.factory(new SmileFactory()).build();
+    }
+
+    @Override
+    public void customize(CodecConfigurer configurer) {
+        configurer.customCodecs().register(new CollectingCborEncoder(cborMapper));
+        configurer.customCodecs().register(new Jackson2CborDecoder(cborMapper, MediaType.APPLICATION_CBOR));
+        configurer.customCodecs().register(new Jackson2SmileEncoder(smileMapper, SMILE_MIME_TYPES));
+        configurer.customCodecs().register(new Jackson2SmileDecoder(smileMapper, SMILE_MIME_TYPES));
+    }
+
+    /**
+     * CBOR encoder that writes a stream of values as one array, as the JSON and Smile
+     * encoders do, instead of rejecting it. Streamed bodies are bounded pages, so
+     * collecting them first is fine.
+     */
+    static class CollectingCborEncoder extends Jackson2CborEncoder {
+
+        CollectingCborEncoder(ObjectMapper mapper) {
+            super(mapper, MediaType.APPLICATION_CBOR);
+        }
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory, ResolvableType elementType,
+                                       MimeType mimeType, Map<String, Object> hints) {
+            if (inputStream instanceof Mono) {
+                return Mono.from(inputStream)
+                        .map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints))
+                        .flux();
+            }
+            ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, elementType);
+            return Flux.from(inputStream)
+                    .collectList()
+                    .map(list -> encodeValue(list, bufferFactory, listType, mimeType, hints))
+                    .flux();
+        }
+    }
+}
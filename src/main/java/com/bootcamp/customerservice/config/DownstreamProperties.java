@@ -0,0 +1,76 @@
+package com.bootcamp.customerservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.MediaType;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Connection, timeout, retry and wire format settings of the downstream service clients,
+ * keyed by client name.
+ */
+@Data
+@ConfigurationProperties(prefix = "downstream")
+public class DownstreamProperties {
+
+    public static final String ACCOUNT_SERVICE = "accountService";
+
+    public static final String CREDIT_SERVICE = "creditService";
+
+    private Map<String, Client> clients = new HashMap<>();
+
+    public Client client(String name) {
+        return clients.getOrDefault(name, new Client());
+    }
+
+    @Data
+    public static class Client {
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration responseTimeout = Duration.ofSeconds(3);
+        private int maxConnections = 50;
+        private int pendingAcquireMaxCount = 200;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(1);
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        private int retryMaxAttempts = 2;
+        private Duration retryBackoff = Duration.ofMillis(100);
+        private double retryJitter = 0.5;
+        /**
+         * Format of request bodies and preferred format of responses; JSON is still accepted in responses.
+         * Only set a binary format for services that support it.
+         */
+        private Format format = Format.JSON;
+        /**
+         * Whether to ask for gzip-compressed responses.
+         */
+        private boolean compression = false;
+        /**
+         * Whether single-customer probes read only the token they need from a streamed JSON
+         * response and cancel the rest, instead of binding whole account objects.
+         */
+        private boolean streamingProbes = true;
+        /**
+         * Whether the service honours a limit query parameter on account listings,
+         * so that existence probes can ask for a single account.
+         */
+        private boolean probeLimitSupported = false;
+    }
+
+    public enum Format {
+        JSON(MediaType.APPLICATION_JSON),
+        CBOR(MediaType.APPLICATION_CBOR),
+        SMILE(new MediaType("application", "x-jackson-smile"));
+
+        private final MediaType mediaType;
+
+        Format(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.bootcamp.customerservice.config;
+
+import com.bootcamp.customerservice.repository.CustomerRepository;
+import com.bootcamp.customerservice.repository.memory.InMemoryPersistence;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+
+/**
+ * Mongo repositories, replaced by the in-memory stores when the in-memory profile is active.
+ */
+@Configuration
+@Profile("!" + InMemoryPersistence.PROFILE)
+@EnableMongoRepositories(basePackageClasses = CustomerRepository.class)
+public class MongoConfig {
+
+}
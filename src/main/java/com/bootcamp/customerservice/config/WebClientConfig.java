@@ -1,27 +1,89 @@
 package com.bootcamp.customerservice.config;
 
+import io.netty.channel.ChannelOption;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.List;
 
 @Configuration
+@EnableConfigurationProperties(DownstreamProperties.class)
 public class WebClientConfig {
 
     @Bean
     @Qualifier("creditServiceClient")
-    public WebClient creditServiceWebClient(@Value("${creditproduct.service.url}") String creditServiceUrl) {
-        return WebClient.builder()
-                .baseUrl(creditServiceUrl)
-                .build();
+    public WebClient creditServiceWebClient(@Value("${creditproduct.service.url}") String creditServiceUrl,
+                                            DownstreamProperties downstreamProperties,
+                                            BinaryCodecs binaryCodecs) {
+        return webClient(creditServiceUrl, DownstreamProperties.CREDIT_SERVICE, downstreamProperties, binaryCodecs);
     }
 
     @Bean
     @Qualifier("accountServiceClient")
-    public WebClient accountServiceWebClient(@Value("${account.service.url}") String accountServiceUrl) {
-        return WebClient.builder()
-                .baseUrl(accountServiceUrl)
+    public WebClient accountServiceWebClient(@Value("${account.service.url}") String accountServiceUrl,
+                                             DownstreamProperties downstreamProperties,
+                                             BinaryCodecs binaryCodecs) {
+        return webClient(accountServiceUrl, DownstreamProperties.ACCOUNT_SERVICE, downstreamProperties, binaryCodecs);
+    }
+
+    private static WebClient webClient(String baseUrl, String name, DownstreamProperties downstreamProperties, BinaryCodecs binaryCodecs) {
+        WebClient.Builder builder = WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(connector(name, downstreamProperties));
+        DownstreamProperties.Format format = downstreamProperties.client(name).getFormat();
+        if (format != DownstreamProperties.Format.JSON) {
+            builder.codecs(binaryCodecs::customize)
+                    .filter(preferring(format.getMediaType()));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Asks for the given format, falling back to JSON, and sends request bodies in it.
+     * Requests that set their own Accept header, such as the streaming JSON probes, keep it.
+     */
+    private static ExchangeFilterFunction preferring(MediaType mediaType) {
+        return (request, next) -> next.exchange(ClientRequest.from(request)
+                .headers(headers -> {
+                    if (headers.getAccept().isEmpty()) {
+                        headers.setAccept(List.of(mediaType, MediaType.APPLICATION_JSON));
+                    }
+                    if (request.method() != HttpMethod.GET && headers.getContentType() == null) {
+                        headers.setContentType(mediaType);
+                    }
+                })
+                .build());
+    }
+
+    /**
+     * Builds a connector with its own sized connection pool and timeouts.
+     * Pool metrics are published under reactor.netty.connection.provider with the client name.
+     * With compression enabled, gzip responses are requested and decompressed.
+     */
+    private static ReactorClientHttpConnector connector(String name, DownstreamProperties downstreamProperties) {
+        DownstreamProperties.Client client = downstreamProperties.client(name);
+        ConnectionProvider connectionProvider = ConnectionProvider.builder(name)
+                .maxConnections(client.getMaxConnections())
+                .pendingAcquireMaxCount(client.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(client.getPendingAcquireTimeout())
+                .maxIdleTime(client.getMaxIdleTime())
+                .metrics(true)
                 .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) client.getConnectTimeout().toMillis())
+                .responseTimeout(client.getResponseTimeout())
+                .compress(client.isCompression());
+        return new ReactorClientHttpConnector(httpClient);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,46 @@
+package com.bootcamp.customerservice.diagnostics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Installs BlockHound when {@code customer.diagnostics.blocking-calls} is {@code report} or
+ * {@code fail}. It is installed while the context starts, before the web server and its
+ * event loops. Meant for tests and staging: every call on a non-blocking thread pays for
+ * the check while installed.
+ */
+@Slf4j
+@Component
+public class BlockingCallDetection implements DisposableBean {
+
+    private final BlockingCallReporter.Mode previousMode = BlockingCallReporter.getMode();
+
+    private final BlockingCallReporter.Mode mode;
+
+    public BlockingCallDetection(MeterRegistry meterRegistry,
+                                 @Value("${customer.diagnostics.blocking-calls}") String mode) {
+        this.mode = BlockingCallReporter.Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        if (this.mode != BlockingCallReporter.Mode.OFF) {
+            BlockingCallReporter.bindTo(meterRegistry);
+            BlockingCallReporter.install(this.mode);
+            log.info("Blocking call detection installed, mode {}", this.mode);
+        }
+    }
+
+    public BlockingCallReporter.Mode getMode() {
+        return mode;
+    }
+
+    @Override
+    public void destroy() {
+        if (mode != BlockingCallReporter.Mode.OFF) {
+            BlockingCallReporter.setMode(previousMode);
+            BlockingCallReporter.bindTo(null);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.bootcamp.customerservice.diagnostics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.BlockingMethod;
+import reactor.blockhound.BlockingOperationError;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Handles the blocking calls BlockHound detects on non-blocking threads: Reactor's parallel
+ * and single schedulers, the Netty event loops and RxJava's computation and single schedulers.
+ * BlockHound instruments the JVM once and can not be uninstalled, so what happens on a
+ * detected call is switched here: nothing, a counter and a log line, or an error thrown
+ * at the blocking call.
+ */
+@Slf4j
+public final class BlockingCallReporter {
+
+    public enum Mode {
+        OFF, REPORT, FAIL
+    }
+
+    public static final String BLOCKING_CALLS_METRIC = "customer.blocking.calls";
+
+    private static final String APPLICATION_PACKAGE = "com.bootcamp.customerservice.";
+
+    private static final int MAX_LOGGED_SITES = 1000;
+
+    private static final Set<String> loggedSites = ConcurrentHashMap.newKeySet();
+
+    private static volatile Mode mode = Mode.OFF;
+
+    private static volatile MeterRegistry meterRegistry;
+
+    private static boolean installed;
+
+    private BlockingCallReporter() {
+    }
+
+    /**
+     * Installs BlockHound, with the integrations found on the classpath, the first time
+     * it is called, and sets what happens on a detected call.
+     */
+    public static synchronized void install(Mode mode) {
+        if (!installed) {
+            BlockHound.install();
+            installed = true;
+        }
+        BlockingCallReporter.mode = mode;
+    }
+
+    public static Mode getMode() {
+        return mode;
+    }
+
+    public static void setMode(Mode mode) {
+        BlockingCallReporter.mode = mode;
+    }
+
+    /**
+     * Sets the registry detected calls are counted in, or none.
+     */
+    public static void bindTo(MeterRegistry meterRegistry) {
+        BlockingCallReporter.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Called by BlockHound on the thread making the blocking call. The stack is logged once
+     * per blocking method and call site, with the thread and the application frame that made
+     * the call, so a call repeated on every request does not flood the log.
+     */
+    static void report(BlockingMethod method) {
+        Mode current = mode;
+        if (current == Mode.OFF) {
+            return;
+        }
+        BlockingOperationError error = new BlockingOperationError(method);
+        MeterRegistry registry = meterRegistry;
+        if (registry != null) {
+            Counter.builder(BLOCKING_CALLS_METRIC)
+                    .description("Blocking calls made on non-blocking threads")
+                    .tag("method", method.toString())
+                    .register(registry)
+                    .increment();
+        }
+        String site = callSite(error.getStackTrace());
+        if (loggedSites.size() < MAX_LOGGED_SITES && loggedSites.add(method + "@" + site)) {
+            log.warn("Blocking call to {} on non-blocking thread {} from {}",
+                    method, Thread.currentThread().getName(), site, error);
+        }
+        if (current == Mode.FAIL) {
+            throw error;
+        }
+    }
+
+    /**
+     * The first application frame below the blocking call, which names the operation that
+     * made it. Frames of the diagnostics themselves are skipped.
+     */
+    private static String callSite(StackTraceElement[] stack) {
+        for (StackTraceElement frame : stack) {
+            String className = frame.getClassName();
+            if (className.startsWith(APPLICATION_PACKAGE)
+                    && !className.startsWith(BlockingCallReporter.class.getName())
+                    && !className.startsWith(CustomerBlockHoundIntegration.class.getName())) {
+                return frame.toString();
+            }
+        }
+        return "unknown";
+    }
+}
@@ -0,0 +1,23 @@
+package com.bootcamp.customerservice.diagnostics;
+
+import io.reactivex.rxjava3.internal.schedulers.NonBlockingThread;
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.integration.BlockHoundIntegration;
+
+/**
+ * BlockHound settings of the service, loaded with those of Reactor and Netty through
+ * {@code META-INF/services}. Blocking calls are handed to {@link BlockingCallReporter}.
+ */
+public class CustomerBlockHoundIntegration implements BlockHoundIntegration {
+
+    @Override
+    public void applyTo(BlockHound.Builder builder) {
+        builder
+                // BlockHound only knows RxJava 2; the computation and single schedulers of RxJava 3
+                // run on threads marked the same way
+                .nonBlockingThreadPredicate(current -> current.or(NonBlockingThread.class::isInstance))
+                // IDs are assigned on the event loops; the first one seeds ObjectId from SecureRandom once
+                .allowBlockingCallsInside("org.bson.types.ObjectId", "<clinit>")
+                .blockingMethodCallback(BlockingCallReporter::report);
+    }
+}
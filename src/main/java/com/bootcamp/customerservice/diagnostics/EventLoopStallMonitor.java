@@ -0,0 +1,108 @@
+package com.bootcamp.customerservice.diagnostics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.util.concurrent.EventExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorResourceFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how long the Netty event loops take to pick up a probe task. A loop that is
+ * busy, or blocked, delays every request it serves by that much; the lag is recorded in
+ * {@code customer.eventloop.lag}, and the part above the stall threshold is added up in
+ * {@code customer.eventloop.stall}. This covers blocking that BlockHound does not report,
+ * such as synchronized sections and allowed console logging.
+ */
+@Component
+public class EventLoopStallMonitor {
+
+    private static final long IDLE = -1;
+
+    private final ReactorResourceFactory resourceFactory;
+
+    private final boolean enabled;
+
+    private final long thresholdNanos;
+
+    private final Timer lag;
+
+    private final Counter stall;
+
+    private volatile List<LoopProbe> probes;
+
+    public EventLoopStallMonitor(ReactorResourceFactory resourceFactory,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${customer.diagnostics.stall-monitor.enabled}") boolean enabled,
+                                 @Value("${customer.diagnostics.stall-monitor.threshold-ms}") long thresholdMillis) {
+        this.resourceFactory = resourceFactory;
+        this.enabled = enabled;
+        this.thresholdNanos = Duration.ofMillis(thresholdMillis).toNanos();
+        this.lag = Timer.builder("customer.eventloop.lag")
+                .description("Delay before an event loop runs a newly submitted task")
+                .register(meterRegistry);
+        this.stall = Counter.builder("customer.eventloop.stall")
+                .description("Event loop lag above the stall threshold")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Submits a probe to every event loop that has run the previous one. A loop still
+     * holding its probe is stalled, and is measured when it gets to it.
+     */
+    @Scheduled(fixedDelayString = "${customer.diagnostics.stall-monitor.interval-ms}")
+    public void probe() {
+        if (!enabled) {
+            return;
+        }
+        for (LoopProbe probe : probes()) {
+            long submittedAt = System.nanoTime();
+            if (probe.submittedAt.compareAndSet(IDLE, submittedAt)) {
+                probe.executor.execute(() -> record(System.nanoTime() - probe.submittedAt.getAndSet(IDLE)));
+            }
+        }
+    }
+
+    void record(long lagNanos) {
+        lag.record(lagNanos, TimeUnit.NANOSECONDS);
+        if (lagNanos > thresholdNanos) {
+            stall.increment((lagNanos - thresholdNanos) / 1e9);
+        }
+    }
+
+    /**
+     * The loops of the server, which the WebClient connections share.
+     */
+    private List<LoopProbe> probes() {
+        List<LoopProbe> current = probes;
+        if (current == null) {
+            current = new ArrayList<>();
+            for (EventExecutor executor : resourceFactory.getLoopResources().onServer(LoopResources.DEFAULT_NATIVE)) {
+                current.add(new LoopProbe(executor));
+            }
+            probes = current;
+        }
+        return current;
+    }
+
+    private static final class LoopProbe {
+
+        private final EventExecutor executor;
+
+        private final AtomicLong submittedAt = new AtomicLong(IDLE);
+
+        private LoopProbe(EventExecutor executor) {
+            this.executor = executor;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
@@ -33,4 +34,9 @@ public class Customer {
     @NotNull(message = "Customer type is required")
     private CustomerType type; // enum: PERSONAL, BUSINESS, VIP, PYME
 
+    @Version
+    private Long version;
+
+    private EligibilitySnapshot eligibility;
+
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.bootcamp.customerservice.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Facts from the credit and account services last used to validate a customer,
+ * stored on the customer document. Facts that were not checked are null.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EligibilitySnapshot {
+
+    private Boolean hasCreditCard;
+
+    private Boolean hasCurrentAccount;
+
+    private Double savingsBalance;
+
+    private Boolean eligible;
+
+    private Instant validatedAt;
+
+}
@@ -0,0 +1,36 @@
+package com.bootcamp.customerservice.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Stored response of an idempotent request, keyed by operation and idempotency key.
+ * The body is kept as JSON so that any response type can be replayed. A pending record
+ * claims the key while its request runs, and has no response yet.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+    @Id
+    private String id;
+
+    private String requestFingerprint;
+
+    private boolean pending;
+
+    private int status;
+
+    private String body;
+
+    private Instant createdAt;
+
+}
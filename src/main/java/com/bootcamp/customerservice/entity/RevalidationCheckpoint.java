@@ -0,0 +1,47 @@
+package com.bootcamp.customerservice.entity;
+
+import com.bootcamp.customerservice.model.CustomerType;
+import com.bootcamp.customerservice.model.RevalidationProgress;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Progress of the VIP/PYME revalidation job, saved after every written batch
+ * so that an interrupted run can resume after its last written customer.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder(toBuilder = true)
+@Document(collection = "revalidation_checkpoints")
+public class RevalidationCheckpoint {
+    @Id
+    private String id;
+
+    private RevalidationProgress.StatusEnum status;
+
+    private CustomerType currentType;
+
+    private String lastCustomerId;
+
+    private long processed;
+
+    private long eligible;
+
+    private long ineligible;
+
+    private long failed;
+
+    private Instant startedAt;
+
+    private Instant updatedAt;
+
+    private Instant finishedAt;
+
+}
@@ -0,0 +1,28 @@
+package com.bootcamp.customerservice.metrics;
+
+import reactor.core.publisher.SignalType;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Callbacks run when the handling of a request ends, with the signal it ended with,
+ * including when its response body was never written.
+ * Stored in the Reactor context of every request by {@link ExchangeCompletionFilter}.
+ */
+public class ExchangeCompletion {
+
+    private final Queue<Consumer<SignalType>> callbacks = new ConcurrentLinkedQueue<>();
+
+    void onEnd(Consumer<SignalType> callback) {
+        callbacks.add(callback);
+    }
+
+    void end(SignalType signal) {
+        Consumer<SignalType> callback;
+        while ((callback = callbacks.poll()) != null) {
+            callback.accept(signal);
+        }
+    }
+}
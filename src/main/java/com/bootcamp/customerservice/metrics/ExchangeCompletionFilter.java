@@ -0,0 +1,23 @@
+package com.bootcamp.customerservice.metrics;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs the {@link ExchangeCompletion} callbacks of a request once its handling,
+ * including the write of the response, has ended.
+ */
+@Component
+public class ExchangeCompletionFilter implements WebFilter {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ExchangeCompletion completion = new ExchangeCompletion();
+        return chain.filter(exchange)
+                .doFinally(completion::end)
+                .contextWrite(context -> context.put(ExchangeCompletion.class, completion));
+    }
+}
@@ -0,0 +1,224 @@
+package com.bootcamp.customerservice.metrics;
+
+import com.bootcamp.customerservice.model.CustomerDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.util.context.ContextView;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Latency timers and in-flight gauges for the API operations, the Mongo repository calls
+ * and the downstream calls. Timers publish percentile histograms. Mongo and downstream time
+ * is also added to the {@link RequestTimings} of the current request when there is one.
+ * Meters are registered on first use and looked up by their tag values afterwards.
+ */
+@Component
+public class HotPathMetrics {
+
+    private static final String NONE = "NONE";
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99, 0.999};
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, AtomicInteger> operationsInFlight = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicInteger> downstreamCallsInFlight = new ConcurrentHashMap<>();
+
+    private final Map<MeterKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public HotPathMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Times an API operation, tagged by the customer type of the response body and the outcome.
+     * Operations that stream their response body are timed with {@link #timeStreamedOperation}.
+     */
+    public <T> Mono<ResponseEntity<T>> timeOperation(String operation, Mono<ResponseEntity<T>> call) {
+        AtomicInteger operationsInFlight = operationInFlight(operation);
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            AtomicReference<ResponseEntity<T>> response = new AtomicReference<>();
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            operationsInFlight.incrementAndGet();
+            return call
+                    .doOnNext(response::set)
+                    .doOnError(failure::set)
+                    .doFinally(signal -> {
+                        ResponseEntity<T> entity = response.get();
+                        recordOperation(operation, operationsInFlight, start, customerTypeOf(entity), outcomeOf(signal, entity, failure.get()));
+                    });
+        });
+    }
+
+    /**
+     * Times an API operation whose response body is streamed, until the body completes, fails
+     * or is cancelled by the client. Responses without a body are timed until they are ready,
+     * and a body that is never subscribed until the end of the {@link ExchangeCompletion exchange}.
+     * The operation is recorded once, by whichever of these ends it first.
+     */
+    public <T> Mono<ResponseEntity<Flux<T>>> timeStreamedOperation(String operation, Mono<ResponseEntity<Flux<T>>> call) {
+        AtomicInteger operationsInFlight = operationInFlight(operation);
+        return Mono.deferContextual(context -> {
+            long start = System.nanoTime();
+            AtomicReference<ResponseEntity<Flux<T>>> response = new AtomicReference<>();
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            AtomicBoolean streamed = new AtomicBoolean();
+            AtomicBoolean recorded = new AtomicBoolean();
+            Consumer<String> record = outcome -> {
+                if (recorded.compareAndSet(false, true)) {
+                    recordOperation(operation, operationsInFlight, start, NONE, outcome);
+                }
+            };
+            operationsInFlight.incrementAndGet();
+            context.<ExchangeCompletion>getOrEmpty(ExchangeCompletion.class).ifPresent(completion -> completion.onEnd(signal ->
+                    record.accept(outcomeOf(signal, signal == SignalType.ON_COMPLETE ? response.get() : null, failure.get()))));
+            return call
+                    .doOnNext(response::set)
+                    .doOnError(failure::set)
+                    .map(entity -> {
+                        if (entity.getBody() == null) {
+                            return entity;
+                        }
+                        // the body is written after the response is ready, so it ends the timing
+                        streamed.set(true);
+                        Flux<T> body = entity.getBody()
+                                .doOnComplete(() -> record.accept(outcomeOf(SignalType.ON_COMPLETE, entity, null)))
+                                .doOnError(e -> record.accept(outcomeOf(SignalType.ON_ERROR, null, e)))
+                                .doOnCancel(() -> record.accept(outcomeOf(SignalType.CANCEL)));
+                        return new ResponseEntity<>(body, entity.getHeaders(), entity.getStatusCode());
+                    })
+                    .doFinally(signal -> {
+                        if (!streamed.get()) {
+                            record.accept(outcomeOf(signal, response.get(), failure.get()));
+                        }
+                    });
+        });
+    }
+
+    public <T> Mono<T> timeMongo(String operation, Mono<T> call) {
+        return Mono.deferContextual(context -> {
+            long start = System.nanoTime();
+            return call.doFinally(signal -> recordMongo(operation, signal, System.nanoTime() - start, context));
+        });
+    }
+
+    public <T> Flux<T> timeMongo(String operation, Flux<T> call) {
+        return Flux.deferContextual(context -> {
+            long start = System.nanoTime();
+            return call.doFinally(signal -> recordMongo(operation, signal, System.nanoTime() - start, context));
+        });
+    }
+
+    public <T> Mono<T> timeDownstream(String client, String operation, Mono<T> call) {
+        AtomicInteger callsInFlight = inFlightGauge(downstreamCallsInFlight, "customer.downstream.inflight", "client", client);
+        return Mono.deferContextual(context -> {
+            long start = System.nanoTime();
+            callsInFlight.incrementAndGet();
+            return call.doFinally(signal -> {
+                callsInFlight.decrementAndGet();
+                long elapsed = System.nanoTime() - start;
+                timer(new MeterKey("customer.downstream", client, operation, outcomeOf(signal)),
+                        key -> Tags.of("client", key.getFirst(), "operation", key.getSecond(), "outcome", key.getThird()))
+                        .record(elapsed, TimeUnit.NANOSECONDS);
+                context.<RequestTimings>getOrEmpty(RequestTimings.class).ifPresent(timings -> timings.addDownstream(elapsed));
+            });
+        });
+    }
+
+    private void recordOperation(String operation, AtomicInteger operationsInFlight, long start, String customerType, String outcome) {
+        operationsInFlight.decrementAndGet();
+        timer(new MeterKey("customer.api", operation, customerType, outcome),
+                key -> Tags.of("operation", key.getFirst(), "customerType", key.getSecond(), "outcome", key.getThird()))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private void recordMongo(String operation, SignalType signal, long elapsed, ContextView context) {
+        timer(new MeterKey("customer.mongo", operation, outcomeOf(signal), NONE),
+                key -> Tags.of("operation", key.getFirst(), "outcome", key.getSecond()))
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        context.<RequestTimings>getOrEmpty(RequestTimings.class).ifPresent(timings -> timings.addMongo(elapsed));
+    }
+
+    private Timer timer(MeterKey key, Function<MeterKey, Tags> tags) {
+        Timer timer = timers.get(key);
+        return timer != null ? timer : timers.computeIfAbsent(key, missing -> Timer.builder(missing.getName())
+                .tags(tags.apply(missing))
+                .publishPercentileHistogram()
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry));
+    }
+
+    private AtomicInteger operationInFlight(String operation) {
+        return inFlightGauge(operationsInFlight, "customer.api.inflight", "operation", operation);
+    }
+
+    private AtomicInteger inFlightGauge(Map<String, AtomicInteger> gauges, String name, String tag, String value) {
+        AtomicInteger gauge = gauges.get(value);
+        return gauge != null ? gauge : gauges.computeIfAbsent(value, missing ->
+                meterRegistry.gauge(name, Tags.of(tag, missing), new AtomicInteger()));
+    }
+
+    private static String customerTypeOf(ResponseEntity<?> entity) {
+        if (entity != null && entity.getBody() instanceof CustomerDTO) {
+            CustomerDTO body = (CustomerDTO) entity.getBody();
+            return body.getType() != null ? body.getType().getValue() : NONE;
+        }
+        return NONE;
+    }
+
+    private static String outcomeOf(SignalType signal, ResponseEntity<?> entity, Throwable failure) {
+        if (entity != null) {
+            HttpStatus.Series series = HttpStatus.Series.resolve(entity.getStatusCodeValue());
+            return series != null ? series.name() : "UNKNOWN";
+        }
+        if (failure != null) {
+            ResponseStatus status = AnnotatedElementUtils.findMergedAnnotation(failure.getClass(), ResponseStatus.class);
+            return status != null ? status.code().series().name() : HttpStatus.Series.SERVER_ERROR.name();
+        }
+        return outcomeOf(signal);
+    }
+
+    private static String outcomeOf(SignalType signal) {
+        switch (signal) {
+            case ON_COMPLETE:
+                return "SUCCESS";
+            case ON_ERROR:
+                return "ERROR";
+            case CANCEL:
+                return "CANCELLED";
+            default:
+                return signal.name();
+        }
+    }
+
+    /**
+     * Name and tag values of a timer.
+     */
+    @Value
+    private static class MeterKey {
+        String name;
+        String first;
+        String second;
+        String third;
+    }
+}
@@ -0,0 +1,38 @@
+package com.bootcamp.customerservice.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Time spent by one request in Mongo and in downstream calls.
+ * Stored in the Reactor context of requests that asked for a timing breakdown.
+ */
+public class RequestTimings {
+
+    private final long startNanos = System.nanoTime();
+
+    private final LongAdder mongoNanos = new LongAdder();
+
+    private final LongAdder downstreamNanos = new LongAdder();
+
+    void addMongo(long nanos) {
+        mongoNanos.add(nanos);
+    }
+
+    void addDownstream(long nanos) {
+        downstreamNanos.add(nanos);
+    }
+
+    /**
+     * Formats the breakdown as a Server-Timing header value, in milliseconds.
+     */
+    public String toServerTiming() {
+        return String.format(Locale.ROOT, "mongo;dur=%.2f, downstream;dur=%.2f, total;dur=%.2f",
+                toMillis(mongoNanos.sum()), toMillis(downstreamNanos.sum()), toMillis(System.nanoTime() - startNanos));
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
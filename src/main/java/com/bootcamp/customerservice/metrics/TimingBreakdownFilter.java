@@ -0,0 +1,38 @@
+package com.bootcamp.customerservice.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Adds a Server-Timing header with the Mongo and downstream time of a request
+ * when the request carries the X-Timing-Breakdown header.
+ */
+@Component
+public class TimingBreakdownFilter implements WebFilter {
+
+    public static final String REQUEST_HEADER = "X-Timing-Breakdown";
+
+    public static final String RESPONSE_HEADER = "Server-Timing";
+
+    private final boolean enabled;
+
+    public TimingBreakdownFilter(@Value("${metrics.timing-breakdown.enabled}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!enabled || !exchange.getRequest().getHeaders().containsKey(REQUEST_HEADER)) {
+            return chain.filter(exchange);
+        }
+        RequestTimings timings = new RequestTimings();
+        exchange.getResponse().beforeCommit(() -> Mono.fromRunnable(() ->
+                exchange.getResponse().getHeaders().add(RESPONSE_HEADER, timings.toServerTiming())));
+        return chain.filter(exchange)
+                .contextWrite(context -> context.put(RequestTimings.class, timings));
+    }
+}
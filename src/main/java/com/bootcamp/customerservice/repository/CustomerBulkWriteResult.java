@@ -0,0 +1,26 @@
+package com.bootcamp.customerservice.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.dao.DataAccessException;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Outcome of an unordered bulk write of customers. Writes not listed here were applied.
+ */
+@Getter
+@AllArgsConstructor
+public class CustomerBulkWriteResult {
+
+    /**
+     * Errors of the inserts that failed, keyed by their position in the request.
+     */
+    private final Map<Integer, DataAccessException> failedInserts;
+
+    /**
+     * IDs of the customers whose field update failed or no longer matched the expected version.
+     */
+    private final Set<String> unappliedUpdates;
+}
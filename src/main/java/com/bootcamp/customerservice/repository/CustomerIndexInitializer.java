@@ -0,0 +1,40 @@
+package com.bootcamp.customerservice.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Creates the customer collection indexes once the application has started.
+ * The application only reports itself ready to take traffic once they are in place,
+ * and fails to start if they can not be created: without the unique email index
+ * duplicate emails would be accepted.
+ */
+@Slf4j
+@Component
+public class CustomerIndexInitializer {
+
+    private final CustomerRepository customerRepository;
+
+    private final Duration timeout;
+
+    public CustomerIndexInitializer(CustomerRepository customerRepository,
+                                    @Value("${customer.indexes.timeout}") Duration timeout) {
+        this.customerRepository = customerRepository;
+        this.timeout = timeout;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        try {
+            customerRepository.ensureIndexes().block(timeout);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Customer indexes could not be created: " + e.getMessage(), e);
+        }
+        log.info("Customer indexes are in place");
+    }
+}
@@ -1,10 +1,23 @@
 package com.bootcamp.customerservice.repository;
 
 import com.bootcamp.customerservice.entity.Customer;
+import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface CustomerRepository extends ReactiveMongoRepository<Customer, String> {
+public interface CustomerRepository extends ReactiveMongoRepository<Customer, String>, CustomerRepositoryCustom {
 
+    /**
+     * Gives a customer about to be inserted a new ObjectId and the initial version, 0.
+     * Every insert path assigns them this way before writing, whether the customer is
+     * inserted on its own or in a bulk write, so that all of them start from the same version.
+     *
+     * @return The given customer.
+     */
+    static Customer assignNewIdentity(Customer customer) {
+        customer.setId(new ObjectId().toHexString());
+        customer.setVersion(0L);
+        return customer;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,107 @@
+package com.bootcamp.customerservice.repository;
+
+import com.bootcamp.customerservice.entity.Customer;
+import com.bootcamp.customerservice.entity.EligibilitySnapshot;
+import com.bootcamp.customerservice.model.CustomerType;
+import com.mongodb.WriteConcern;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Customer queries that can not be expressed as derived repository methods.
+ * Reads only fetch the fields exposed through the API.
+ */
+public interface CustomerRepositoryCustom {
+
+    /**
+     * Finds customers ordered by ID, starting after the given ID.
+     *
+     * @param type    Customer type to filter by, or null for every type.
+     * @param afterId Only customers with a greater ID are returned, or null to start at the beginning.
+     * @param limit   Maximum number of customers, or 0 for no limit.
+     * @return Flux of customers as they are read from the cursor.
+     */
+    Flux<Customer> findPage(CustomerType type, String afterId, int limit);
+
+    /**
+     * Finds a customer by email, ignoring case.
+     *
+     * @param email The email of the customer.
+     * @return Mono emitting the customer, or empty if none matches.
+     */
+    Mono<Customer> findByEmail(String email);
+
+    /**
+     * Atomically writes the fields of a customer and increments its version.
+     *
+     * @param customerId      The ID of the customer to update.
+     * @param expectedVersion Version the stored customer must have, or null to skip the check.
+     * @param changes         Customer holding the new name, email and type, and the eligibility snapshot if revalidated.
+     * @param partial         Whether null fields in {@code changes} are left unchanged instead of cleared.
+     * @return Mono emitting the updated customer and its previous type, or empty if no customer matched.
+     */
+    Mono<CustomerUpdate> updateFields(String customerId, Long expectedVersion, Customer changes, boolean partial);
+
+    /**
+     * Replaces the eligibility snapshot of a customer, leaving its version unchanged.
+     *
+     * @param customerId  The ID of the customer to update.
+     * @param eligibility The new eligibility snapshot.
+     * @return Mono emitting the updated customer, or empty if no customer matched.
+     */
+    Mono<Customer> updateEligibility(String customerId, EligibilitySnapshot eligibility);
+
+    /**
+     * Replaces the eligibility snapshots of several customers in one bulk write, leaving their versions unchanged.
+     * A customer whose stored snapshot was validated at or after the new one keeps the stored snapshot.
+     *
+     * @param customers Customers holding their ID and new eligibility snapshot.
+     * @return Mono completing once the bulk write is acknowledged.
+     */
+    Mono<Void> updateEligibilities(List<Customer> customers);
+
+    /**
+     * Inserts new customers and applies versioned field updates in one unordered bulk write.
+     * A failing write does not prevent the others from being applied.
+     *
+     * @param inserts      Customers to insert, with their IDs and initial version assigned.
+     * @param updates      Field updates, at most one per customer.
+     * @param writeConcern Acknowledgement the bulk write waits for.
+     * @return Mono emitting the writes that were not applied; with an unacknowledged write concern every write is assumed applied.
+     */
+    Mono<CustomerBulkWriteResult> bulkWrite(List<Customer> inserts, List<VersionedFieldsWrite> updates, WriteConcern writeConcern);
+
+    /**
+     * Deletes a customer by ID.
+     *
+     * @param customerId The ID of the customer to delete.
+     * @return Mono emitting the deleted customer with its type, or empty if no customer matched.
+     */
+    Mono<Customer> removeById(String customerId);
+
+    /**
+     * Counts customers by type with an aggregation over the whole collection.
+     *
+     * @return Flux of the count of every type that has customers.
+     */
+    Flux<CustomerTypeCount> countByType();
+
+    /**
+     * Counts the customers created since the given instant by hour of creation,
+     * taken from the timestamp of their generated IDs.
+     *
+     * @param since Start of the first counted hour.
+     * @return Flux of the count of every hour in which customers were created.
+     */
+    Flux<HourlyCreationCount> countCreatedPerHour(Instant since);
+
+    /**
+     * Creates the indexes backing the customer queries if they do not exist yet.
+     *
+     * @return Mono completing once every index exists.
+     */
+    Mono<Void> ensureIndexes();
+}
@@ -0,0 +1,276 @@
+package com.bootcamp.customerservice.repository;
+
+import com.bootcamp.customerservice.entity.Customer;
+import com.bootcamp.customerservice.entity.EligibilitySnapshot;
+import com.bootcamp.customerservice.model.CustomerType;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.WriteConcern;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.PushOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuples;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class CustomerRepositoryCustomImpl implements CustomerRepositoryCustom {
+
+    /**
+     * Case-insensitive collation shared by the email index and the email lookup,
+     * so that the lookup can use the index.
+     */
+    private static final Collation EMAIL_COLLATION = Collation.of("en")
+            .strength(Collation.ComparisonLevel.secondary());
+
+    /**
+     * Field holding the IDs of the last bulk writes that updated a customer. A customer changed
+     * again after a bulk write keeps the marker, so whether the bulk write applied does not
+     * depend on the version read afterwards.
+     */
+    private static final String BULK_WRITES_FIELD = "bulkWrites";
+
+    private static final int BULK_WRITES_KEPT = 16;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public CustomerRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Flux<Customer> findPage(CustomerType type, String afterId, int limit) {
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "id"));
+        if (type != null) {
+            query.addCriteria(Criteria.where("type").is(type));
+        }
+        if (afterId != null) {
+            query.addCriteria(Criteria.where("id").gt(afterId));
+        }
+        if (limit > 0) {
+            query.limit(limit);
+        }
+        return mongoTemplate.find(withApiFields(query), Customer.class);
+    }
+
+    @Override
+    public Mono<Customer> findByEmail(String email) {
+        Query query = Query.query(Criteria.where("email").is(email)).collation(EMAIL_COLLATION);
+        return mongoTemplate.findOne(withApiFields(query), Customer.class);
+    }
+
+    @Override
+    public Mono<CustomerUpdate> updateFields(String customerId, Long expectedVersion, Customer changes, boolean partial) {
+        Query query = Query.query(Criteria.where("id").is(customerId));
+        if (expectedVersion != null) {
+            query.addCriteria(Criteria.where("version").is(expectedVersion));
+        }
+        Update update = new Update().inc("version", 1);
+        setField(update, "name", changes.getName(), partial);
+        setField(update, "email", changes.getEmail(), partial);
+        setField(update, "type", changes.getType(), partial);
+        // the snapshot is server-managed, so it is only written when the update revalidated it
+        setField(update, "eligibility", changes.getEligibility(), true);
+        // the previous document is returned so that callers learn the type it had, and the
+        // updated one is derived from it the same way the update applies
+        return mongoTemplate.findAndModify(withApiFields(query), update,
+                        FindAndModifyOptions.options().returnNew(false), Customer.class)
+                .map(previous -> CustomerUpdate.of(previous, changes, partial));
+    }
+
+    @Override
+    public Mono<Customer> updateEligibility(String customerId, EligibilitySnapshot eligibility) {
+        Query query = Query.query(Criteria.where("id").is(customerId));
+        return mongoTemplate.findAndModify(withApiFields(query), new Update().set("eligibility", eligibility),
+                FindAndModifyOptions.options().returnNew(true), Customer.class);
+    }
+
+    @Override
+    public Mono<Void> updateEligibilities(List<Customer> customers) {
+        MongoConverter converter = mongoTemplate.getConverter();
+        List<UpdateOneModel<Document>> updates = customers.stream()
+                .map(customer -> new UpdateOneModel<Document>(
+                        Filters.and(
+                                Filters.eq("_id", converter.convertId(customer.getId(), ObjectId.class)),
+                                // a snapshot taken since, by an update or a refresh, is kept
+                                Filters.not(Filters.gte("eligibility.validatedAt",
+                                        converter.convertToMongoType(customer.getEligibility().getValidatedAt())))),
+                        Updates.set("eligibility", converter.convertToMongoType(customer.getEligibility()))))
+                .collect(Collectors.toList());
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Customer.class))
+                .flatMap(collection -> Mono.from(collection.bulkWrite(updates, new BulkWriteOptions().ordered(false))))
+                .then();
+    }
+
+    @Override
+    public Mono<CustomerBulkWriteResult> bulkWrite(List<Customer> inserts, List<VersionedFieldsWrite> updates, WriteConcern writeConcern) {
+        MongoConverter converter = mongoTemplate.getConverter();
+        ObjectId bulkWriteId = new ObjectId();
+        List<WriteModel<Document>> writes = new ArrayList<>(inserts.size() + updates.size());
+        for (Customer customer : inserts) {
+            Document document = new Document();
+            converter.write(customer, document);
+            writes.add(new InsertOneModel<>(document));
+        }
+        for (VersionedFieldsWrite update : updates) {
+            writes.add(versionedUpdate(update, bulkWriteId, converter));
+        }
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Customer.class))
+                .flatMap(collection -> Mono.from(collection.withWriteConcern(writeConcern)
+                        .bulkWrite(writes, new BulkWriteOptions().ordered(false))))
+                .map(result -> Tuples.of(result, List.<BulkWriteError>of()))
+                .onErrorResume(MongoBulkWriteException.class, e -> Mono.just(Tuples.of(e.getWriteResult(), e.getWriteErrors())))
+                .flatMap(outcome -> {
+                    Map<Integer, DataAccessException> failedInserts = new HashMap<>();
+                    Set<String> unappliedUpdates = new HashSet<>();
+                    for (BulkWriteError error : outcome.getT2()) {
+                        if (error.getIndex() < inserts.size()) {
+                            failedInserts.put(error.getIndex(), translate(error));
+                        } else {
+                            unappliedUpdates.add(updates.get(error.getIndex() - inserts.size()).getCustomer().getId());
+                        }
+                    }
+                    int expectedMatches = updates.size() - unappliedUpdates.size();
+                    if (!outcome.getT1().wasAcknowledged() || outcome.getT1().getMatchedCount() >= expectedMatches) {
+                        return Mono.just(new CustomerBulkWriteResult(failedInserts, unappliedUpdates));
+                    }
+                    // some customers no longer had the expected version; the marker tells which were written
+                    return unmarkedUpdates(updates, unappliedUpdates, bulkWriteId)
+                            .map(unmarked -> {
+                                unappliedUpdates.addAll(unmarked);
+                                return new CustomerBulkWriteResult(failedInserts, unappliedUpdates);
+                            });
+                });
+    }
+
+    @Override
+    public Mono<Customer> removeById(String customerId) {
+        Query query = Query.query(Criteria.where("id").is(customerId));
+        query.fields().include("type");
+        return mongoTemplate.findAndRemove(query, Customer.class);
+    }
+
+    @Override
+    public Flux<CustomerTypeCount> countByType() {
+        Aggregation aggregation = Aggregation.newAggregation(Aggregation.group("type").count().as("count"));
+        return mongoTemplate.aggregate(aggregation, Customer.class, CustomerTypeCount.class);
+    }
+
+    @Override
+    public Flux<HourlyCreationCount> countCreatedPerHour(Instant since) {
+        Document creationMillis = new Document("$toLong", new Document("$toDate", "$_id"));
+        Document hourStart = new Document("$subtract", List.of(creationMillis,
+                new Document("$mod", List.of(creationMillis, Duration.ofHours(1).toMillis()))));
+        AggregationOperation groupByHour = context -> new Document("$group", new Document("_id", hourStart)
+                .append("count", new Document("$sum", 1)));
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("_id").gte(new ObjectId(Date.from(since)))),
+                groupByHour);
+        return mongoTemplate.aggregate(aggregation, Customer.class, HourlyCreationCount.class);
+    }
+
+    @Override
+    public Mono<Void> ensureIndexes() {
+        return Flux.concat(
+                        mongoTemplate.indexOps(Customer.class).ensureIndex(new Index()
+                                .named("email_ci_unique")
+                                .on("email", Sort.Direction.ASC)
+                                .unique()
+                                .collation(EMAIL_COLLATION)
+                                // email is optional: only documents with a string email are indexed,
+                                // so customers without one, stored missing or null, never collide
+                                .partial(PartialIndexFilter.of(Criteria.where("email").type(BsonType.STRING.getValue())))),
+                        mongoTemplate.indexOps(Customer.class).ensureIndex(new Index()
+                                .named("type_id")
+                                .on("type", Sort.Direction.ASC)
+                                .on("_id", Sort.Direction.ASC)))
+                .then();
+    }
+
+    /**
+     * Finds the updates whose customer does not carry the marker of the bulk write,
+     * that is, the updates the bulk write did not apply.
+     */
+    private Mono<Set<String>> unmarkedUpdates(List<VersionedFieldsWrite> updates, Set<String> failed, ObjectId bulkWriteId) {
+        Set<String> attempted = updates.stream()
+                .map(update -> update.getCustomer().getId())
+                .filter(id -> !failed.contains(id))
+                .collect(Collectors.toSet());
+        Query query = Query.query(Criteria.where("id").in(attempted).and(BULK_WRITES_FIELD).is(bulkWriteId));
+        query.fields().include("id");
+        return mongoTemplate.find(query, Customer.class)
+                .map(Customer::getId)
+                .collect(Collectors.toSet())
+                .map(marked -> attempted.stream()
+                        .filter(id -> !marked.contains(id))
+                        .collect(Collectors.toSet()));
+    }
+
+    private static UpdateOneModel<Document> versionedUpdate(VersionedFieldsWrite write, ObjectId bulkWriteId, MongoConverter converter) {
+        Customer customer = write.getCustomer();
+        Bson filter = Filters.and(
+                Filters.eq("_id", converter.convertId(customer.getId(), ObjectId.class)),
+                Filters.eq("version", write.getExpectedVersion()));
+        List<Bson> fields = new ArrayList<>(List.of(
+                Updates.set("name", customer.getName()),
+                Updates.set("email", customer.getEmail()),
+                Updates.set("type", converter.convertToMongoType(customer.getType())),
+                Updates.set("version", customer.getVersion()),
+                Updates.pushEach(BULK_WRITES_FIELD, List.of(bulkWriteId), new PushOptions().slice(-BULK_WRITES_KEPT))));
+        if (write.isEligibilityChanged()) {
+            fields.add(Updates.set("eligibility", converter.convertToMongoType(customer.getEligibility())));
+        }
+        return new UpdateOneModel<>(filter, Updates.combine(fields));
+    }
+
+    private static DataAccessException translate(BulkWriteError error) {
+        return ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY
+                ? new DuplicateKeyException(error.getMessage())
+                : new DataIntegrityViolationException(error.getMessage());
+    }
+
+    private static void setField(Update update, String field, Object value, boolean partial) {
+        if (value != null || !partial) {
+            update.set(field, value);
+        }
+    }
+
+    private static Query withApiFields(Query query) {
+        query.fields().include("name", "email", "type", "version", "eligibility");
+        return query;
+    }
+}
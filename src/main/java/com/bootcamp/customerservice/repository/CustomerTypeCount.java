@@ -0,0 +1,16 @@
+package com.bootcamp.customerservice.repository;
+
+import com.bootcamp.customerservice.model.CustomerType;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+
+/**
+ * Number of customers of one type, as grouped by the statistics aggregation.
+ */
+@Data
+public class CustomerTypeCount {
+    @Id
+    private CustomerType type;
+
+    private long count;
+}
@@ -0,0 +1,38 @@
+package com.bootcamp.customerservice.repository;
+
+import com.bootcamp.customerservice.entity.Customer;
+import com.bootcamp.customerservice.model.CustomerType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Result of an atomic customer update: the updated customer and the type it had before.
+ */
+@Getter
+@AllArgsConstructor
+public class CustomerUpdate {
+
+    private final CustomerType previousType;
+
+    private final Customer customer;
+
+    /**
+     * Derives the result of an update from the customer it was applied to, the same way the update writes it.
+     *
+     * @param previous The customer before the update.
+     * @param changes  Customer holding the new name, email and type, and the eligibility snapshot if revalidated.
+     * @param partial  Whether null fields in {@code changes} are left unchanged instead of cleared.
+     * @return The updated customer with its version incremented, and the previous type.
+     */
+    public static CustomerUpdate of(Customer previous, Customer changes, boolean partial) {
+        Customer updated = Customer.builder()
+                .id(previous.getId())
+                .name(changes.getName() != null || !partial ? changes.getName() : previous.getName())
+                .email(changes.getEmail() != null || !partial ? changes.getEmail() : previous.getEmail())
+                .type(changes.getType() != null || !partial ? changes.getType() : previous.getType())
+                .version(previous.getVersion() != null ? previous.getVersion() + 1 : 1L)
+                .eligibility(changes.getEligibility() != null ? changes.getEligibility() : previous.getEligibility())
+                .build();
+        return new CustomerUpdate(previous.getType(), updated);
+    }
+}
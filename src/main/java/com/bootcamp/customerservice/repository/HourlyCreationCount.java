@@ -0,0 +1,18 @@
+package com.bootcamp.customerservice.repository;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+
+/**
+ * Number of customers created in one hour, as grouped by the statistics aggregation.
+ */
+@Data
+public class HourlyCreationCount {
+    /**
+     * Start of the hour, in epoch milliseconds.
+     */
+    @Id
+    private long hourStart;
+
+    private long count;
+}
@@ -0,0 +1,10 @@
+package com.bootcamp.customerservice.repository;
+
+import com.bootcamp.customerservice.entity.IdempotencyRecord;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IdempotencyRecordRepository extends ReactiveMongoRepository<IdempotencyRecord, String>, IdempotencyRecordRepositoryCustom {
+
+}
@@ -0,0 +1,16 @@
+package com.bootcamp.customerservice.repository;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+public interface IdempotencyRecordRepositoryCustom {
+
+    /**
+     * Creates the TTL index that expires stored responses, if it does not exist yet.
+     *
+     * @param ttl How long stored responses are kept.
+     * @return Mono completing once the index exists.
+     */
+    Mono<Void> ensureIndexes(Duration ttl);
+}
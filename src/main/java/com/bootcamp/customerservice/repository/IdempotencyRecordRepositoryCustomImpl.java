@@ -0,0 +1,28 @@
+package com.bootcamp.customerservice.repository;
+
+import com.bootcamp.customerservice.entity.IdempotencyRecord;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+public class IdempotencyRecordRepositoryCustomImpl implements IdempotencyRecordRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public IdempotencyRecordRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Mono<Void> ensureIndexes(Duration ttl) {
+        return mongoTemplate.indexOps(IdempotencyRecord.class)
+                .ensureIndex(new Index()
+                        .named("created_at_ttl")
+                        .on("createdAt", Sort.Direction.ASC)
+                        .expire(ttl))
+                .then();
+    }
+}
@@ -0,0 +1,10 @@
+package com.bootcamp.customerservice.repository;
+
+import com.bootcamp.customerservice.entity.RevalidationCheckpoint;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RevalidationCheckpointRepository extends ReactiveMongoRepository<RevalidationCheckpoint, String> {
+
+}
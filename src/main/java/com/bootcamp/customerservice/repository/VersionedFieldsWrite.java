@@ -0,0 +1,25 @@
+package com.bootcamp.customerservice.repository;
+
+import com.bootcamp.customerservice.entity.Customer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Field update of a bulk write, applied only if the stored customer still has the expected version.
+ */
+@Getter
+@AllArgsConstructor
+public class VersionedFieldsWrite {
+
+    /**
+     * Customer holding the name, email, type and version to write.
+     */
+    private final Customer customer;
+
+    private final Long expectedVersion;
+
+    /**
+     * Whether the eligibility snapshot of {@link #customer} is written too.
+     */
+    private final boolean eligibilityChanged;
+}
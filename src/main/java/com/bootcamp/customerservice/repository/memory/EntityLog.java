@@ -0,0 +1,251 @@
+package com.bootcamp.customerservice.repository.memory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Snapshot and append-only change log of one in-memory store, kept as JSON lines in a local directory.
+ * Every write appends a line to the current log generation. A snapshot holds the whole store as
+ * of the start of a generation, so loading reads the snapshot and replays only the logs from that
+ * generation on, and older logs are deleted once the snapshot is in place.
+ * The methods that append and rotate are called under the write lock of the store.
+ */
+@Slf4j
+class EntityLog<T> {
+
+    private static final String PUT = "put";
+
+    private static final String DELETE = "delete";
+
+    private final String name;
+
+    private final Class<T> type;
+
+    private final ObjectMapper objectMapper;
+
+    private final Path directory;
+
+    private final boolean syncWrites;
+
+    private final Pattern logFilePattern;
+
+    private FileChannel channel;
+
+    private long generation;
+
+    private long appendedSinceSnapshot;
+
+    EntityLog(String name, Class<T> type, ObjectMapper objectMapper, Path directory, boolean syncWrites) {
+        this.name = name;
+        this.type = type;
+        this.objectMapper = objectMapper;
+        this.directory = directory;
+        this.syncWrites = syncWrites;
+        this.logFilePattern = Pattern.compile(Pattern.quote(name) + "-(\\d+)\\.log");
+    }
+
+    /**
+     * Replays the snapshot and the logs that follow it, then opens a new log generation.
+     *
+     * @param put    Receives every stored entity, in write order.
+     * @param remove Receives the ID of every deleted entity, in write order.
+     * @return Number of replayed lines.
+     */
+    long load(Consumer<T> put, Consumer<String> remove) {
+        try {
+            Files.createDirectories(directory);
+            long snapshotGeneration = 0;
+            long replayed = 0;
+            Path snapshot = snapshotFile();
+            if (Files.exists(snapshot)) {
+                try (BufferedReader reader = Files.newBufferedReader(snapshot, StandardCharsets.UTF_8)) {
+                    snapshotGeneration = Long.parseLong(reader.readLine().trim());
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        put.accept(objectMapper.readValue(line, type));
+                        replayed++;
+                    }
+                }
+            }
+            long lastGeneration = snapshotGeneration;
+            for (long logGeneration : logGenerations()) {
+                if (logGeneration < snapshotGeneration) {
+                    continue;
+                }
+                replayed += replay(logFile(logGeneration), put, remove);
+                lastGeneration = Math.max(lastGeneration, logGeneration);
+            }
+            open(lastGeneration + 1);
+            log.info("Loaded in-memory store {} from {} records in {}", name, replayed, directory);
+            return replayed;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load in-memory store " + name, e);
+        }
+    }
+
+    void appendPut(String id, T entity) {
+        ObjectNode line = objectMapper.createObjectNode()
+                .put("op", PUT)
+                .put("id", id);
+        line.set("entity", objectMapper.valueToTree(entity));
+        append(line);
+    }
+
+    void appendDelete(String id) {
+        append(objectMapper.createObjectNode()
+                .put("op", DELETE)
+                .put("id", id));
+    }
+
+    long getAppendedSinceSnapshot() {
+        return appendedSinceSnapshot;
+    }
+
+    /**
+     * Starts a new log generation, so that a snapshot of the current contents can be written
+     * while later writes go to the new log.
+     *
+     * @return The generation the snapshot must be written for.
+     */
+    long rotate() {
+        try {
+            open(generation + 1);
+            appendedSinceSnapshot = 0;
+            return generation;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not rotate the log of in-memory store " + name, e);
+        }
+    }
+
+    /**
+     * Writes the snapshot of a generation next to the current one and swaps it in,
+     * then deletes the logs it makes redundant.
+     */
+    void writeSnapshot(long snapshotGeneration, Collection<T> entities) {
+        Path snapshot = snapshotFile();
+        Path temporary = directory.resolve(name + ".snapshot.tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                writer.write(Long.toString(snapshotGeneration));
+                writer.newLine();
+                for (T entity : entities) {
+                    writer.write(objectMapper.writeValueAsString(entity));
+                    writer.newLine();
+                }
+            }
+            try (FileChannel snapshotChannel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                snapshotChannel.force(true);
+            }
+            Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            for (long logGeneration : logGenerations()) {
+                if (logGeneration < snapshotGeneration) {
+                    Files.deleteIfExists(logFile(logGeneration));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the snapshot of in-memory store " + name, e);
+        }
+    }
+
+    void close() {
+        try {
+            if (channel != null) {
+                channel.force(false);
+                channel.close();
+            }
+        } catch (IOException e) {
+            log.warn("Could not close the log of in-memory store {}: {}", name, e.getMessage());
+        }
+    }
+
+    private void append(JsonNode line) {
+        try {
+            byte[] bytes = (objectMapper.writeValueAsString(line) + "\n").getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (syncWrites) {
+                channel.force(false);
+            }
+            appendedSinceSnapshot++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to the log of in-memory store " + name, e);
+        }
+    }
+
+    private long replay(Path logFile, Consumer<T> put, Consumer<String> remove) throws IOException {
+        long replayed = 0;
+        try (BufferedReader reader = Files.newBufferedReader(logFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JsonNode entry;
+                try {
+                    entry = objectMapper.readTree(line);
+                } catch (IOException e) {
+                    // a line cut short by a crash ends the log
+                    log.warn("Ignoring the truncated end of {}", logFile);
+                    break;
+                }
+                if (DELETE.equals(entry.path("op").asText())) {
+                    remove.accept(entry.path("id").asText());
+                } else {
+                    put.accept(objectMapper.treeToValue(entry.get("entity"), type));
+                }
+                replayed++;
+            }
+        }
+        return replayed;
+    }
+
+    private void open(long nextGeneration) throws IOException {
+        FileChannel next = FileChannel.open(logFile(nextGeneration),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (channel != null) {
+            channel.force(false);
+            channel.close();
+        }
+        channel = next;
+        generation = nextGeneration;
+    }
+
+    private List<Long> logGenerations() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Long> generations = new ArrayList<>();
+            files.map(file -> logFilePattern.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .forEach(matcher -> generations.add(Long.parseLong(matcher.group(1))));
+            return generations.stream().sorted().collect(Collectors.toList());
+        }
+    }
+
+    private Path snapshotFile() {
+        return directory.resolve(name + ".snapshot");
+    }
+
+    private Path logFile(long logGeneration) {
+        return directory.resolve(name + "-" + logGeneration + ".log");
+    }
+}
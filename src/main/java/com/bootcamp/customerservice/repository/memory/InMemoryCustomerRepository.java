@@ -0,0 +1,302 @@
+package com.bootcamp.customerservice.repository.memory;
+
+import com.bootcamp.customerservice.entity.Customer;
+import com.bootcamp.customerservice.entity.EligibilitySnapshot;
+import com.bootcamp.customerservice.model.CustomerType;
+import com.bootcamp.customerservice.repository.CustomerBulkWriteResult;
+import com.bootcamp.customerservice.repository.CustomerRepository;
+import com.bootcamp.customerservice.repository.CustomerTypeCount;
+import com.bootcamp.customerservice.repository.CustomerUpdate;
+import com.bootcamp.customerservice.repository.HourlyCreationCount;
+import com.bootcamp.customerservice.repository.VersionedFieldsWrite;
+import com.mongodb.WriteConcern;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Customer store of the in-memory profile. Customers are kept by ID, with a unique
+ * case-insensitive index on email and an index of IDs by type, so that the queries
+ * answer the way the Mongo indexes do: pages in ID order, email lookups ignoring case,
+ * and duplicate emails rejected with {@link DuplicateKeyException}.
+ */
+@Repository
+@Profile(InMemoryPersistence.PROFILE)
+public class InMemoryCustomerRepository extends InMemoryRepository<Customer> implements CustomerRepository {
+
+    private static final String COLLECTION = "customers";
+
+    private final Map<String, String> idsByEmail = new ConcurrentHashMap<>();
+
+    private final Map<CustomerType, NavigableSet<String>> idsByType = new EnumMap<>(CustomerType.class);
+
+    public InMemoryCustomerRepository(InMemoryPersistence persistence) {
+        super(COLLECTION, Customer.class, persistence);
+        // every type gets its set up front, so the map itself is never modified and can be read without locking
+        for (CustomerType type : CustomerType.values()) {
+            idsByType.put(type, new ConcurrentSkipListSet<>());
+        }
+    }
+
+    @Override
+    public Flux<Customer> findPage(CustomerType type, String afterId, int limit) {
+        Flux<Customer> page = Flux.defer(() -> {
+            NavigableSet<String> ids = type != null ? idsByType.get(type) : entities.navigableKeySet();
+            return Flux.fromIterable(afterId != null ? ids.tailSet(afterId, false) : ids);
+        }).handle((id, sink) -> {
+            Customer customer = entities.get(id);
+            // the type may have changed since the index was read
+            if (customer != null && (type == null || type == customer.getType())) {
+                sink.next(copy(customer));
+            }
+        });
+        return limit > 0 ? page.take(limit) : page;
+    }
+
+    @Override
+    public Mono<Customer> findByEmail(String email) {
+        return Mono.fromSupplier(() -> {
+            String id = email != null ? idsByEmail.get(emailKey(email)) : null;
+            Customer customer = id != null ? entities.get(id) : null;
+            return customer != null ? copy(customer) : null;
+        });
+    }
+
+    @Override
+    public Mono<CustomerUpdate> updateFields(String customerId, Long expectedVersion, Customer changes, boolean partial) {
+        return write(() -> {
+            Customer previous = entities.get(customerId);
+            if (previous == null || (expectedVersion != null && !expectedVersion.equals(previous.getVersion()))) {
+                return null;
+            }
+            CustomerUpdate update = CustomerUpdate.of(previous, changes, partial);
+            putStored(previous, copy(update.getCustomer()));
+            return update;
+        });
+    }
+
+    @Override
+    public Mono<Customer> updateEligibility(String customerId, EligibilitySnapshot eligibility) {
+        return write(() -> {
+            Customer updated = putEligibility(customerId, eligibility);
+            return updated != null ? copy(updated) : null;
+        });
+    }
+
+    @Override
+    public Mono<Void> updateEligibilities(List<Customer> customers) {
+        return this.<Void>write(() -> {
+            customers.stream()
+                    .filter(customer -> !hasNewerEligibility(entities.get(customer.getId()), customer.getEligibility()))
+                    .forEach(customer -> putEligibility(customer.getId(), customer.getEligibility()));
+            return null;
+        });
+    }
+
+    /**
+     * Applies every write on its own, under one acquisition of the write lock, and reports
+     * the outcome of each. The outcome is exact whatever the write concern.
+     */
+    @Override
+    public Mono<CustomerBulkWriteResult> bulkWrite(List<Customer> inserts, List<VersionedFieldsWrite> updates, WriteConcern writeConcern) {
+        return write(() -> {
+            Map<Integer, DataAccessException> failedInserts = new HashMap<>();
+            Set<String> unappliedUpdates = new HashSet<>();
+            for (int i = 0; i < inserts.size(); i++) {
+                try {
+                    insertStored(inserts.get(i));
+                } catch (DataAccessException e) {
+                    failedInserts.put(i, e);
+                }
+            }
+            for (VersionedFieldsWrite update : updates) {
+                Customer customer = update.getCustomer();
+                Customer previous = entities.get(customer.getId());
+                if (previous == null || !Objects.equals(previous.getVersion(), update.getExpectedVersion())) {
+                    unappliedUpdates.add(customer.getId());
+                    continue;
+                }
+                Customer next = copy(previous);
+                next.setName(customer.getName());
+                next.setEmail(customer.getEmail());
+                next.setType(customer.getType());
+                next.setVersion(customer.getVersion());
+                if (update.isEligibilityChanged()) {
+                    next.setEligibility(copy(customer.getEligibility()));
+                }
+                try {
+                    putStored(previous, next);
+                } catch (DataAccessException e) {
+                    unappliedUpdates.add(customer.getId());
+                }
+            }
+            return new CustomerBulkWriteResult(failedInserts, unappliedUpdates);
+        });
+    }
+
+    @Override
+    public Mono<Customer> removeById(String customerId) {
+        return write(() -> removeStored(customerId));
+    }
+
+    @Override
+    public Flux<CustomerTypeCount> countByType() {
+        return Flux.defer(() -> Flux.fromIterable(idsByType.entrySet()))
+                .filter(ids -> !ids.getValue().isEmpty())
+                .map(ids -> {
+                    CustomerTypeCount count = new CustomerTypeCount();
+                    count.setType(ids.getKey());
+                    count.setCount(ids.getValue().size());
+                    return count;
+                });
+    }
+
+    @Override
+    public Flux<HourlyCreationCount> countCreatedPerHour(Instant since) {
+        return Flux.defer(() -> {
+            long hourMillis = Duration.ofHours(1).toMillis();
+            // the smallest ObjectId generated at the given second
+            String firstId = String.format("%08x", since.getEpochSecond()) + "0000000000000000";
+            Map<Long, Long> countsByHour = new TreeMap<>();
+            for (String id : entities.tailMap(firstId).keySet()) {
+                if (ObjectId.isValid(id)) {
+                    long creationMillis = new ObjectId(id).getDate().getTime();
+                    countsByHour.merge(creationMillis - creationMillis % hourMillis, 1L, Long::sum);
+                }
+            }
+            return Flux.fromIterable(countsByHour.entrySet());
+        }).map(hour -> {
+            HourlyCreationCount count = new HourlyCreationCount();
+            count.setHourStart(hour.getKey());
+            count.setCount(hour.getValue());
+            return count;
+        });
+    }
+
+    /**
+     * The indexes are maintained with every write, so there is nothing to create.
+     */
+    @Override
+    public Mono<Void> ensureIndexes() {
+        return Mono.empty();
+    }
+
+    @Override
+    protected String getId(Customer customer) {
+        return customer.getId();
+    }
+
+    @Override
+    protected void setId(Customer customer, String id) {
+        customer.setId(id);
+    }
+
+    @Override
+    protected Long getVersion(Customer customer) {
+        return customer.getVersion();
+    }
+
+    @Override
+    protected void setVersion(Customer customer, Long version) {
+        customer.setVersion(version);
+    }
+
+    @Override
+    protected boolean isVersioned() {
+        return true;
+    }
+
+    @Override
+    protected Customer copy(Customer customer) {
+        return Customer.builder()
+                .id(customer.getId())
+                .name(customer.getName())
+                .email(customer.getEmail())
+                .type(customer.getType())
+                .version(customer.getVersion())
+                .eligibility(copy(customer.getEligibility()))
+                .build();
+    }
+
+    @Override
+    protected void checkConstraints(Customer previous, Customer next) {
+        if (next.getEmail() == null) {
+            return;
+        }
+        String owner = idsByEmail.get(emailKey(next.getEmail()));
+        if (owner != null && !owner.equals(next.getId())) {
+            throw new DuplicateKeyException("E11000 duplicate key error collection: " + COLLECTION
+                    + " index: email_ci_unique dup key: { email: \"" + next.getEmail() + "\" }");
+        }
+    }
+
+    @Override
+    protected void indexed(Customer previous, Customer next) {
+        if (previous != null) {
+            if (previous.getEmail() != null) {
+                idsByEmail.remove(emailKey(previous.getEmail()), previous.getId());
+            }
+            if (previous.getType() != null) {
+                idsByType.get(previous.getType()).remove(previous.getId());
+            }
+        }
+        if (next != null) {
+            if (next.getEmail() != null) {
+                idsByEmail.put(emailKey(next.getEmail()), next.getId());
+            }
+            if (next.getType() != null) {
+                idsByType.get(next.getType()).add(next.getId());
+            }
+        }
+    }
+
+    /**
+     * Replaces the eligibility snapshot of a stored customer. Called under the write lock.
+     *
+     * @return The stored customer, or null if none has the given ID.
+     */
+    private Customer putEligibility(String customerId, EligibilitySnapshot eligibility) {
+        Customer previous = entities.get(customerId);
+        if (previous == null) {
+            return null;
+        }
+        Customer next = copy(previous);
+        next.setEligibility(copy(eligibility));
+        return putStored(previous, next);
+    }
+
+    private static boolean hasNewerEligibility(Customer stored, EligibilitySnapshot eligibility) {
+        Instant storedAt = stored != null && stored.getEligibility() != null ? stored.getEligibility().getValidatedAt() : null;
+        return storedAt != null && !storedAt.isBefore(eligibility.getValidatedAt());
+    }
+
+    private static EligibilitySnapshot copy(EligibilitySnapshot eligibility) {
+        return eligibility != null
+                ? new EligibilitySnapshot(eligibility.getHasCreditCard(), eligibility.getHasCurrentAccount(),
+                eligibility.getSavingsBalance(), eligibility.getEligible(), eligibility.getValidatedAt())
+                : null;
+    }
+
+    private static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
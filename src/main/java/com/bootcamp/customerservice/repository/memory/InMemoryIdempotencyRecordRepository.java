@@ -0,0 +1,53 @@
+package com.bootcamp.customerservice.repository.memory;
+
+import com.bootcamp.customerservice.entity.IdempotencyRecord;
+import com.bootcamp.customerservice.repository.IdempotencyRecordRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Idempotency record store of the in-memory profile. Like the Mongo TTL index, the TTL only
+ * applies once {@link #ensureIndexes(Duration)} is called: expired records are hidden from
+ * then on and dropped on the next compaction.
+ */
+@Repository
+@Profile(InMemoryPersistence.PROFILE)
+public class InMemoryIdempotencyRecordRepository extends InMemoryRepository<IdempotencyRecord> implements IdempotencyRecordRepository {
+
+    private volatile Duration ttl;
+
+    public InMemoryIdempotencyRecordRepository(InMemoryPersistence persistence) {
+        super("idempotency_keys", IdempotencyRecord.class, persistence);
+    }
+
+    @Override
+    public Mono<Void> ensureIndexes(Duration ttl) {
+        return Mono.fromRunnable(() -> this.ttl = ttl);
+    }
+
+    @Override
+    protected String getId(IdempotencyRecord record) {
+        return record.getId();
+    }
+
+    @Override
+    protected void setId(IdempotencyRecord record, String id) {
+        record.setId(id);
+    }
+
+    @Override
+    protected IdempotencyRecord copy(IdempotencyRecord record) {
+        return new IdempotencyRecord(record.getId(), record.getRequestFingerprint(), record.isPending(), record.getStatus(),
+                record.getBody(), record.getCreatedAt());
+    }
+
+    @Override
+    protected boolean isLive(IdempotencyRecord record) {
+        Duration expiry = ttl;
+        return expiry == null || record.getCreatedAt() == null || record.getCreatedAt().plus(expiry).isAfter(Instant.now());
+    }
+}
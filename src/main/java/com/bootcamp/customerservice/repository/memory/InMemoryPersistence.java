@@ -0,0 +1,51 @@
+package com.bootcamp.customerservice.repository.memory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Where the in-memory stores keep their snapshots and change logs.
+ * With no directory configured the stores are not persisted and start empty.
+ */
+@Component
+@Profile(InMemoryPersistence.PROFILE)
+public class InMemoryPersistence {
+
+    /**
+     * Profile replacing the Mongo repositories with the in-memory stores.
+     */
+    public static final String PROFILE = "in-memory";
+
+    private final ObjectMapper objectMapper;
+
+    private final Path directory;
+
+    private final boolean syncWrites;
+
+    public InMemoryPersistence(ObjectMapper objectMapper,
+                               @Value("${customer.store.directory}") String directory,
+                               @Value("${customer.store.sync-writes}") boolean syncWrites) {
+        this.objectMapper = objectMapper;
+        this.directory = directory.isBlank() ? null : Path.of(directory);
+        this.syncWrites = syncWrites;
+    }
+
+    /**
+     * Returns an in-memory setup that keeps nothing on disk.
+     */
+    public static InMemoryPersistence none() {
+        return new InMemoryPersistence(new ObjectMapper(), "", false);
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    <T> EntityLog<T> log(String name, Class<T> type) {
+        return isEnabled() ? new EntityLog<>(name, type, objectMapper, directory, syncWrites) : null;
+    }
+}
@@ -0,0 +1,450 @@
+package com.bootcamp.customerservice.repository.memory;
+
+import org.bson.types.ObjectId;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.scheduling.annotation.Scheduled;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Reactive repository over a concurrent sorted map, with the save, insert and delete semantics
+ * of the Mongo repositories: generated ObjectId IDs, optimistic locking on the version property,
+ * and duplicate key errors. Stored entities are copies, so callers never share them.
+ * Reads are lock-free. Writes are serialized by a lock so that subclasses can keep secondary
+ * indexes and constraints consistent with the primary map; when persistence is enabled, every
+ * write is appended to the change log before it is applied, on a worker thread since file
+ * writes block. Query by example is not supported.
+ *
+ * @param <T> Type of the stored entities.
+ */
+public abstract class InMemoryRepository<T> implements ReactiveMongoRepository<T, String>, DisposableBean {
+
+    protected final ConcurrentNavigableMap<String, T> entities = new ConcurrentSkipListMap<>();
+
+    protected final Object writeLock = new Object();
+
+    private final Object compactionLock = new Object();
+
+    private final String name;
+
+    private final EntityLog<T> log;
+
+    protected InMemoryRepository(String name, Class<T> type, InMemoryPersistence persistence) {
+        this.name = name;
+        this.log = persistence.log(name, type);
+    }
+
+    protected abstract String getId(T entity);
+
+    protected abstract void setId(T entity, String id);
+
+    protected abstract T copy(T entity);
+
+    /**
+     * Returns the version of a versioned entity, or null for entities without a version property.
+     */
+    protected Long getVersion(T entity) {
+        return null;
+    }
+
+    protected void setVersion(T entity, Long version) {
+    }
+
+    protected boolean isVersioned() {
+        return false;
+    }
+
+    /**
+     * Rejects a write that breaks a constraint of the store. Called under the write lock.
+     *
+     * @param previous The stored entity being replaced, or null.
+     * @param next     The entity about to be stored.
+     */
+    protected void checkConstraints(T previous, T next) {
+    }
+
+    /**
+     * Updates the secondary indexes after a write. Called under the write lock.
+     *
+     * @param previous The replaced or removed entity, or null.
+     * @param next     The stored entity, or null on removal.
+     */
+    protected void indexed(T previous, T next) {
+    }
+
+    /**
+     * Whether a stored entity is still visible; expired entities are dropped on the next compaction.
+     */
+    protected boolean isLive(T entity) {
+        return true;
+    }
+
+    @PostConstruct
+    public void load() {
+        if (log == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            log.load(entity -> indexed(entities.put(getId(entity), entity), entity),
+                    id -> {
+                        T previous = entities.remove(id);
+                        if (previous != null) {
+                            indexed(previous, null);
+                        }
+                    });
+        }
+    }
+
+    /**
+     * Drops expired entities and writes a snapshot if anything changed since the last one,
+     * so that the change log replayed on the next start stays short.
+     */
+    @Scheduled(cron = "${customer.store.snapshot-cron}")
+    public void compact() {
+        synchronized (compactionLock) {
+            long generation;
+            List<T> contents;
+            synchronized (writeLock) {
+                entities.values().stream()
+                        .filter(entity -> !isLive(entity))
+                        .map(this::getId)
+                        .collect(Collectors.toList())
+                        .forEach(this::removeStored);
+                if (log == null || log.getAppendedSinceSnapshot() == 0) {
+                    return;
+                }
+                generation = log.rotate();
+                contents = new ArrayList<>(entities.values());
+            }
+            // stored entities are never modified, so the copy can be written outside the lock
+            log.writeSnapshot(generation, contents);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        compact();
+        if (log != null) {
+            synchronized (writeLock) {
+                log.close();
+            }
+        }
+    }
+
+    @Override
+    public <S extends T> Mono<S> save(S entity) {
+        return write(() -> {
+            saveStored(entity);
+            return entity;
+        });
+    }
+
+    @Override
+    public <S extends T> Flux<S> saveAll(Iterable<S> entitiesToSave) {
+        return Flux.fromIterable(entitiesToSave).concatMap(entity -> save(entity));
+    }
+
+    @Override
+    public <S extends T> Flux<S> saveAll(Publisher<S> entityStream) {
+        return Flux.from(entityStream).concatMap(entity -> save(entity));
+    }
+
+    @Override
+    public <S extends T> Mono<S> insert(S entity) {
+        return write(() -> {
+            insertStored(entity);
+            return entity;
+        });
+    }
+
+    @Override
+    public <S extends T> Flux<S> insert(Iterable<S> entitiesToInsert) {
+        return Flux.fromIterable(entitiesToInsert).concatMap(entity -> insert(entity));
+    }
+
+    @Override
+    public <S extends T> Flux<S> insert(Publisher<S> entityStream) {
+        return Flux.from(entityStream).concatMap(entity -> insert(entity));
+    }
+
+    @Override
+    public Mono<T> findById(String id) {
+        return Mono.fromSupplier(() -> {
+            T entity = live(id);
+            return entity != null ? copy(entity) : null;
+        });
+    }
+
+    @Override
+    public Mono<T> findById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(String id) {
+        return Mono.fromSupplier(() -> live(id) != null);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<T> findAll() {
+        return Flux.defer(() -> Flux.fromIterable(entities.values()))
+                .filter(this::isLive)
+                .map(this::copy);
+    }
+
+    @Override
+    public Flux<T> findAll(Sort sort) {
+        return findAll().sort(comparator(sort));
+    }
+
+    @Override
+    public Flux<T> findAllById(Iterable<String> ids) {
+        return Flux.defer(() -> {
+            // like an $in query, every match is returned once, in storage order
+            TreeSet<String> sortedIds = new TreeSet<>();
+            ids.forEach(sortedIds::add);
+            return Flux.fromIterable(sortedIds);
+        }).handle((id, sink) -> {
+            T entity = live(id);
+            if (entity != null) {
+                sink.next(copy(entity));
+            }
+        });
+    }
+
+    @Override
+    public Flux<T> findAllById(Publisher<String> idStream) {
+        return Flux.from(idStream).collectList().flatMapMany(this::findAllById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return Mono.fromSupplier(() -> entities.values().stream().filter(this::isLive).count());
+    }
+
+    @Override
+    public Mono<Void> deleteById(String id) {
+        return this.<Void>write(() -> {
+            removeStored(id);
+            return null;
+        });
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(T entity) {
+        return deleteById(getId(entity));
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends String> ids) {
+        return this.<Void>write(() -> {
+            ids.forEach(this::removeStored);
+            return null;
+        });
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends T> entitiesToDelete) {
+        List<String> ids = new ArrayList<>();
+        entitiesToDelete.forEach(entity -> ids.add(getId(entity)));
+        return deleteAllById(ids);
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends T> entityStream) {
+        return Flux.from(entityStream)
+                .map(entity -> getId(entity))
+                .collectList()
+                .flatMap(this::deleteAllById);
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return this.<Void>write(() -> {
+            new ArrayList<>(entities.keySet()).forEach(this::removeStored);
+            return null;
+        });
+    }
+
+    @Override
+    public <S extends T> Mono<S> findOne(Example<S> example) {
+        return Mono.error(queryByExampleUnsupported());
+    }
+
+    @Override
+    public <S extends T> Flux<S> findAll(Example<S> example) {
+        return Flux.error(queryByExampleUnsupported());
+    }
+
+    @Override
+    public <S extends T> Flux<S> findAll(Example<S> example, Sort sort) {
+        return Flux.error(queryByExampleUnsupported());
+    }
+
+    @Override
+    public <S extends T> Mono<Long> count(Example<S> example) {
+        return Mono.error(queryByExampleUnsupported());
+    }
+
+    @Override
+    public <S extends T> Mono<Boolean> exists(Example<S> example) {
+        return Mono.error(queryByExampleUnsupported());
+    }
+
+    @Override
+    public <S extends T, R, P extends Publisher<R>> P findBy(Example<S> example,
+                                                             Function<FluentQuery.ReactiveFluentQuery<S>, P> queryFunction) {
+        throw queryByExampleUnsupported();
+    }
+
+    /**
+     * Runs a write under the write lock, on a worker thread when it is logged to disk.
+     *
+     * @return Mono emitting the result of the write, or empty if it is null.
+     */
+    protected <R> Mono<R> write(Supplier<R> operation) {
+        Mono<R> write = Mono.fromSupplier(() -> {
+            synchronized (writeLock) {
+                return operation.get();
+            }
+        });
+        return log != null ? write.subscribeOn(Schedulers.boundedElastic()) : write;
+    }
+
+    /**
+     * Returns the stored entity with the given ID if it is visible.
+     */
+    protected T live(String id) {
+        T entity = entities.get(id);
+        return entity != null && isLive(entity) ? entity : null;
+    }
+
+    /**
+     * Stores an entity in place of the previous one, checking constraints, logging the change
+     * and updating the secondary indexes. Called under the write lock.
+     */
+    protected T putStored(T previous, T next) {
+        checkConstraints(previous, next);
+        if (log != null) {
+            log.appendPut(getId(next), next);
+        }
+        entities.put(getId(next), next);
+        indexed(previous, next);
+        return next;
+    }
+
+    /**
+     * Removes the entity with the given ID. Called under the write lock.
+     *
+     * @return The removed entity, or null if none was stored.
+     */
+    protected T removeStored(String id) {
+        T previous = entities.get(id);
+        if (previous == null) {
+            return null;
+        }
+        if (log != null) {
+            log.appendDelete(id);
+        }
+        entities.remove(id);
+        indexed(previous, null);
+        return previous;
+    }
+
+    /**
+     * Inserts an entity, assigning a generated ID and the initial version if it has none. Called under the write lock.
+     *
+     * @throws DuplicateKeyException if an entity with the same ID is stored.
+     */
+    protected T insertStored(T entity) {
+        if (getId(entity) == null) {
+            setId(entity, new ObjectId().toHexString());
+        }
+        String id = getId(entity);
+        T previous = entities.get(id);
+        if (previous != null && isLive(previous)) {
+            throw new DuplicateKeyException("E11000 duplicate key error collection: " + name + " index: _id_ dup key: { _id: \"" + id + "\" }");
+        }
+        T stored = copy(entity);
+        if (isVersioned() && getVersion(entity) == null) {
+            setVersion(stored, 0L);
+        }
+        putStored(previous, stored);
+        setVersion(entity, getVersion(stored));
+        return stored;
+    }
+
+    private void saveStored(T entity) {
+        boolean isNew = isVersioned() ? getVersion(entity) == null : getId(entity) == null;
+        if (isNew) {
+            insertStored(entity);
+            return;
+        }
+        String id = getId(entity);
+        T previous = entities.get(id);
+        T stored = copy(entity);
+        if (isVersioned()) {
+            if (previous == null || !Objects.equals(getVersion(previous), getVersion(entity))) {
+                throw new OptimisticLockingFailureException(String.format(
+                        "Cannot save entity %s with version %s to collection %s. Has it been modified meanwhile?",
+                        id, getVersion(entity), name));
+            }
+            setVersion(stored, getVersion(entity) + 1);
+        }
+        putStored(previous, stored);
+        setVersion(entity, getVersion(stored));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Comparator<T> comparator(Sort sort) {
+        Comparator<T> comparator = (first, second) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<T> byProperty = Comparator.comparing(
+                    entity -> (Comparable<Object>) property(entity, order.getProperty()),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return comparator;
+    }
+
+    private Object property(T entity, String property) {
+        return "id".equals(property) || "_id".equals(property)
+                ? getId(entity)
+                : new BeanWrapperImpl(entity).getPropertyValue(property);
+    }
+
+    private UnsupportedOperationException queryByExampleUnsupported() {
+        return new UnsupportedOperationException("Query by example is not supported by the in-memory store " + name);
+    }
+}
@@ -0,0 +1,34 @@
+package com.bootcamp.customerservice.repository.memory;
+
+import com.bootcamp.customerservice.entity.RevalidationCheckpoint;
+import com.bootcamp.customerservice.repository.RevalidationCheckpointRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Revalidation checkpoint store of the in-memory profile.
+ */
+@Repository
+@Profile(InMemoryPersistence.PROFILE)
+public class InMemoryRevalidationCheckpointRepository extends InMemoryRepository<RevalidationCheckpoint>
+        implements RevalidationCheckpointRepository {
+
+    public InMemoryRevalidationCheckpointRepository(InMemoryPersistence persistence) {
+        super("revalidation_checkpoints", RevalidationCheckpoint.class, persistence);
+    }
+
+    @Override
+    protected String getId(RevalidationCheckpoint checkpoint) {
+        return checkpoint.getId();
+    }
+
+    @Override
+    protected void setId(RevalidationCheckpoint checkpoint, String id) {
+        checkpoint.setId(id);
+    }
+
+    @Override
+    protected RevalidationCheckpoint copy(RevalidationCheckpoint checkpoint) {
+        return checkpoint.toBuilder().build();
+    }
+}
@@ -0,0 +1,51 @@
+package com.bootcamp.customerservice.service;
+
+import com.bootcamp.customerservice.entity.Customer;
+import com.bootcamp.customerservice.entity.EligibilitySnapshot;
+import com.bootcamp.customerservice.model.CustomerDTO;
+import com.bootcamp.customerservice.model.CustomerEligibility;
+
+import java.time.ZoneOffset;
+
+/**
+ * Converts between the customer entity and its API representation.
+ */
+public final class CustomerMapper {
+
+    private CustomerMapper() {
+    }
+
+    public static Customer toEntity(CustomerDTO dto) {
+        return Customer.builder()
+                .id(dto.getId())
+                .name(dto.getName())
+                .email(dto.getEmail())
+                .type(dto.getType())
+                .version(dto.getVersion())
+                .build();
+    }
+
+    public static CustomerDTO toDto(Customer customer) {
+        return new CustomerDTO()
+                .id(customer.getId())
+                .name(customer.getName())
+                .email(customer.getEmail())
+                .type(customer.getType())
+                .version(customer.getVersion())
+                .eligibility(toDto(customer.getEligibility()));
+    }
+
+    public static CustomerEligibility toDto(EligibilitySnapshot eligibility) {
+        if (eligibility == null) {
+            return null;
+        }
+        return new CustomerEligibility()
+                .hasCreditCard(eligibility.getHasCreditCard())
+                .hasCurrentAccount(eligibility.getHasCurrentAccount())
+                .savingsBalance(eligibility.getSavingsBalance())
+                .eligible(eligibility.getEligible())
+                .validatedAt(eligibility.getValidatedAt() != null
+                        ? eligibility.getValidatedAt().atOffset(ZoneOffset.UTC)
+                        : null);
+    }
+}
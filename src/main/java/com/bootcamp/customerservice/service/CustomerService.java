@@ -1,17 +1,41 @@
 package com.bootcamp.customerservice.service;
 
 import com.bootcamp.customerservice.entity.Customer;
+import com.bootcamp.customerservice.entity.RevalidationCheckpoint;
 import com.bootcamp.customerservice.entity.VIPCustomer;
+import com.bootcamp.customerservice.metrics.HotPathMetrics;
 import com.bootcamp.customerservice.api.CustomersApiDelegate;
 import com.bootcamp.customerservice.model.CustomerDTO;
+import com.bootcamp.customerservice.model.CustomerEligibility;
+import com.bootcamp.customerservice.model.CustomerEvent;
+import com.bootcamp.customerservice.model.CustomerIdList;
+import com.bootcamp.customerservice.model.CustomerImportResult;
+import com.bootcamp.customerservice.model.CustomerLookupResult;
+import com.bootcamp.customerservice.model.CustomerSearchHit;
+import com.bootcamp.customerservice.model.CustomerSearchPage;
+import com.bootcamp.customerservice.model.CustomerStatistics;
+import com.bootcamp.customerservice.model.HourlyCreations;
 import com.bootcamp.customerservice.model.CustomerType;
+import com.bootcamp.customerservice.model.RevalidationProgress;
 import com.bootcamp.customerservice.repository.CustomerRepository;
+import com.bootcamp.customerservice.repository.CustomerUpdate;
+import com.bootcamp.customerservice.service.cache.CustomerCache;
+import com.bootcamp.customerservice.service.events.CustomerEventPublisher;
+import com.bootcamp.customerservice.service.idempotency.IdempotencyStore;
+import com.bootcamp.customerservice.service.revalidation.RevalidationJob;
+import com.bootcamp.customerservice.service.search.CustomerSearchIndex;
+import com.bootcamp.customerservice.service.statistics.CustomerStatisticsCounters;
+import com.bootcamp.customerservice.service.write.CustomerWriteBehind;
 import com.bootcamp.customerservice.service.exceptions.*;
-import com.bootcamp.customerservice.webclient.BankAccountWebClient;
-import com.bootcamp.customerservice.webclient.CreditServiceClient;
+import com.mongodb.WriteConcern;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.support.WebExchangeBindException;
@@ -19,8 +43,17 @@ import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 
 /**
@@ -35,31 +68,94 @@ import java.util.function.Predicate;
 @Service
 public class CustomerService implements CustomersApiDelegate {
 
+    // validation exceptions are stackless and immutable, so each rejection reuses one instance
+    private static final InvalidCustomerTypeException RESTRICTED_TYPE_CREATION =
+            new InvalidCustomerTypeException("Creation of VIP or PYME customers is not allowed.");
+
+    private static final NoCreditCardException VIP_WITHOUT_CREDIT_CARD =
+            new NoCreditCardException("VIP customers must have a credit card.");
+
+    private static final InsufficientBalanceException VIP_BELOW_MINIMUM_SAVINGS =
+            new InsufficientBalanceException("VIP customers must have a minimum savings amount of " + VIPCustomer.MINIMUM_SAVINGS_AMOUNT);
+
+    private static final NoCreditCardException PYME_WITHOUT_CREDIT_CARD =
+            new NoCreditCardException("PYME customers must have a credit card.");
+
+    private static final PymeRequirementsNotMetException PYME_WITHOUT_CURRENT_ACCOUNT =
+            new PymeRequirementsNotMetException("PYME customers must have a current account and a credit card.");
+
     @Autowired
     private CustomerRepository customerRepository;
 
     @Autowired
-    private BankAccountWebClient bankAccountWebClient;
+    private CustomerCache customerCache;
+
+    @Autowired
+    private HotPathMetrics hotPathMetrics;
+
+    @Autowired
+    private CustomerEventPublisher customerEventPublisher;
 
     @Autowired
-    private CreditServiceClient creditServiceClient;
+    private EligibilityService eligibilityService;
+
+    @Autowired
+    private RevalidationJob revalidationJob;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private CustomerSearchIndex customerSearchIndex;
+
+    @Autowired
+    private CustomerStatisticsCounters customerStatisticsCounters;
+
+    @Autowired
+    private CustomerWriteBehind customerWriteBehind;
+
+    @Value("${customer.import.batch-size}")
+    private int importBatchSize;
+
+    @Value("${customer.list.default-limit}")
+    private int defaultPageSize;
+
+    @Value("${customer.batch-get.chunk-size}")
+    private int batchGetChunkSize;
+
+    @Value("${customer.search.default-limit}")
+    private int defaultSearchLimit;
 
 
     /**
      * Creates a new customer.
      * This method takes a Mono of CustomerDTO, converts it to a Customer entity,
      * saves it to the repository, and then converts it back to DTO to return.
+     * With write-behind enabled the insert is sent in a bulk write with those of concurrent requests.
+     * A customer of a type that can not be created is answered with 400 and its error code.
+     * Retries carrying the same idempotency key get the stored first response.
      *
      * @param customerDTOMono A Mono stream of CustomerDTO.
+     * @param idempotencyKey  Optional key identifying the request across retries.
      * @return ResponseEntity containing the created CustomerDTO or an error message.
      */
     @Override
-    public Mono<ResponseEntity<CustomerDTO>> createCustomer(Mono<CustomerDTO> customerDTOMono, ServerWebExchange exchange) {
+    public Mono<ResponseEntity<CustomerDTO>> createCustomer(Mono<CustomerDTO> customerDTOMono, String idempotencyKey, ServerWebExchange exchange) {
+        return withIdempotency("createCustomer", idempotencyKey, customerDTOMono, this::create)
+                .transform(call -> hotPathMetrics.timeOperation("createCustomer", call));
+    }
+
+    private Mono<ResponseEntity<CustomerDTO>> create(Mono<CustomerDTO> customerDTOMono) {
         return customerDTOMono
-                .map(this::convertToEntity)
+                .map(CustomerMapper::toEntity)
+                .doOnNext(customer -> customer.setVersion(null))
                 .flatMap(this::validateCustomerType)
-                .flatMap(customerRepository::save)
-                .map(this::convertToDto)
+                .flatMap(customer -> hotPathMetrics.timeMongo("save", customerWriteBehind.insert(customer)))
+                .doOnNext(customerCache::put)
+                .doOnNext(customerSearchIndex::index)
+                .doOnNext(customer -> customerStatisticsCounters.created(customer.getType()))
+                .map(CustomerMapper::toDto)
+                .doOnNext(customerEventPublisher::created)
                 .map(savedCustomerDTO -> {
                     log.info("Customer created successfully: {}", savedCustomerDTO);
                     return ResponseEntity.status(HttpStatus.CREATED).body(savedCustomerDTO);
@@ -68,42 +164,78 @@ public class CustomerService implements CustomersApiDelegate {
                     log.error("Validation error: {}", e.getMessage());
                     return Mono.just(ResponseEntity.badRequest().body(new CustomerDTO()));
                 })
-                .onErrorResume(e -> {
+                .onErrorResume(DuplicateKeyException.class, e -> {
+                    log.warn("Customer with the same email already exists: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build());
+                })
+                .onErrorResume(e -> !(e instanceof CustomerValidationException), e -> {
                     log.error("Error creating customer: {}", e.getMessage());
                     return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
                 });
     }
 
 
+    /**
+     * Imports customers in bulk.
+     * This method validates each streamed record with the same rules as createCustomer,
+     * inserts the accepted ones in batches and streams back one result per record.
+     * Batches are written one at a time, so memory use does not depend on the upload size.
+     *
+     * @param customerDTOFlux A Flux stream of CustomerDTO, decoded from NDJSON or a JSON array.
+     * @return ResponseEntity containing a Flux of per-record import results.
+     */
+    @Override
+    public Mono<ResponseEntity<Flux<CustomerImportResult>>> importCustomers(Flux<CustomerDTO> customerDTOFlux, ServerWebExchange exchange) {
+        Flux<CustomerImportResult> results = customerDTOFlux
+                .index()
+                .concatMap(record -> validateCustomerType(CustomerMapper.toEntity(record.getT2()))
+                        .map(customer -> new ImportRecord(record.getT1(), customer, null))
+                        .onErrorResume(e -> Mono.just(new ImportRecord(record.getT1(), null, e.getMessage()))))
+                .buffer(importBatchSize)
+                .concatMap(this::insertBatch, 1)
+                .doOnError(e -> log.error("Error importing customers: {}", e.getMessage()));
+        return hotPathMetrics.timeStreamedOperation("importCustomers", Mono.just(ResponseEntity.ok(results)));
+    }
+
+
     /**
      * Deletes a customer by their ID.
-     * This method finds a customer by ID and deletes them if found.
+     * This method deletes the customer in a single round trip, getting back its type
+     * for the statistics, and answers not found when no customer was deleted.
      *
      * @param customerId The ID of the customer to delete.
      * @return ResponseEntity indicating success or failure of the operation.
      */
     @Override
     public Mono<ResponseEntity<Void>> deleteCustomer(String customerId, ServerWebExchange exchange) {
-        return customerRepository.findById(customerId)
-                .flatMap(customer ->
-                        customerRepository.delete(customer)
-                                .then(Mono.just(new ResponseEntity<Void>(HttpStatus.NO_CONTENT))))
+        // invalidated before the response is emitted, so a read that follows it never hits the removed entry
+        return hotPathMetrics.timeMongo("removeById", customerRepository.removeById(customerId))
+                .doOnSuccess(deleted -> customerCache.invalidate(customerId))
+                .doOnError(e -> customerCache.invalidate(customerId))
+                .doOnNext(deleted -> {
+                    customerSearchIndex.remove(customerId);
+                    customerStatisticsCounters.deleted(deleted.getType());
+                    customerEventPublisher.deleted(customerId);
+                })
+                .map(deleted -> new ResponseEntity<Void>(HttpStatus.NO_CONTENT))
                 .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND))
-                .doOnError(e -> log.error("Error deleting customer: {}", e.getMessage()));
+                .doOnError(e -> log.error("Error deleting customer: {}", e.getMessage()))
+                .transform(call -> hotPathMetrics.timeOperation("deleteCustomer", call));
     }
 
 
     /**
      * Retrieves a customer by their ID.
      * This method finds a customer by their ID and returns their data as DTO.
+     * Lookups are served from the customer cache, falling back to the repository on a miss.
      *
      * @param customerId The ID of the customer to retrieve.
      * @return ResponseEntity containing the CustomerDTO or a not found status.
      */
     @Override
     public Mono<ResponseEntity<CustomerDTO>> getCustomerById(String customerId, ServerWebExchange exchange) {
-        return customerRepository.findById(customerId)
-                .map(this::convertToDto)
+        return customerCache.get(customerId, id -> hotPathMetrics.timeMongo("findById", customerRepository.findById(id)))
+                .map(CustomerMapper::toDto)
                 .map(customerDTO -> {
                     log.info("Customer found: {}", customerDTO);
                     return ResponseEntity.ok(customerDTO);
@@ -112,70 +244,430 @@ public class CustomerService implements CustomersApiDelegate {
                     log.warn("Customer not found: {}", customerId);
                     return Mono.just(ResponseEntity.notFound().build());
                 }))
-                .doOnError(e -> log.error("Error retrieving customer: {}", e.getMessage()));
+                .doOnError(e -> log.error("Error retrieving customer: {}", e.getMessage()))
+                .transform(call -> hotPathMetrics.timeOperation("getCustomerById", call));
+    }
+
+
+    /**
+     * Retrieves a customer by their email.
+     * The match is exact but ignores case, and is served by the unique email index.
+     *
+     * @param email The email of the customer to retrieve.
+     * @return ResponseEntity containing the CustomerDTO or a not found status.
+     */
+    @Override
+    public Mono<ResponseEntity<CustomerDTO>> getCustomerByEmail(String email, ServerWebExchange exchange) {
+        return hotPathMetrics.timeMongo("findByEmail", customerRepository.findByEmail(email))
+                .map(CustomerMapper::toDto)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .doOnError(e -> log.error("Error retrieving customer by email: {}", e.getMessage()))
+                .transform(call -> hotPathMetrics.timeOperation("getCustomerByEmail", call));
+    }
+
+
+    /**
+     * Retrieves several customers by their IDs.
+     * This method looks the IDs up in chunks, one $in query per chunk, and streams back
+     * one result per requested ID in request order. IDs without a customer are reported
+     * as not found. Chunks are queried one at a time, so only one chunk of customers is
+     * held in memory.
+     *
+     * @param customerIdListMono A Mono stream of the requested customer IDs.
+     * @return ResponseEntity containing a Flux of per-ID lookup results.
+     */
+    @Override
+    public Mono<ResponseEntity<Flux<CustomerLookupResult>>> batchGetCustomers(Mono<CustomerIdList> customerIdListMono, ServerWebExchange exchange) {
+        return customerIdListMono
+                .map(customerIdList -> {
+                    Flux<CustomerLookupResult> results = Flux.fromIterable(customerIdList.getIds())
+                            .buffer(batchGetChunkSize)
+                            .concatMap(this::lookupChunk, 1)
+                            .doOnError(e -> log.error("Error retrieving customers: {}", e.getMessage()));
+                    return ResponseEntity.ok(results);
+                })
+                .transform(call -> hotPathMetrics.timeStreamedOperation("batchGetCustomers", call));
+    }
+
+
+    /**
+     * Searches customers by partial name or email.
+     * This method queries the in-memory search index and returns one page of ranked
+     * matches. The index holds the fields shown in the results, so no database call is made;
+     * the eligibility snapshot is not included.
+     *
+     * @param q      Words to look for in the customer name and email.
+     * @param limit  Maximum number of matches to return.
+     * @param offset Number of ranked matches to skip.
+     * @return ResponseEntity containing the page of matches, or service unavailable while the index loads.
+     */
+    @Override
+    public Mono<ResponseEntity<CustomerSearchPage>> searchCustomers(String q, Integer limit, Integer offset, ServerWebExchange exchange) {
+        int pageSize = limit != null ? limit : defaultSearchLimit;
+        int skip = offset != null ? offset : 0;
+        return Mono.fromCallable(() -> customerSearchIndex.search(q, skip, pageSize))
+                .map(result -> new CustomerSearchPage()
+                        .hits(result.getHits().stream()
+                                .map(hit -> new CustomerSearchHit()
+                                        .customer(CustomerMapper.toDto(hit.getCustomer()))
+                                        .match(hit.getMatch()))
+                                .collect(Collectors.toList()))
+                        .nextOffset(result.isMore() ? skip + pageSize : null))
+                .map(ResponseEntity::ok)
+                .doOnError(e -> log.warn("Error searching customers: {}", e.getMessage()))
+                .transform(call -> hotPathMetrics.timeOperation("searchCustomers", call));
+    }
+
+
+    /**
+     * Retrieves customer statistics.
+     * This method reads the in-memory counters, which are kept up to date by the create,
+     * update and delete operations and periodically reconciled with Mongo, so it never
+     * scans the collection.
+     *
+     * @return ResponseEntity containing the counts by type and the creations of the last 24 hours,
+     * or service unavailable until the counters are first reconciled.
+     */
+    @Override
+    public Mono<ResponseEntity<CustomerStatistics>> getCustomerStatistics(ServerWebExchange exchange) {
+        return Mono.fromCallable(customerStatisticsCounters::snapshot)
+                .map(snapshot -> {
+                    List<HourlyCreations> createdPerHour = snapshot.getCreatedPerHour().entrySet().stream()
+                            .map(hour -> new HourlyCreations().hour(toOffsetDateTime(hour.getKey())).count(hour.getValue()))
+                            .collect(Collectors.toList());
+                    long createdLast24Hours = createdPerHour.stream().mapToLong(HourlyCreations::getCount).sum();
+                    CustomerStatistics statistics = new CustomerStatistics()
+                            .total(snapshot.getCountsByType().values().stream().mapToLong(Long::longValue).sum())
+                            .createdThisHour(createdPerHour.get(createdPerHour.size() - 1).getCount())
+                            .createdLast24Hours(createdLast24Hours)
+                            .creationRatePerHour(createdLast24Hours / (double) createdPerHour.size())
+                            .createdPerHour(createdPerHour)
+                            .reconciledAt(toOffsetDateTime(snapshot.getReconciledAt()));
+                    snapshot.getCountsByType().forEach((type, count) -> statistics.putCountsByTypeItem(type.getValue(), count));
+                    return ResponseEntity.ok(statistics);
+                })
+                .doOnError(e -> log.warn("Cannot read customer statistics: {}", e.getMessage()))
+                .transform(call -> hotPathMetrics.timeOperation("getCustomerStatistics", call));
+    }
+
+
+    /**
+     * Streams customer change events.
+     * This method replays the buffered events after the given sequence and then follows
+     * new created, updated and deleted events as they are published.
+     *
+     * @param since Sequence of the last event received, or null to receive only new events.
+     * @return ResponseEntity containing a Flux of customer events, or gone if the events after since were discarded.
+     */
+    @Override
+    public Mono<ResponseEntity<Flux<CustomerEvent>>> streamCustomerEvents(Long since, ServerWebExchange exchange) {
+        return Mono.fromCallable(() -> ResponseEntity.ok(customerEventPublisher.events(since)))
+                .doOnError(e -> log.warn("Cannot stream customer events: {}", e.getMessage()))
+                .transform(call -> hotPathMetrics.timeStreamedOperation("streamCustomerEvents", call));
+    }
+
+
+    /**
+     * Refreshes the eligibility snapshot of a customer.
+     * This method fetches every eligibility fact from the credit and account services,
+     * regardless of the age of the stored snapshot, and stores them on the customer.
+     *
+     * @param customerId The ID of the customer.
+     * @return ResponseEntity containing the new eligibility snapshot or a not found status.
+     */
+    @Override
+    public Mono<ResponseEntity<CustomerEligibility>> refreshCustomerEligibility(String customerId, ServerWebExchange exchange) {
+        return eligibilityService.refresh(customerId)
+                .map(CustomerMapper::toDto)
+                .doOnNext(customerEventPublisher::updated)
+                .map(customerDTO -> ResponseEntity.ok(customerDTO.getEligibility()))
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .doOnError(e -> log.error("Error refreshing eligibility of customer {}: {}", customerId, e.getMessage()))
+                .transform(call -> hotPathMetrics.timeOperation("refreshCustomerEligibility", call));
+    }
+
+
+    /**
+     * Starts the VIP/PYME revalidation job.
+     * This method starts a run in the background, or resumes the one interrupted by a crash,
+     * and returns the progress it starts from.
+     *
+     * @return ResponseEntity containing the progress, or a conflict status if a run is already in progress.
+     */
+    @Override
+    public Mono<ResponseEntity<RevalidationProgress>> startRevalidation(ServerWebExchange exchange) {
+        return revalidationJob.start()
+                .map(checkpoint -> ResponseEntity.status(HttpStatus.ACCEPTED).body(toProgress(checkpoint)))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.CONFLICT).build())
+                .doOnError(e -> log.error("Error starting revalidation: {}", e.getMessage()))
+                .transform(call -> hotPathMetrics.timeOperation("startRevalidation", call));
     }
 
 
     /**
-     * Lists all customers.
-     * This method retrieves all customers from the repository and returns them as a Flux of CustomerDTO.
+     * Retrieves the progress of the VIP/PYME revalidation job.
      *
+     * @return ResponseEntity containing the progress of the current or last run.
+     */
+    @Override
+    public Mono<ResponseEntity<RevalidationProgress>> getRevalidationProgress(ServerWebExchange exchange) {
+        return revalidationJob.progress()
+                .map(CustomerService::toProgress)
+                .defaultIfEmpty(new RevalidationProgress().status(RevalidationProgress.StatusEnum.IDLE))
+                .map(ResponseEntity::ok)
+                .transform(call -> hotPathMetrics.timeOperation("getRevalidationProgress", call));
+    }
+
+
+    /**
+     * Lists customers.
+     * This method returns one keyset page of customers ordered by ID, optionally filtered by type.
+     * When NDJSON is requested without a limit, every matching customer is streamed
+     * as it comes off the database cursor.
+     *
+     * @param limit Maximum number of customers to return.
+     * @param after ID of the last customer of the previous page.
+     * @param type  Customer type to filter by.
      * @return ResponseEntity containing a Flux of CustomerDTOs.
      */
     @Override
-    public Mono<ResponseEntity<Flux<CustomerDTO>>> listCustomers(ServerWebExchange exchange) {
-        Flux<CustomerDTO> customerDTOFlux = customerRepository.findAll()
-                .map(this::convertToDto)
-                .doOnEach(customerSignal -> log.info("Listing customer: {}", customerSignal.get()));
-        return Mono.just(ResponseEntity.ok(customerDTOFlux))
+    public Mono<ResponseEntity<Flux<CustomerDTO>>> listCustomers(Integer limit, String after, CustomerType type, ServerWebExchange exchange) {
+        boolean streaming = exchange.getRequest().getHeaders().getAccept().stream()
+                .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+        int pageSize = limit != null ? limit : (streaming ? 0 : defaultPageSize);
+        Flux<CustomerDTO> customerDTOFlux = hotPathMetrics.timeMongo("findPage", customerRepository.findPage(type, after, pageSize))
+                .map(CustomerMapper::toDto)
                 .doOnError(e -> log.error("Error listing customers: {}", e.getMessage()));
+        return hotPathMetrics.timeStreamedOperation("listCustomers", Mono.just(ResponseEntity.ok(customerDTOFlux)));
     }
 
 
     /**
      * Updates a customer's information.
-     * This method updates the information of an existing customer with the provided data.
+     * This method validates the new data and then replaces the name, email and type of the
+     * customer with a single atomic update. When the request carries a version, the update
+     * only applies if the stored customer still has that version.
+     * With write-behind enabled the update is merged with the concurrent updates of the same
+     * customer and sent in a bulk write.
+     * A VIP or PYME customer that does not meet its requirements is answered with 400 and its error code.
+     * Retries carrying the same idempotency key get the stored first response.
      *
      * @param customerId      The ID of the customer to update.
      * @param customerDTOMono A Mono stream of CustomerDTO with the updated information.
+     * @param idempotencyKey  Optional key identifying the request across retries.
      * @return ResponseEntity containing the updated CustomerDTO or an error message.
      */
     @Override
-    public Mono<ResponseEntity<CustomerDTO>> updateCustomer(String customerId, Mono<CustomerDTO> customerDTOMono, ServerWebExchange exchange) {
-        return customerRepository.findById(customerId)
-                .switchIfEmpty(Mono.error(new CustomerNotFoundException("Customer not found with ID: " + customerId)))
-                .flatMap(existingCustomer -> customerDTOMono
-                        .map(this::convertToEntity)
-                        .flatMap(this::validateCustomer)
-                        .doOnNext(updatedCustomer -> updateCustomerFields(existingCustomer, updatedCustomer))
-                        .flatMap(customerRepository::save)
-                        .map(this::convertToDto)
-                        .map(ResponseEntity::ok))
-                .doOnError(e -> log.error("Error updating customer: {}", e.getMessage()));
+    public Mono<ResponseEntity<CustomerDTO>> updateCustomer(String customerId, Mono<CustomerDTO> customerDTOMono, String idempotencyKey, ServerWebExchange exchange) {
+        return withIdempotency("updateCustomer:" + customerId, idempotencyKey, customerDTOMono,
+                        body -> applyUpdate(customerId, body, false))
+                .doOnError(e -> !(e instanceof CustomerValidationException), e -> log.error("Error updating customer: {}", e.getMessage()))
+                .transform(call -> hotPathMetrics.timeOperation("updateCustomer", call));
     }
 
 
+    /**
+     * Partially updates a customer's information.
+     * Only the fields present in the request are changed. A type change to VIP or PYME
+     * is validated the same way as a full update.
+     *
+     * @param customerId      The ID of the customer to update.
+     * @param customerDTOMono A Mono stream of CustomerDTO with the fields to change.
+     * @return ResponseEntity containing the updated CustomerDTO or an error message.
+     */
+    @Override
+    public Mono<ResponseEntity<CustomerDTO>> patchCustomer(String customerId, Mono<CustomerDTO> customerDTOMono, ServerWebExchange exchange) {
+        return applyUpdate(customerId, customerDTOMono, true)
+                .doOnError(e -> !(e instanceof CustomerValidationException), e -> log.error("Error patching customer: {}", e.getMessage()))
+                .transform(call -> hotPathMetrics.timeOperation("patchCustomer", call));
+    }
+
+
+    private Mono<ResponseEntity<CustomerDTO>> withIdempotency(String scope, String idempotencyKey, Mono<CustomerDTO> customerDTOMono,
+                                                              Function<Mono<CustomerDTO>, Mono<ResponseEntity<CustomerDTO>>> operation) {
+        if (idempotencyKey == null) {
+            return operation.apply(customerDTOMono);
+        }
+        // errors reading the body are left to the operation, so they are reported as without a key and never stored
+        Mono<CustomerDTO> body = customerDTOMono.cache();
+        return body.materialize()
+                .flatMap(signal -> signal.hasValue()
+                        ? idempotencyStore.execute(scope, idempotencyKey, signal.get(), CustomerDTO.class, () -> operation.apply(body))
+                        : operation.apply(body));
+    }
+
+    private Mono<ResponseEntity<CustomerDTO>> applyUpdate(String customerId, Mono<CustomerDTO> customerDTOMono, boolean partial) {
+        return customerDTOMono
+                .map(CustomerMapper::toEntity)
+                .doOnNext(customer -> customer.setId(customerId))
+                .flatMap(this::validateCustomer)
+                .flatMap(customer -> hotPathMetrics.timeMongo("updateFields",
+                                customerWriteBehind.update(customerId, customer.getVersion(), customer, partial))
+                        .switchIfEmpty(Mono.defer(() -> updateRejected(customerId, customer.getVersion()))))
+                .doOnNext(update -> customerStatisticsCounters.typeChanged(update.getPreviousType(), update.getCustomer().getType()))
+                .map(CustomerUpdate::getCustomer)
+                .doOnNext(customerCache::put)
+                .doOnNext(customerSearchIndex::index)
+                .map(CustomerMapper::toDto)
+                .doOnNext(customerEventPublisher::updated)
+                .map(ResponseEntity::ok);
+    }
+
+    private static RevalidationProgress toProgress(RevalidationCheckpoint checkpoint) {
+        return new RevalidationProgress()
+                .status(checkpoint.getStatus())
+                .currentType(checkpoint.getCurrentType())
+                .lastCustomerId(checkpoint.getLastCustomerId())
+                .processed(checkpoint.getProcessed())
+                .eligible(checkpoint.getEligible())
+                .ineligible(checkpoint.getIneligible())
+                .failed(checkpoint.getFailed())
+                .startedAt(toOffsetDateTime(checkpoint.getStartedAt()))
+                .updatedAt(toOffsetDateTime(checkpoint.getUpdatedAt()))
+                .finishedAt(toOffsetDateTime(checkpoint.getFinishedAt()));
+    }
+
+    private static OffsetDateTime toOffsetDateTime(Instant instant) {
+        return instant != null ? instant.atOffset(ZoneOffset.UTC) : null;
+    }
+
+    private Flux<CustomerLookupResult> lookupChunk(List<String> customerIds) {
+        return hotPathMetrics.timeMongo("findAllById", customerRepository.findAllById(new HashSet<>(customerIds)))
+                .collectMap(Customer::getId)
+                .flatMapIterable(found -> customerIds.stream()
+                        .map(customerId -> {
+                            Customer customer = found.get(customerId);
+                            return new CustomerLookupResult()
+                                    .id(customerId)
+                                    .found(customer != null)
+                                    .customer(customer != null ? CustomerMapper.toDto(customer) : null);
+                        })
+                        .collect(Collectors.toList()));
+    }
+
+    private Mono<CustomerUpdate> updateRejected(String customerId, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return Mono.error(new CustomerNotFoundException(customerId));
+        }
+        return hotPathMetrics.timeMongo("existsById", customerRepository.existsById(customerId))
+                .flatMap(exists -> Mono.error(exists
+                        ? new CustomerVersionConflictException(customerId, expectedVersion)
+                        : new CustomerNotFoundException(customerId)));
+    }
+
 
     private Mono<Customer> validateCustomerType(Customer customer) {
         Predicate<CustomerType> isValidType = type -> type == CustomerType.PERSONAL || type == CustomerType.BUSINESS;
 
         return Mono.just(customer)
                 .filter(c -> isValidType.test(c.getType()))
-                .switchIfEmpty(Mono.defer(() -> {
-                    log.error("Invalid customer type for creation: {}", customer.getType());
-                    return Mono.error(new InvalidCustomerTypeException("Creation of VIP or PYME customers is not allowed."));
-                }));
+                .switchIfEmpty(Mono.error(RESTRICTED_TYPE_CREATION));
+    }
+
+
+    private Flux<CustomerImportResult> insertBatch(List<ImportRecord> batch) {
+        List<ImportRecord> accepted = batch.stream()
+                .filter(record -> record.getCustomer() != null)
+                .collect(Collectors.toList());
+        if (accepted.isEmpty()) {
+            return Flux.fromIterable(batch).map(this::rejected);
+        }
+        // client-assigned IDs let a failed batch tell which of its customers were written
+        List<Customer> customers = accepted.stream()
+                .map(record -> CustomerRepository.assignNewIdentity(record.getCustomer()))
+                .collect(Collectors.toList());
+        return hotPathMetrics.timeMongo("insertMany", customerRepository.bulkWrite(customers, List.of(), WriteConcern.ACKNOWLEDGED))
+                .map(result -> {
+                    Map<Long, Exception> failed = new HashMap<>();
+                    result.getFailedInserts().forEach((position, error) -> failed.put(accepted.get(position).getIndex(), error));
+                    return new BatchOutcome(failed, Set.<Long>of());
+                })
+                .onErrorResume(e -> {
+                    log.warn("Batch insert of {} customers failed, retrying the ones not written: {}", accepted.size(), e.getMessage());
+                    return unwritten(accepted, e);
+                })
+                .flatMapMany(outcome -> Flux.fromIterable(batch)
+                        .concatMap(record -> batchResult(record, outcome)));
     }
 
+    private Mono<BatchOutcome> unwritten(List<ImportRecord> accepted, Throwable batchError) {
+        List<String> customerIds = accepted.stream()
+                .map(record -> record.getCustomer().getId())
+                .collect(Collectors.toList());
+        return hotPathMetrics.timeMongo("findAllById", customerRepository.findAllById(customerIds))
+                .map(Customer::getId)
+                .collect(Collectors.toSet())
+                .map(written -> new BatchOutcome(Map.of(), accepted.stream()
+                        .filter(record -> !written.contains(record.getCustomer().getId()))
+                        .map(ImportRecord::getIndex)
+                        .collect(Collectors.toSet())))
+                .onErrorResume(e -> {
+                    // nothing tells what was written, so no record is retried and none is reported as created
+                    log.error("Could not tell which of {} customers were written: {}", accepted.size(), e.getMessage());
+                    Map<Long, Exception> failed = new HashMap<>();
+                    Exception error = batchError instanceof Exception ? (Exception) batchError : new IllegalStateException(batchError);
+                    accepted.forEach(record -> failed.put(record.getIndex(), error));
+                    return Mono.just(new BatchOutcome(failed, Set.of()));
+                });
+    }
 
-    private void updateCustomerFields(Customer existingCustomer, Customer updatedCustomer) {
-        existingCustomer.setName(updatedCustomer.getName());
-        existingCustomer.setEmail(updatedCustomer.getEmail());
-        existingCustomer.setType(updatedCustomer.getType());
+    private Mono<CustomerImportResult> batchResult(ImportRecord record, BatchOutcome outcome) {
+        if (record.getCustomer() == null) {
+            return Mono.just(rejected(record));
+        }
+        if (outcome.getUnwritten().contains(record.getIndex())) {
+            return insertOne(record);
+        }
+        Exception error = outcome.getFailed().get(record.getIndex());
+        if (error != null) {
+            return Mono.just(failed(record, error));
+        }
+        imported(record.getCustomer());
+        return Mono.just(created(record.getIndex(), record.getCustomer()));
     }
 
+    private Mono<CustomerImportResult> insertOne(ImportRecord record) {
+        if (record.getCustomer() == null) {
+            return Mono.just(rejected(record));
+        }
+        return hotPathMetrics.timeMongo("insert", customerRepository.insert(record.getCustomer()))
+                .doOnNext(this::imported)
+                .map(saved -> created(record.getIndex(), saved))
+                .onErrorResume(e -> Mono.just(failed(record, e)));
+    }
+
+    private void imported(Customer customer) {
+        customerCache.put(customer);
+        customerSearchIndex.index(customer);
+        customerStatisticsCounters.created(customer.getType());
+        customerEventPublisher.created(CustomerMapper.toDto(customer));
+    }
 
-    private Mono<Customer> validateCustomer(Customer customer) {
+    private CustomerImportResult created(long index, Customer customer) {
+        return new CustomerImportResult()
+                .index(index)
+                .id(customer.getId())
+                .status(CustomerImportResult.StatusEnum.CREATED);
+    }
+
+    private CustomerImportResult failed(ImportRecord record, Throwable error) {
+        return new CustomerImportResult()
+                .index(record.getIndex())
+                .status(CustomerImportResult.StatusEnum.FAILED)
+                .message(error.getMessage());
+    }
+
+    private CustomerImportResult rejected(ImportRecord record) {
+        return new CustomerImportResult()
+                .index(record.getIndex())
+                .status(CustomerImportResult.StatusEnum.REJECTED)
+                .message(record.getRejection());
+    }
+
+
+    // package-private for the JMH benchmarks
+    Mono<Customer> validateCustomer(Customer customer) {
         Predicate<Customer> isVIPCustomer = c -> c.getType() == CustomerType.VIP;
         Predicate<Customer> isPymeCustomer = c -> c.getType() == CustomerType.PYME;
 
@@ -191,67 +683,53 @@ public class CustomerService implements CustomersApiDelegate {
 
     private Mono<Customer> validateVIPCustomer(Customer customer) {
 
-        return Mono.zip(
-                creditServiceClient.hasCreditCard(customer.getId()),
-                bankAccountWebClient.getSavingAccountBalance(customer.getId())
-        ).flatMap(tuple -> {
-            boolean hasCreditCard = tuple.getT1();
-            double balance = tuple.getT2();
+        return eligibilityService.snapshotFor(customer).flatMap(snapshot -> {
+            customer.setEligibility(snapshot);
+            boolean hasCreditCard = Boolean.TRUE.equals(snapshot.getHasCreditCard());
+            double balance = snapshot.getSavingsBalance() != null ? snapshot.getSavingsBalance() : 0;
 
             if (!hasCreditCard) {
-                log.warn("Validation failed for VIP customer {}: No credit card associated", customer.getId());
-                return Mono.error(new NoCreditCardException("VIP customers must have a credit card."));
+                return Mono.error(VIP_WITHOUT_CREDIT_CARD);
             }
             if (balance < VIPCustomer.MINIMUM_SAVINGS_AMOUNT) {
-                log.warn("Validation failed for VIP customer {}: Insufficient savings balance", customer.getId());
-                return Mono.error(new InsufficientBalanceException("VIP customers must have a minimum savings amount of " + VIPCustomer.MINIMUM_SAVINGS_AMOUNT));
+                return Mono.error(VIP_BELOW_MINIMUM_SAVINGS);
             }
             log.info("VIP customer {} validated successfully", customer.getId());
             return Mono.just((Customer) customer);
-        }).onErrorResume(e -> {
-            log.error("Error during validation of VIP customer {}: {}", customer.getId(), e.getMessage());
-            return Mono.error(e);
         });
     }
 
     private Mono<Customer> validatePymeCustomer(Customer customer) {
-        return Mono.zip(
-                creditServiceClient.hasCreditCard(customer.getId()),
-                bankAccountWebClient.hasCurrentAccount(customer.getId())
-        ).flatMap(tuple -> {
-            boolean hasCreditCard = tuple.getT1();
-            boolean hasCurrentAccount = tuple.getT2();
+        return eligibilityService.snapshotFor(customer).flatMap(snapshot -> {
+            customer.setEligibility(snapshot);
+            boolean hasCreditCard = Boolean.TRUE.equals(snapshot.getHasCreditCard());
+            boolean hasCurrentAccount = Boolean.TRUE.equals(snapshot.getHasCurrentAccount());
 
             if (!hasCreditCard) {
-                log.warn("Validation failed for PYME customer {}: No credit card associated", customer.getId());
-                return Mono.error(new NoCreditCardException("VIP customers must have a credit card."));
+                return Mono.error(PYME_WITHOUT_CREDIT_CARD);
             }
             if (!hasCurrentAccount){
-                log.warn("Validation failed for PYME customer {}: No current account associated", customer.getId());
-                return Mono.error(new PymeRequirementsNotMetException("PYME customers must have a current account and a credit card."));
+                return Mono.error(PYME_WITHOUT_CURRENT_ACCOUNT);
             }
             return Mono.just(customer);
-        }).onErrorResume(e -> {
-            log.error("Error during validation of PYME customer {}: {}", customer.getId(), e.getMessage());
-            return Mono.error(e);
         });
     }
 
 
-    private Customer convertToEntity(CustomerDTO dto) {
-        return Customer.builder()
-                .id(dto.getId())
-                .name(dto.getName())
-                .email(dto.getEmail())
-                .type(dto.getType())
-                .build();
+    @Getter
+    @AllArgsConstructor
+    private static class ImportRecord {
+        private final long index;
+        private final Customer customer;
+        private final String rejection;
     }
 
-    private CustomerDTO convertToDto(Customer customer) {
-        return new CustomerDTO()
-                .id(customer.getId())
-                .name(customer.getName())
-                .email(customer.getEmail())
-                .type(customer.getType());
+    @Getter
+    @AllArgsConstructor
+    private static class BatchOutcome {
+        // import indexes of the records whose insert failed, with the reason
+        private final Map<Long, Exception> failed;
+        // import indexes of the records to insert again, one by one
+        private final Set<Long> unwritten;
     }
 }
@@ -0,0 +1,146 @@
+package com.bootcamp.customerservice.service;
+
+import com.bootcamp.customerservice.entity.Customer;
+import com.bootcamp.customerservice.entity.EligibilitySnapshot;
+import com.bootcamp.customerservice.entity.VIPCustomer;
+import com.bootcamp.customerservice.metrics.HotPathMetrics;
+import com.bootcamp.customerservice.model.CustomerType;
+import com.bootcamp.customerservice.repository.CustomerRepository;
+import com.bootcamp.customerservice.service.cache.CustomerCache;
+import com.bootcamp.customerservice.webclient.BankAccountWebClient;
+import com.bootcamp.customerservice.webclient.CreditServiceClient;
+import com.bootcamp.customerservice.webclient.cache.EligibilityFact;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Provides the eligibility snapshot used to validate VIP and PYME customers.
+ * The snapshot stored on the customer is reused while it is younger than the
+ * configured staleness bound and holds every fact the customer type needs;
+ * otherwise the facts are fetched again from the credit and account services.
+ * Snapshots that would fail validation are never reused, so a customer who meets
+ * the requirements later, or whose last check hit a remote error, is checked again.
+ */
+@Slf4j
+@Service
+public class EligibilityService {
+
+    private final CustomerRepository customerRepository;
+
+    private final CustomerCache customerCache;
+
+    private final CreditServiceClient creditServiceClient;
+
+    private final BankAccountWebClient bankAccountWebClient;
+
+    private final HotPathMetrics hotPathMetrics;
+
+    private final Duration maxStaleness;
+
+    private final Clock clock;
+
+    public EligibilityService(CustomerRepository customerRepository,
+                              CustomerCache customerCache,
+                              CreditServiceClient creditServiceClient,
+                              BankAccountWebClient bankAccountWebClient,
+                              HotPathMetrics hotPathMetrics,
+                              @Value("${customer.eligibility.max-staleness-seconds}") long maxStalenessSeconds) {
+        this.customerRepository = customerRepository;
+        this.customerCache = customerCache;
+        this.creditServiceClient = creditServiceClient;
+        this.bankAccountWebClient = bankAccountWebClient;
+        this.hotPathMetrics = hotPathMetrics;
+        this.maxStaleness = Duration.ofSeconds(maxStalenessSeconds);
+        this.clock = Clock.systemUTC();
+    }
+
+    /**
+     * Returns the facts needed to validate the customer as its type, reusing the stored
+     * snapshot when it is fresh enough.
+     *
+     * @param customer The customer to validate, with its ID and requested type.
+     * @return Mono emitting the stored snapshot if fresh, or a newly fetched one.
+     */
+    public Mono<EligibilitySnapshot> snapshotFor(Customer customer) {
+        Set<EligibilityFact> facts = requiredFacts(customer.getType());
+        return customerCache.get(customer.getId(), id -> hotPathMetrics.timeMongo("findById", customerRepository.findById(id)))
+                .flatMap(stored -> Mono.justOrEmpty(stored.getEligibility()))
+                .filter(snapshot -> isFresh(snapshot) && satisfies(snapshot, facts))
+                .doOnNext(snapshot -> log.debug("Reusing eligibility snapshot of customer {} from {}", customer.getId(), snapshot.getValidatedAt()))
+                .switchIfEmpty(Mono.defer(() -> fetch(customer.getId(), customer.getType(), facts)));
+    }
+
+    /**
+     * Fetches the facts needed to validate the customer as its type, ignoring the stored snapshot.
+     *
+     * @param customer The customer to validate, with its ID and type.
+     * @return Mono emitting the new snapshot, telling whether the customer is still eligible.
+     */
+    public Mono<EligibilitySnapshot> revalidate(Customer customer) {
+        return fetch(customer.getId(), customer.getType(), requiredFacts(customer.getType()));
+    }
+
+    /**
+     * Fetches every eligibility fact of a customer and stores them on the customer.
+     *
+     * @param customerId The ID of the customer.
+     * @return Mono emitting the customer with its new snapshot, or empty if it does not exist.
+     */
+    public Mono<Customer> refresh(String customerId) {
+        return customerCache.get(customerId, id -> hotPathMetrics.timeMongo("findById", customerRepository.findById(id)))
+                .flatMap(customer -> fetch(customerId, customer.getType(), EnumSet.allOf(EligibilityFact.class)))
+                .flatMap(snapshot -> hotPathMetrics.timeMongo("updateEligibility",
+                        customerRepository.updateEligibility(customerId, snapshot)))
+                .doOnNext(customerCache::put);
+    }
+
+    private Mono<EligibilitySnapshot> fetch(String customerId, CustomerType type, Set<EligibilityFact> facts) {
+        return Mono.zip(
+                fact(facts.contains(EligibilityFact.CREDIT_CARD), creditServiceClient.hasCreditCard(customerId)),
+                fact(facts.contains(EligibilityFact.CURRENT_ACCOUNT), bankAccountWebClient.hasCurrentAccount(customerId)),
+                fact(facts.contains(EligibilityFact.SAVINGS_BALANCE), bankAccountWebClient.getSavingAccountBalance(customerId))
+        ).map(tuple -> EligibilitySnapshot.builder()
+                .hasCreditCard(tuple.getT1().orElse(null))
+                .hasCurrentAccount(tuple.getT2().orElse(null))
+                .savingsBalance(tuple.getT3().orElse(null))
+                .validatedAt(clock.instant())
+                .build())
+                .doOnNext(snapshot -> snapshot.setEligible(satisfies(snapshot, requiredFacts(type))));
+    }
+
+    private static <T> Mono<Optional<T>> fact(boolean needed, Mono<T> call) {
+        return needed ? call.map(Optional::of).defaultIfEmpty(Optional.empty()) : Mono.just(Optional.empty());
+    }
+
+    private boolean isFresh(EligibilitySnapshot snapshot) {
+        Instant validatedAt = snapshot.getValidatedAt();
+        return validatedAt != null && !validatedAt.plus(maxStaleness).isBefore(clock.instant());
+    }
+
+    private static boolean satisfies(EligibilitySnapshot snapshot, Set<EligibilityFact> facts) {
+        return (!facts.contains(EligibilityFact.CREDIT_CARD) || Boolean.TRUE.equals(snapshot.getHasCreditCard()))
+                && (!facts.contains(EligibilityFact.CURRENT_ACCOUNT) || Boolean.TRUE.equals(snapshot.getHasCurrentAccount()))
+                && (!facts.contains(EligibilityFact.SAVINGS_BALANCE) || (snapshot.getSavingsBalance() != null
+                && snapshot.getSavingsBalance() >= VIPCustomer.MINIMUM_SAVINGS_AMOUNT));
+    }
+
+    private static Set<EligibilityFact> requiredFacts(CustomerType type) {
+        switch (type) {
+            case VIP:
+                return EnumSet.of(EligibilityFact.CREDIT_CARD, EligibilityFact.SAVINGS_BALANCE);
+            case PYME:
+                return EnumSet.of(EligibilityFact.CREDIT_CARD, EligibilityFact.CURRENT_ACCOUNT);
+            default:
+                return EnumSet.noneOf(EligibilityFact.class);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.bootcamp.customerservice.service.cache;
+
+import com.bootcamp.customerservice.entity.Customer;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Read-through cache in front of the customer repository.
+ * Entries are bounded by size and expire after a fixed TTL. Concurrent misses
+ * for the same ID share a single repository lookup.
+ */
+@Component
+public class CustomerCache {
+
+    private static final String CACHE_NAME = "customers";
+
+    private final AsyncCache<String, Customer> cache;
+
+    public CustomerCache(@Value("${customer.cache.maximum-size}") long maximumSize,
+                         @Value("${customer.cache.ttl-seconds}") long ttlSeconds,
+                         MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), CACHE_NAME);
+    }
+
+    /**
+     * Returns the cached customer, loading it with the given function on a miss.
+     * An empty load result is not cached.
+     *
+     * @param customerId The ID of the customer.
+     * @param loader     Function used to load the customer on a miss.
+     * @return Mono emitting the customer, or empty if it does not exist.
+     */
+    public Mono<Customer> get(String customerId, Function<String, Mono<Customer>> loader) {
+        // the load runs with the context of the subscriber that triggered it, and copy()
+        // keeps a cancelled subscriber from cancelling the shared load
+        return Mono.deferContextual(context -> Mono.fromFuture(cache.get(customerId,
+                (id, executor) -> loader.apply(id).contextWrite(context).toFuture()).copy()));
+    }
+
+    public void put(Customer customer) {
+        if (customer.getId() != null) {
+            cache.put(customer.getId(), CompletableFuture.completedFuture(customer));
+        }
+    }
+
+    public void invalidate(String customerId) {
+        cache.synchronous().invalidate(customerId);
+    }
+}
@@ -0,0 +1,139 @@
+package com.bootcamp.customerservice.service.events;
+
+import com.bootcamp.customerservice.model.CustomerDTO;
+import com.bootcamp.customerservice.model.CustomerEvent;
+import com.bootcamp.customerservice.service.exceptions.CustomerEventsExpiredException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.OffsetDateTime;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory stream of customer change events.
+ * Every event gets the next sequence number, and the latest events are kept in a
+ * bounded replay buffer so that consumers can resume from the last sequence they saw.
+ * Each subscriber has its own bounded buffer; when a subscriber falls behind, its
+ * oldest undelivered events are dropped instead of holding back the others.
+ * Sequences are assigned under a lock and the events are emitted outside it, one
+ * publisher at a time, in sequence order.
+ * Sequences are local to this instance and restart with it.
+ */
+@Slf4j
+@Component
+public class CustomerEventPublisher {
+
+    private final Sinks.Many<CustomerEvent> sink;
+
+    private final int replaySize;
+
+    private final int subscriberBufferSize;
+
+    private final Counter droppedEvents;
+
+    private final Queue<CustomerEvent> unemitted = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger emitters = new AtomicInteger();
+
+    private long sequence;
+
+    public CustomerEventPublisher(@Value("${customer.events.replay-size}") int replaySize,
+                                  @Value("${customer.events.subscriber-buffer-size}") int subscriberBufferSize,
+                                  MeterRegistry meterRegistry) {
+        this.sink = Sinks.many().replay().limit(replaySize);
+        this.replaySize = replaySize;
+        this.subscriberBufferSize = subscriberBufferSize;
+        this.droppedEvents = Counter.builder("customer.events.dropped")
+                .description("Events dropped for subscribers that fell behind")
+                .register(meterRegistry);
+        Gauge.builder("customer.events.subscribers", sink, Sinks.Many::currentSubscriberCount)
+                .register(meterRegistry);
+    }
+
+    public void created(CustomerDTO customer) {
+        publish(CustomerEvent.TypeEnum.CREATED, customer.getId(), customer);
+    }
+
+    public void updated(CustomerDTO customer) {
+        publish(CustomerEvent.TypeEnum.UPDATED, customer.getId(), customer);
+    }
+
+    public void deleted(String customerId) {
+        publish(CustomerEvent.TypeEnum.DELETED, customerId, null);
+    }
+
+    /**
+     * Returns the events published after the given sequence, followed by new events as they are published.
+     *
+     * @param since Sequence of the last event the consumer received, or null to receive only new events.
+     * @return Flux of customer events.
+     * @throws CustomerEventsExpiredException if events after since are no longer in the replay buffer.
+     */
+    public Flux<CustomerEvent> events(Long since) {
+        resumeFrom(since);
+        // checked again on subscription, since events published in between may have pushed
+        // since + 1 out of the replay buffer; a stream that would skip it fails instead
+        return Flux.defer(() -> {
+                    long from = resumeFrom(since);
+                    return sink.asFlux()
+                            .filter(event -> event.getSequence() > from)
+                            .switchOnFirst((first, events) -> first.hasValue() && first.get().getSequence() != from + 1
+                                    ? Flux.error(new CustomerEventsExpiredException(from, first.get().getSequence() - 1))
+                                    : events);
+                })
+                .onBackpressureBuffer(subscriberBufferSize, dropped -> droppedEvents.increment(),
+                        BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    private synchronized long resumeFrom(Long since) {
+        if (since == null) {
+            return sequence;
+        }
+        if (since > sequence || since < sequence - replaySize) {
+            throw new CustomerEventsExpiredException(since, sequence);
+        }
+        return since;
+    }
+
+    private void publish(CustomerEvent.TypeEnum type, String customerId, CustomerDTO customer) {
+        synchronized (this) {
+            unemitted.add(new CustomerEvent()
+                    .sequence(++sequence)
+                    .type(type)
+                    .customerId(customerId)
+                    .customer(customer)
+                    .timestamp(OffsetDateTime.now()));
+        }
+        emit();
+    }
+
+    /**
+     * Emits the queued events in sequence order. A publisher that finds another one emitting
+     * leaves its event to it, so subscribers are never called under the lock or concurrently.
+     */
+    private void emit() {
+        if (emitters.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            CustomerEvent event;
+            while ((event = unemitted.poll()) != null) {
+                Sinks.EmitResult result = sink.tryEmitNext(event);
+                if (result.isFailure()) {
+                    log.warn("Could not publish customer event {}: {}", event.getSequence(), result);
+                }
+            }
+            missed = emitters.addAndGet(-missed);
+        } while (missed != 0);
+    }
+}
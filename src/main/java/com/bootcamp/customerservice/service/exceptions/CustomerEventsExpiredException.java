@@ -0,0 +1,12 @@
+package com.bootcamp.customerservice.service.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.GONE)
+public class CustomerEventsExpiredException extends RuntimeException {
+
+    public CustomerEventsExpiredException(long since, long latestSequence) {
+        super("Customer events after " + since + " are no longer available, latest sequence is " + latestSequence);
+    }
+}
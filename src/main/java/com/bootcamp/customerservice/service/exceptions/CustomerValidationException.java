@@ -0,0 +1,25 @@
+package com.bootcamp.customerservice.service.exceptions;
+
+import com.bootcamp.customerservice.model.ErrorCode;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * A customer that does not meet the requirements of its type. These are expected outcomes
+ * rather than faults, so no stack trace is captured and nothing can be suppressed or attached:
+ * an instance holds only its code and message, and can be created once and shared.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class CustomerValidationException extends RuntimeException {
+
+    private final ErrorCode code;
+
+    public CustomerValidationException(ErrorCode code, String message) {
+        super(message, null, false, false);
+        this.code = code;
+    }
+
+    public ErrorCode getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,12 @@
+package com.bootcamp.customerservice.service.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class CustomerVersionConflictException extends RuntimeException {
+
+    public CustomerVersionConflictException(String customerId, Long expectedVersion) {
+        super("Customer " + customerId + " was modified concurrently, expected version " + expectedVersion);
+    }
+}
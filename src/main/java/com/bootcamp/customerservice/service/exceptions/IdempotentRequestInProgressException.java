@@ -0,0 +1,12 @@
+package com.bootcamp.customerservice.service.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IdempotentRequestInProgressException extends RuntimeException {
+
+    public IdempotentRequestInProgressException(String idempotencyKey) {
+        super("A request with idempotency key " + idempotencyKey + " is still in progress");
+    }
+}
@@ -1,12 +1,13 @@
 package com.bootcamp.customerservice.service.exceptions;
 
+import com.bootcamp.customerservice.model.ErrorCode;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.BAD_REQUEST)
-public class InsufficientBalanceException extends RuntimeException {
+public class InsufficientBalanceException extends CustomerValidationException {
 
     public InsufficientBalanceException(String message) {
-        super(message);
+        super(ErrorCode.INSUFFICIENT_BALANCE, message);
     }
 }
\ No newline at end of file
@@ -1,13 +1,14 @@
 package com.bootcamp.customerservice.service.exceptions;
 
+import com.bootcamp.customerservice.model.ErrorCode;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.BAD_REQUEST)
-public class InvalidCustomerTypeException extends RuntimeException {
+public class InvalidCustomerTypeException extends CustomerValidationException {
 
     public InvalidCustomerTypeException(String message) {
-        super(message);
+        super(ErrorCode.INVALID_CUSTOMER_TYPE, message);
     }
 
 
@@ -1,11 +1,12 @@
 package com.bootcamp.customerservice.service.exceptions;
 
+import com.bootcamp.customerservice.model.ErrorCode;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.BAD_REQUEST)
-public class NoCreditCardException extends RuntimeException {
+public class NoCreditCardException extends CustomerValidationException {
     public NoCreditCardException(String message) {
-        super(message);
+        super(ErrorCode.NO_CREDIT_CARD, message);
     }
 }
\ No newline at end of file
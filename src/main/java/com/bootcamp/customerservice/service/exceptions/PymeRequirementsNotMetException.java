@@ -1,12 +1,13 @@
 package com.bootcamp.customerservice.service.exceptions;
 
+import com.bootcamp.customerservice.model.ErrorCode;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.BAD_REQUEST)
-public class PymeRequirementsNotMetException extends RuntimeException{
+public class PymeRequirementsNotMetException extends CustomerValidationException {
 
     public PymeRequirementsNotMetException(String message) {
-        super(message);
+        super(ErrorCode.PYME_REQUIREMENTS_NOT_MET, message);
     }
 }
@@ -0,0 +1,46 @@
+package com.bootcamp.customerservice.service.exceptions;
+
+import java.time.Duration;
+
+/**
+ * Lets through at most a fixed number of log lines per interval and counts the lines held back,
+ * so that a burst of identical failures costs a few log lines instead of one per request.
+ */
+class RateLimitedLog {
+
+    private final int linesPerInterval;
+
+    private final long intervalNanos;
+
+    private long intervalStart = System.nanoTime();
+
+    private int logged;
+
+    private long suppressed;
+
+    RateLimitedLog(int linesPerInterval, Duration interval) {
+        this.linesPerInterval = linesPerInterval;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    /**
+     * Takes a line from the current interval.
+     *
+     * @param now Current {@link System#nanoTime()}.
+     * @return -1 if the line must be dropped, otherwise the number of lines dropped since the last one let through.
+     */
+    synchronized long tryAcquire(long now) {
+        if (now - intervalStart >= intervalNanos) {
+            intervalStart = now;
+            logged = 0;
+        }
+        if (logged >= linesPerInterval) {
+            suppressed++;
+            return -1;
+        }
+        logged++;
+        long dropped = suppressed;
+        suppressed = 0;
+        return dropped;
+    }
+}
@@ -0,0 +1,12 @@
+package com.bootcamp.customerservice.service.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class SearchIndexNotReadyException extends RuntimeException {
+
+    public SearchIndexNotReadyException() {
+        super("The customer search index is still being loaded");
+    }
+}
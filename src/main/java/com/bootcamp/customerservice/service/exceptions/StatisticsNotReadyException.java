@@ -0,0 +1,12 @@
+package com.bootcamp.customerservice.service.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class StatisticsNotReadyException extends RuntimeException {
+
+    public StatisticsNotReadyException() {
+        super("Customer statistics have not been reconciled yet");
+    }
+}
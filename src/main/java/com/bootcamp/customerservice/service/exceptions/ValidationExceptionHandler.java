@@ -0,0 +1,53 @@
+package com.bootcamp.customerservice.service.exceptions;
+
+import com.bootcamp.customerservice.model.ErrorCode;
+import com.bootcamp.customerservice.model.ErrorResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Answers customers rejected by validation with 400 and a body carrying the error code.
+ * Every rejection is counted by code, but only a few per interval are logged, since a
+ * client sending invalid customers in a loop would otherwise flood the log.
+ */
+@Slf4j
+@RestControllerAdvice
+public class ValidationExceptionHandler {
+
+    private final Map<ErrorCode, Counter> rejections = new EnumMap<>(ErrorCode.class);
+
+    private final Map<ErrorCode, RateLimitedLog> logs = new EnumMap<>(ErrorCode.class);
+
+    public ValidationExceptionHandler(MeterRegistry meterRegistry,
+                                      @Value("${customer.validation.log-limit}") int logLimit,
+                                      @Value("${customer.validation.log-interval-seconds}") long logIntervalSeconds) {
+        for (ErrorCode code : ErrorCode.values()) {
+            rejections.put(code, Counter.builder("customer.validation.rejected")
+                    .description("Customers rejected by validation")
+                    .tag("code", code.getValue())
+                    .register(meterRegistry));
+            logs.put(code, new RateLimitedLog(logLimit, Duration.ofSeconds(logIntervalSeconds)));
+        }
+    }
+
+    @ExceptionHandler(CustomerValidationException.class)
+    public ResponseEntity<ErrorResponse> handleValidation(CustomerValidationException e) {
+        rejections.get(e.getCode()).increment();
+        long dropped = logs.get(e.getCode()).tryAcquire(System.nanoTime());
+        if (dropped > 0) {
+            log.warn("Customer rejected with {}: {} ({} similar rejections were not logged)", e.getCode(), e.getMessage(), dropped);
+        } else if (dropped == 0) {
+            log.warn("Customer rejected with {}: {}", e.getCode(), e.getMessage());
+        }
+        return ResponseEntity.badRequest().body(new ErrorResponse().code(e.getCode()).message(e.getMessage()));
+    }
+}
@@ -0,0 +1,263 @@
+package com.bootcamp.customerservice.service.idempotency;
+
+import com.bootcamp.customerservice.entity.IdempotencyRecord;
+import com.bootcamp.customerservice.repository.IdempotencyRecordRepository;
+import com.bootcamp.customerservice.service.exceptions.IdempotencyKeyReusedException;
+import com.bootcamp.customerservice.service.exceptions.IdempotentRequestInProgressException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Stores the responses of requests sent with an Idempotency-Key header so that
+ * retries get the first response instead of running the operation again.
+ * Responses are kept in a bounded in-memory cache that expires them after a TTL,
+ * and optionally in a Mongo collection with a TTL index so that they survive
+ * restarts and are shared between instances.
+ * Concurrent requests with the same key on this instance wait for the first one and
+ * share its response. With Mongo, a request first claims its key with a pending record;
+ * a request for a key claimed on another instance and still running gets 409. A claim
+ * left by an instance that stopped mid-request expires with the stored responses.
+ * Failed operations and 5xx responses are not stored, so they can be retried.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final String CACHE_NAME = "idempotency";
+
+    private final AsyncCache<String, StoredResponse> cache;
+
+    private final IdempotencyRecordRepository recordRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final Duration ttl;
+
+    private final boolean mongoEnabled;
+
+    public IdempotencyStore(@Value("${customer.idempotency.maximum-size}") long maximumSize,
+                            @Value("${customer.idempotency.ttl-seconds}") long ttlSeconds,
+                            @Value("${customer.idempotency.mongo.enabled}") boolean mongoEnabled,
+                            IdempotencyRecordRepository recordRepository,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry) {
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        this.mongoEnabled = mongoEnabled;
+        this.recordRepository = recordRepository;
+        this.objectMapper = objectMapper;
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), CACHE_NAME);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        if (mongoEnabled) {
+            recordRepository.ensureIndexes(ttl)
+                    .subscribe(
+                            unused -> { },
+                            e -> log.error("Error creating idempotency indexes: {}", e.getMessage()));
+        }
+    }
+
+    /**
+     * Runs the operation once per idempotency key and replays its response for later requests with the same key.
+     *
+     * @param scope     Name of the operation, and of the resource it targets if any, so that keys do not clash across operations.
+     * @param key       The idempotency key sent by the client.
+     * @param request   The request body, used to reject a key reused for a different request.
+     * @param bodyType  Type of the response body.
+     * @param operation Supplies the operation to run when the key has not been seen.
+     * @return Mono emitting the response of the operation, or the stored one with the replayed header.
+     */
+    public <T> Mono<ResponseEntity<T>> execute(String scope, String key, Object request, Class<T> bodyType,
+                                               Supplier<Mono<ResponseEntity<T>>> operation) {
+        String cacheKey = scope + ":" + key;
+        String fingerprint = fingerprint(request);
+        AtomicBoolean executed = new AtomicBoolean();
+        return Mono.deferContextual(context -> {
+                    AtomicBoolean loading = new AtomicBoolean();
+                    CompletableFuture<StoredResponse> response = cache.get(cacheKey, (k, executor) -> {
+                        loading.set(true);
+                        return load(k, key, fingerprint, executed, operation).contextWrite(context).toFuture();
+                    });
+                    if (loading.get()) {
+                        // a 5xx is shared with the requests waiting for it, then dropped once so that a retry
+                        // runs again; only this entry is removed, never that of a retry which replaced it
+                        response.thenAccept(stored -> {
+                            if (HttpStatus.valueOf(stored.getStatus()).is5xxServerError()) {
+                                cache.asMap().remove(cacheKey, response);
+                            }
+                        });
+                    }
+                    return Mono.fromFuture(response.copy());
+                })
+                .map(stored -> {
+                    if (!stored.getFingerprint().equals(fingerprint)) {
+                        throw new IdempotencyKeyReusedException(key);
+                    }
+                    ResponseEntity.BodyBuilder response = ResponseEntity.status(stored.getStatus());
+                    if (!executed.get()) {
+                        response.header(REPLAYED_HEADER, "true");
+                    }
+                    return response.body(bodyType.cast(toBody(stored.getBody(), bodyType)));
+                });
+    }
+
+    /**
+     * Replays the stored response of the key, or claims the key and runs the operation.
+     */
+    private <T> Mono<StoredResponse> load(String cacheKey, String key, String fingerprint, AtomicBoolean executed,
+                                         Supplier<Mono<ResponseEntity<T>>> operation) {
+        return findStored(cacheKey, key)
+                .switchIfEmpty(Mono.defer(() -> claim(cacheKey, key, fingerprint)))
+                .switchIfEmpty(Mono.defer(() -> {
+                    executed.set(true);
+                    return operation.get()
+                            .map(response -> new StoredResponse(fingerprint, response.getStatusCodeValue(), response.getBody()))
+                            .flatMap(stored -> persist(cacheKey, stored))
+                            .onErrorResume(e -> release(cacheKey).then(Mono.error(e)));
+                }));
+    }
+
+    private Mono<StoredResponse> findStored(String cacheKey, String key) {
+        if (!mongoEnabled) {
+            return Mono.empty();
+        }
+        return recordRepository.findById(cacheKey)
+                .map(record -> {
+                    if (record.isPending()) {
+                        throw new IdempotentRequestInProgressException(key);
+                    }
+                    return new StoredResponse(record.getRequestFingerprint(), record.getStatus(), record.getBody());
+                });
+    }
+
+    /**
+     * Inserts a pending record for the key, which fails if another request holds or has answered it.
+     *
+     * @return Mono completing empty once the key is claimed, or emitting the response stored by the request that won it.
+     */
+    private Mono<StoredResponse> claim(String cacheKey, String key, String fingerprint) {
+        if (!mongoEnabled) {
+            return Mono.empty();
+        }
+        IdempotencyRecord claim = IdempotencyRecord.builder()
+                .id(cacheKey)
+                .requestFingerprint(fingerprint)
+                .pending(true)
+                .createdAt(Instant.now())
+                .build();
+        return recordRepository.insert(claim)
+                .then(Mono.<StoredResponse>empty())
+                .onErrorResume(DuplicateKeyException.class, e -> findStored(cacheKey, key)
+                        .switchIfEmpty(Mono.error(() -> new IdempotentRequestInProgressException(key))));
+    }
+
+    private Mono<Void> release(String cacheKey) {
+        if (!mongoEnabled) {
+            return Mono.empty();
+        }
+        return recordRepository.deleteById(cacheKey)
+                .onErrorResume(e -> {
+                    log.warn("Could not release idempotency key {}: {}", cacheKey, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<StoredResponse> persist(String cacheKey, StoredResponse stored) {
+        if (!mongoEnabled) {
+            return Mono.just(stored);
+        }
+        if (HttpStatus.valueOf(stored.getStatus()).is5xxServerError()) {
+            return release(cacheKey).thenReturn(stored);
+        }
+        IdempotencyRecord record = IdempotencyRecord.builder()
+                .id(cacheKey)
+                .requestFingerprint(stored.getFingerprint())
+                .status(stored.getStatus())
+                .body(toJson(stored.getBody()))
+                .createdAt(Instant.now())
+                .build();
+        // the response is returned even if it could not be stored, the in-memory copy still covers most retries
+        return recordRepository.save(record)
+                .thenReturn(stored)
+                .onErrorResume(e -> {
+                    log.warn("Could not store idempotent response {}: {}", cacheKey, e.getMessage());
+                    return Mono.just(stored);
+                });
+    }
+
+    private Object toBody(Object body, Class<?> bodyType) {
+        if (body == null || bodyType.isInstance(body)) {
+            return body;
+        }
+        try {
+            return objectMapper.readValue((String) body, bodyType);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return body instanceof String || body == null ? (String) body : objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Response kept for replays. The body is the response object when produced by this
+     * instance, or its JSON when read back from Mongo.
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class StoredResponse {
+        private final String fingerprint;
+        private final int status;
+        private final Object body;
+    }
+}
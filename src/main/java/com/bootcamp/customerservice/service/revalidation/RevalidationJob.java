@@ -0,0 +1,261 @@
+package com.bootcamp.customerservice.service.revalidation;
+
+import com.bootcamp.customerservice.entity.Customer;
+import com.bootcamp.customerservice.entity.EligibilitySnapshot;
+import com.bootcamp.customerservice.entity.RevalidationCheckpoint;
+import com.bootcamp.customerservice.metrics.HotPathMetrics;
+import com.bootcamp.customerservice.model.CustomerType;
+import com.bootcamp.customerservice.model.RevalidationProgress;
+import com.bootcamp.customerservice.repository.CustomerRepository;
+import com.bootcamp.customerservice.repository.RevalidationCheckpointRepository;
+import com.bootcamp.customerservice.service.EligibilityService;
+import com.bootcamp.customerservice.service.cache.CustomerCache;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Re-checks every VIP and PYME customer against the credit and account services.
+ * Customers are streamed from Mongo by type and ID, validated with bounded
+ * parallelism, and their new eligibility snapshots are written in bulk batches.
+ * A checkpoint is saved after every batch; a run left RUNNING by a crash is
+ * resumed after its last written customer, on startup or on the next start.
+ * Runs are coordinated within this instance only: every instance starts the scheduled
+ * run, so the downstream concurrency bound applies per instance. A run in progress is
+ * stopped on shutdown and left RUNNING, to be resumed like an interrupted one.
+ */
+@Slf4j
+@Component
+public class RevalidationJob implements DisposableBean {
+
+    static final String CHECKPOINT_ID = "vip-pyme";
+
+    private static final List<CustomerType> TYPES = List.of(CustomerType.VIP, CustomerType.PYME);
+
+    /**
+     * Downstream calls made in parallel for one customer: the credit card check and one account check.
+     */
+    private static final int DOWNSTREAM_CALLS_PER_CUSTOMER = 2;
+
+    private final CustomerRepository customerRepository;
+
+    private final RevalidationCheckpointRepository checkpointRepository;
+
+    private final EligibilityService eligibilityService;
+
+    private final CustomerCache customerCache;
+
+    private final HotPathMetrics hotPathMetrics;
+
+    private final int customerConcurrency;
+
+    private final int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile RevalidationCheckpoint progress;
+
+    private volatile Disposable currentRun = Disposables.disposed();
+
+    public RevalidationJob(CustomerRepository customerRepository,
+                           RevalidationCheckpointRepository checkpointRepository,
+                           EligibilityService eligibilityService,
+                           CustomerCache customerCache,
+                           HotPathMetrics hotPathMetrics,
+                           @Value("${customer.revalidation.max-downstream-concurrency}") int maxDownstreamConcurrency,
+                           @Value("${customer.revalidation.batch-size}") int batchSize) {
+        this.customerRepository = customerRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.eligibilityService = eligibilityService;
+        this.customerCache = customerCache;
+        this.hotPathMetrics = hotPathMetrics;
+        if (maxDownstreamConcurrency < DOWNSTREAM_CALLS_PER_CUSTOMER) {
+            throw new IllegalArgumentException("customer.revalidation.max-downstream-concurrency must be at least "
+                    + DOWNSTREAM_CALLS_PER_CUSTOMER + ", the downstream calls made for one customer, but was " + maxDownstreamConcurrency);
+        }
+        this.customerConcurrency = maxDownstreamConcurrency / DOWNSTREAM_CALLS_PER_CUSTOMER;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${customer.revalidation.cron}")
+    public void scheduledRun() {
+        start().subscribe(
+                checkpoint -> log.info("Scheduled revalidation started at {}", checkpoint.getStartedAt()),
+                e -> log.error("Could not start scheduled revalidation: {}", e.getMessage()),
+                () -> { });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedRun() {
+        checkpointRepository.findById(CHECKPOINT_ID)
+                .filter(checkpoint -> checkpoint.getStatus() == RevalidationProgress.StatusEnum.RUNNING)
+                .flatMap(checkpoint -> {
+                    log.info("Resuming revalidation interrupted after {} {}", checkpoint.getCurrentType(), checkpoint.getLastCustomerId());
+                    return start();
+                })
+                .subscribe(checkpoint -> { }, e -> log.error("Could not resume revalidation: {}", e.getMessage()));
+    }
+
+    /**
+     * Starts a run in the background, resuming the checkpoint of a run that was interrupted
+     * or failed if there is one.
+     *
+     * @return Mono emitting the progress the run starts from, or empty if a run is already in progress.
+     */
+    public Mono<RevalidationCheckpoint> start() {
+        return Mono.defer(() -> {
+            if (!running.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+            // the flag is released here until the run takes it over, whether the start fails,
+            // is cancelled or completes without a checkpoint
+            AtomicBoolean handedOver = new AtomicBoolean();
+            return checkpointRepository.findById(CHECKPOINT_ID)
+                    .filter(RevalidationJob::isUnfinished)
+                    .map(checkpoint -> checkpoint.toBuilder()
+                            .status(RevalidationProgress.StatusEnum.RUNNING)
+                            .finishedAt(null)
+                            .build())
+                    .switchIfEmpty(Mono.fromSupplier(RevalidationJob::newCheckpoint))
+                    .flatMap(checkpointRepository::save)
+                    .doOnNext(checkpoint -> {
+                        progress = checkpoint;
+                        handedOver.set(true);
+                        currentRun = run(checkpoint).subscribe();
+                    })
+                    .doFinally(signal -> {
+                        if (!handedOver.get()) {
+                            running.set(false);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Stops the run in progress, leaving its checkpoint RUNNING so that it resumes on the next startup.
+     */
+    @Override
+    public void destroy() {
+        currentRun.dispose();
+    }
+
+    /**
+     * Returns the progress of the current run, or of the last one if none is in progress.
+     *
+     * @return Mono emitting the progress, or empty if the job never ran.
+     */
+    public Mono<RevalidationCheckpoint> progress() {
+        RevalidationCheckpoint current = progress;
+        return current != null ? Mono.just(current) : checkpointRepository.findById(CHECKPOINT_ID);
+    }
+
+    private Mono<Void> run(RevalidationCheckpoint checkpoint) {
+        return Flux.fromIterable(remainingTypes(checkpoint))
+                .concatMap(type -> customerRepository.findPage(type, type == checkpoint.getCurrentType() ? checkpoint.getLastCustomerId() : null, 0)
+                        .flatMapSequential(this::revalidate, customerConcurrency)
+                        .buffer(batchSize)
+                        .concatMap(outcomes -> writeBatch(type, outcomes), 1))
+                .then(Mono.defer(() -> finish(RevalidationProgress.StatusEnum.COMPLETED)))
+                .onErrorResume(e -> {
+                    log.error("Revalidation failed after {} {}: {}", progress.getCurrentType(), progress.getLastCustomerId(), e.getMessage());
+                    return finish(RevalidationProgress.StatusEnum.FAILED);
+                })
+                .doFinally(signal -> running.set(false))
+                .then();
+    }
+
+    private Mono<Outcome> revalidate(Customer customer) {
+        return eligibilityService.revalidate(customer)
+                .map(snapshot -> new Outcome(customer, snapshot))
+                .onErrorResume(e -> {
+                    log.warn("Could not revalidate customer {}: {}", customer.getId(), e.getMessage());
+                    return Mono.just(new Outcome(customer, null));
+                });
+    }
+
+    private Mono<RevalidationCheckpoint> writeBatch(CustomerType type, List<Outcome> outcomes) {
+        List<Customer> validated = outcomes.stream()
+                .filter(outcome -> outcome.getSnapshot() != null)
+                .map(outcome -> {
+                    outcome.getCustomer().setEligibility(outcome.getSnapshot());
+                    return outcome.getCustomer();
+                })
+                .collect(Collectors.toList());
+        long eligible = validated.stream()
+                .map(Customer::getEligibility)
+                .map(EligibilitySnapshot::getEligible)
+                .filter(Objects::nonNull)
+                .filter(Boolean::booleanValue)
+                .count();
+        Mono<Void> write = validated.isEmpty()
+                ? Mono.empty()
+                : hotPathMetrics.timeMongo("updateEligibilities", customerRepository.updateEligibilities(validated));
+        return write
+                .doOnSuccess(done -> validated.forEach(customer -> customerCache.invalidate(customer.getId())))
+                .then(Mono.defer(() -> save(progress.toBuilder()
+                        .currentType(type)
+                        .lastCustomerId(outcomes.get(outcomes.size() - 1).getCustomer().getId())
+                        .processed(progress.getProcessed() + outcomes.size())
+                        .eligible(progress.getEligible() + eligible)
+                        .ineligible(progress.getIneligible() + validated.size() - eligible)
+                        .failed(progress.getFailed() + outcomes.size() - validated.size())
+                        .build())));
+    }
+
+    private Mono<RevalidationCheckpoint> finish(RevalidationProgress.StatusEnum status) {
+        log.info("Revalidation {}: {} processed, {} eligible, {} ineligible, {} failed", status,
+                progress.getProcessed(), progress.getEligible(), progress.getIneligible(), progress.getFailed());
+        return save(progress.toBuilder()
+                .status(status)
+                .finishedAt(Instant.now())
+                .build());
+    }
+
+    private Mono<RevalidationCheckpoint> save(RevalidationCheckpoint checkpoint) {
+        checkpoint.setUpdatedAt(Instant.now());
+        return checkpointRepository.save(checkpoint)
+                .doOnNext(saved -> progress = saved);
+    }
+
+    private static List<CustomerType> remainingTypes(RevalidationCheckpoint checkpoint) {
+        return checkpoint.getCurrentType() == null
+                ? TYPES
+                : TYPES.subList(TYPES.indexOf(checkpoint.getCurrentType()), TYPES.size());
+    }
+
+    private static boolean isUnfinished(RevalidationCheckpoint checkpoint) {
+        return checkpoint.getStatus() == RevalidationProgress.StatusEnum.RUNNING
+                || checkpoint.getStatus() == RevalidationProgress.StatusEnum.FAILED;
+    }
+
+    private static RevalidationCheckpoint newCheckpoint() {
+        return RevalidationCheckpoint.builder()
+                .id(CHECKPOINT_ID)
+                .status(RevalidationProgress.StatusEnum.RUNNING)
+                .startedAt(Instant.now())
+                .build();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Outcome {
+        private final Customer customer;
+        private final EligibilitySnapshot snapshot;
+    }
+}
@@ -0,0 +1,278 @@
+package com.bootcamp.customerservice.service.search;
+
+import com.bootcamp.customerservice.entity.Customer;
+import com.bootcamp.customerservice.model.CustomerSearchHit;
+import com.bootcamp.customerservice.repository.CustomerRepository;
+import com.bootcamp.customerservice.service.exceptions.SearchIndexNotReadyException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * In-memory index for searching customers by partial name or email.
+ * The index is loaded from Mongo once the application has started and rebuilt on a
+ * schedule, which also drops the tombstones left by updates and deletes. In between,
+ * the create, update and delete paths of this instance keep it current; changes made
+ * while a rebuild is loading are replayed onto the new index before it replaces the old one.
+ * Changes made by other instances are picked up by the next rebuild.
+ * Matches are ranked as exact, prefix of the whole name or email, prefix of every
+ * query word, and substring of the name or email. The number of candidates looked at
+ * per query is bounded, so that broad queries cost the same as narrow ones.
+ */
+@Slf4j
+@Component
+public class CustomerSearchIndex {
+
+    private static final Comparator<SearchHit> RANKING = Comparator
+            .comparing((SearchHit hit) -> hit.getMatch().ordinal())
+            .thenComparing(hit -> hit.normalizedName)
+            .thenComparing(hit -> hit.getCustomer().getId());
+
+    private final CustomerRepository customerRepository;
+
+    private final int maxCandidates;
+
+    private final Object writeLock = new Object();
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private volatile SearchSegment segment;
+
+    // guarded by writeLock, collects the changes made while a rebuild is loading
+    private List<Consumer<SearchSegment>> pendingChanges;
+
+    public CustomerSearchIndex(CustomerRepository customerRepository,
+                               @Value("${customer.search.max-candidates}") int maxCandidates,
+                               MeterRegistry meterRegistry) {
+        this.customerRepository = customerRepository;
+        this.maxCandidates = maxCandidates;
+        Gauge.builder("customer.search.indexed", this, index -> index.segment != null ? index.segment.liveCount() : 0)
+                .description("Customers in the search index")
+                .register(meterRegistry);
+        Gauge.builder("customer.search.tombstones", this, index -> index.segment != null ? index.segment.getTombstones() : 0)
+                .description("Stale search index entries waiting for the next rebuild")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        scheduledRebuild();
+    }
+
+    @Scheduled(cron = "${customer.search.rebuild-cron}")
+    public void scheduledRebuild() {
+        rebuild().subscribe(
+                indexed -> log.info("Customer search index rebuilt with {} customers", indexed),
+                e -> log.error("Error rebuilding customer search index: {}", e.getMessage()));
+    }
+
+    /**
+     * Loads every customer from the repository into a new index and swaps it in once complete.
+     * Searches keep using the current index while the new one loads.
+     *
+     * @return Mono emitting the number of indexed customers, or empty if a rebuild is already running.
+     */
+    public Mono<Integer> rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return Mono.empty();
+        }
+        SearchSegment next = new SearchSegment();
+        synchronized (writeLock) {
+            pendingChanges = new ArrayList<>();
+        }
+        // the new segment is not visible to anyone else until it is swapped in, so loading needs no lock
+        return customerRepository.findPage(null, null, 0)
+                .doOnNext(next::put)
+                .then(Mono.fromCallable(() -> {
+                    synchronized (writeLock) {
+                        pendingChanges.forEach(change -> change.accept(next));
+                        pendingChanges = null;
+                        segment = next;
+                    }
+                    return next.liveCount();
+                }))
+                .doFinally(signal -> {
+                    synchronized (writeLock) {
+                        pendingChanges = null;
+                    }
+                    rebuilding.set(false);
+                });
+    }
+
+    /**
+     * Adds a customer to the index, or replaces its previous name and email.
+     */
+    public void index(Customer customer) {
+        if (customer.getId() != null) {
+            apply(segment -> segment.put(customer));
+        }
+    }
+
+    public void remove(String customerId) {
+        apply(segment -> segment.remove(customerId));
+    }
+
+    /**
+     * Finds customers whose name or email matches the query, best matches first.
+     *
+     * @param query  Words to look for; each one must match the start of a word, or with at least three characters any part of it.
+     * @param offset Number of ranked matches to skip.
+     * @param limit  Maximum number of matches to return.
+     * @return The requested page of matches, and whether more follow.
+     * @throws SearchIndexNotReadyException if the index has not been loaded yet.
+     */
+    public SearchResult search(String query, int offset, int limit) {
+        SearchSegment current = segment;
+        if (current == null) {
+            throw new SearchIndexNotReadyException();
+        }
+        String normalizedQuery = SearchText.normalize(query);
+        List<String> terms = SearchText.words(normalizedQuery);
+        if (terms.isEmpty()) {
+            return new SearchResult(List.of(), false);
+        }
+        Query parsed = new Query(normalizedQuery, String.join(" ", terms), terms);
+        // the longest word is the most selective, so candidates are drawn from its matches
+        String lead = terms.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+        int wanted = offset + limit + 1;
+
+        Set<Integer> seen = new HashSet<>();
+        List<SearchHit> hits = new ArrayList<>();
+        collectWordMatches(current, parsed, lead, seen, hits);
+        if (hits.size() < wanted && lead.length() >= SearchText.TRIGRAM_LENGTH) {
+            collectSubstringMatches(current, parsed, lead, wanted, seen, hits);
+        }
+
+        hits.sort(RANKING);
+        List<SearchHit> page = offset < hits.size()
+                ? hits.subList(offset, Math.min(hits.size(), offset + limit))
+                : List.of();
+        return new SearchResult(page, hits.size() > offset + limit);
+    }
+
+    private void apply(Consumer<SearchSegment> change) {
+        synchronized (writeLock) {
+            SearchSegment current = segment;
+            if (current != null) {
+                change.accept(current);
+            }
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        }
+    }
+
+    private void collectWordMatches(SearchSegment current, Query query, String lead, Set<Integer> seen, List<SearchHit> hits) {
+        for (OrdinalPostings postings : current.wordsStartingWith(lead).values()) {
+            int size = postings.size();
+            for (int i = size - 1; i >= 0; i--) {
+                if (seen.size() >= maxCandidates) {
+                    return;
+                }
+                consider(current, postings.get(i), query, seen, hits);
+            }
+        }
+    }
+
+    private void collectSubstringMatches(SearchSegment current, Query query, String lead, int wanted,
+                                         Set<Integer> seen, List<SearchHit> hits) {
+        List<OrdinalPostings> postingsList = new ArrayList<>();
+        for (String trigram : new HashSet<>(SearchText.trigrams(lead))) {
+            OrdinalPostings postings = current.trigramPostings(trigram);
+            if (postings == null) {
+                return;
+            }
+            postingsList.add(postings);
+        }
+        postingsList.sort(Comparator.comparingInt(OrdinalPostings::size));
+        OrdinalPostings rarest = postingsList.get(0);
+        List<OrdinalPostings> others = postingsList.subList(1, postingsList.size());
+        // newest first, stopping as soon as the page is filled
+        for (int i = rarest.size() - 1; i >= 0 && hits.size() < wanted && seen.size() < maxCandidates; i--) {
+            int ordinal = rarest.get(i);
+            if (!seen.contains(ordinal) && others.stream().allMatch(postings -> postings.contains(ordinal))) {
+                consider(current, ordinal, query, seen, hits);
+            }
+        }
+    }
+
+    private static void consider(SearchSegment current, int ordinal, Query query, Set<Integer> seen, List<SearchHit> hits) {
+        if (!seen.add(ordinal)) {
+            return;
+        }
+        SearchSegment.Entry entry = current.entry(ordinal);
+        if (entry == null) {
+            return;
+        }
+        CustomerSearchHit.MatchEnum match = match(entry, query);
+        if (match != null) {
+            hits.add(new SearchHit(entry.getCustomer(), match, entry.getName()));
+        }
+    }
+
+    private static CustomerSearchHit.MatchEnum match(SearchSegment.Entry entry, Query query) {
+        if (entry.getName().equals(query.getPhrase()) || entry.getEmail().equals(query.getText())) {
+            return CustomerSearchHit.MatchEnum.EXACT;
+        }
+        if (entry.getName().startsWith(query.getPhrase()) || entry.getEmail().startsWith(query.getText())) {
+            return CustomerSearchHit.MatchEnum.PREFIX;
+        }
+        boolean everyTermIsAPrefix = true;
+        for (String term : query.getTerms()) {
+            if (entry.getWords().stream().noneMatch(word -> word.startsWith(term))) {
+                if (term.length() < SearchText.TRIGRAM_LENGTH || entry.getWords().stream().noneMatch(word -> word.contains(term))) {
+                    return null;
+                }
+                everyTermIsAPrefix = false;
+            }
+        }
+        return everyTermIsAPrefix ? CustomerSearchHit.MatchEnum.WORD_PREFIX : CustomerSearchHit.MatchEnum.SUBSTRING;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Query {
+        private final String text;
+        private final String phrase;
+        private final List<String> terms;
+    }
+
+    /**
+     * An indexed customer matching a query, and how it matched.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class SearchHit {
+        private final Customer customer;
+        private final CustomerSearchHit.MatchEnum match;
+        @Getter(AccessLevel.NONE)
+        private final String normalizedName;
+    }
+
+    /**
+     * One page of ranked search hits.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class SearchResult {
+        private final List<SearchHit> hits;
+        private final boolean more;
+    }
+}
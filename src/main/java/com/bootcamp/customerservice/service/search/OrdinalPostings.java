@@ -0,0 +1,41 @@
+package com.bootcamp.customerservice.service.search;
+
+import java.util.Arrays;
+
+/**
+ * Append-only list of entry ordinals, kept in ascending order because ordinals are
+ * handed out in increasing order. Appends happen under the index write lock; reads
+ * need no lock, since the size is published after the value it covers.
+ */
+final class OrdinalPostings {
+
+    private volatile int[] ordinals = new int[2];
+
+    private volatile int size;
+
+    void add(int ordinal) {
+        int[] current = ordinals;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+            ordinals = current;
+        }
+        current[size] = ordinal;
+        size = size + 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the ordinal at the given position, which must be below a size read before.
+     */
+    int get(int index) {
+        return ordinals[index];
+    }
+
+    boolean contains(int ordinal) {
+        int count = size;
+        return Arrays.binarySearch(ordinals, 0, count, ordinal) >= 0;
+    }
+}
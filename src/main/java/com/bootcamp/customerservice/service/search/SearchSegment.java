@@ -0,0 +1,119 @@
+package com.bootcamp.customerservice.service.search;
+
+import com.bootcamp.customerservice.entity.Customer;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * One generation of the search index.
+ * Each indexed customer gets an ordinal; its words are kept in a sorted map for prefix
+ * lookups and the trigrams of its words in a hash map for substring lookups, both pointing
+ * at ordinal postings. Updated or removed customers leave their old ordinal behind as a
+ * tombstone until the next rebuild replaces the segment.
+ * Writes must hold the index write lock; reads may run concurrently with them.
+ */
+final class SearchSegment {
+
+    private final Map<String, Integer> ordinalsById = new ConcurrentHashMap<>();
+
+    private final ConcurrentSkipListMap<String, OrdinalPostings> words = new ConcurrentSkipListMap<>();
+
+    private final Map<String, OrdinalPostings> trigrams = new ConcurrentHashMap<>();
+
+    private volatile Entry[] entries = new Entry[1024];
+
+    private volatile int size;
+
+    @Getter
+    private volatile int tombstones;
+
+    void put(Customer customer) {
+        remove(customer.getId());
+        Entry entry = new Entry(customer);
+        int ordinal = size;
+        Entry[] current = entries;
+        if (ordinal == current.length) {
+            current = Arrays.copyOf(current, ordinal * 2);
+            entries = current;
+        }
+        current[ordinal] = entry;
+        size = ordinal + 1;
+
+        Set<String> entryTrigrams = new HashSet<>();
+        for (String word : new HashSet<>(entry.getWords())) {
+            words.computeIfAbsent(word, w -> new OrdinalPostings()).add(ordinal);
+            entryTrigrams.addAll(SearchText.trigrams(word));
+        }
+        entryTrigrams.forEach(trigram -> trigrams.computeIfAbsent(trigram, t -> new OrdinalPostings()).add(ordinal));
+        ordinalsById.put(customer.getId(), ordinal);
+    }
+
+    void remove(String customerId) {
+        Integer ordinal = ordinalsById.remove(customerId);
+        if (ordinal != null) {
+            entries[ordinal] = null;
+            tombstones = tombstones + 1;
+        }
+    }
+
+    int liveCount() {
+        return ordinalsById.size();
+    }
+
+    /**
+     * Returns the entry with the given ordinal, or null if it was removed.
+     */
+    Entry entry(int ordinal) {
+        return entries[ordinal];
+    }
+
+    /**
+     * Returns the postings of every indexed word starting with the given prefix, in word order.
+     */
+    NavigableMap<String, OrdinalPostings> wordsStartingWith(String prefix) {
+        return words.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    OrdinalPostings trigramPostings(String trigram) {
+        return trigrams.get(trigram);
+    }
+
+    /**
+     * An indexed customer with its normalized name and email.
+     */
+    @Getter
+    static final class Entry {
+
+        private final Customer customer;
+
+        private final String name;
+
+        private final String email;
+
+        private final List<String> words;
+
+        Entry(Customer customer) {
+            // only the fields shown in search results are kept
+            this.customer = Customer.builder()
+                    .id(customer.getId())
+                    .name(customer.getName())
+                    .email(customer.getEmail())
+                    .type(customer.getType())
+                    .version(customer.getVersion())
+                    .build();
+            List<String> nameWords = SearchText.words(SearchText.normalize(customer.getName()));
+            this.name = String.join(" ", nameWords);
+            this.email = SearchText.normalize(customer.getEmail());
+            nameWords.addAll(SearchText.words(email));
+            this.words = nameWords;
+        }
+    }
+}
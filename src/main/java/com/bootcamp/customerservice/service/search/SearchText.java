@@ -0,0 +1,55 @@
+package com.bootcamp.customerservice.service.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Normalization shared by indexed customers and queries, so that both sides compare the same way.
+ * Text is lower-cased and stripped of accents; words are the runs of letters and digits.
+ */
+final class SearchText {
+
+    static final int TRIGRAM_LENGTH = 3;
+
+    private SearchText() {
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text.trim(), Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    static List<String> words(String normalized) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    static List<String> trigrams(String word) {
+        List<String> trigrams = new ArrayList<>(Math.max(0, word.length() - TRIGRAM_LENGTH + 1));
+        for (int i = 0; i + TRIGRAM_LENGTH <= word.length(); i++) {
+            trigrams.add(word.substring(i, i + TRIGRAM_LENGTH));
+        }
+        return trigrams;
+    }
+}
@@ -0,0 +1,243 @@
+package com.bootcamp.customerservice.service.statistics;
+
+import com.bootcamp.customerservice.model.CustomerType;
+import com.bootcamp.customerservice.repository.CustomerRepository;
+import com.bootcamp.customerservice.repository.CustomerTypeCount;
+import com.bootcamp.customerservice.repository.HourlyCreationCount;
+import com.bootcamp.customerservice.service.exceptions.StatisticsNotReadyException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory customer counts by type and by hour of creation.
+ * The create, update and delete paths of this instance update the counters as they
+ * happen, so reading them never touches Mongo. A scheduled reconciliation replaces them
+ * with the result of an aggregation, which corrects the changes made by other instances
+ * and any drift. Changes recorded while the aggregation runs are kept on top of its
+ * result, so a change racing with the start of a run may be counted twice or missed
+ * until the next one.
+ */
+@Slf4j
+@Component
+public class CustomerStatisticsCounters {
+
+    static final int HOURS = 24;
+
+    private static final long HOUR_MILLIS = Duration.ofHours(1).toMillis();
+
+    private static final CustomerType[] TYPES = CustomerType.values();
+
+    private final CustomerRepository customerRepository;
+
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+
+    private final AtomicLongArray createdPerHour = new AtomicLongArray(HOURS);
+
+    private final AtomicLongArray bucketHours = new AtomicLongArray(HOURS);
+
+    private volatile TypeCounts typeCounts;
+
+    private volatile Instant reconciledAt;
+
+    public CustomerStatisticsCounters(CustomerRepository customerRepository) {
+        this.customerRepository = customerRepository;
+        this.typeCounts = new TypeCounts(new long[TYPES.length], null);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialReconciliation() {
+        scheduledReconciliation();
+    }
+
+    @Scheduled(cron = "${customer.statistics.reconcile-cron}")
+    public void scheduledReconciliation() {
+        reconcile().subscribe(
+                unused -> { },
+                e -> log.error("Error reconciling customer statistics: {}", e.getMessage()));
+    }
+
+    public void created(CustomerType type) {
+        add(type, 1);
+        long hour = currentHour();
+        int bucket = bucket(hour);
+        long bucketHour = bucketHours.get(bucket);
+        if (bucketHour != hour && bucketHours.compareAndSet(bucket, bucketHour, hour)) {
+            createdPerHour.set(bucket, 0);
+        }
+        createdPerHour.incrementAndGet(bucket);
+    }
+
+    public void typeChanged(CustomerType previousType, CustomerType newType) {
+        if (previousType != newType) {
+            add(previousType, -1);
+            add(newType, 1);
+        }
+    }
+
+    public void deleted(CustomerType type) {
+        add(type, -1);
+    }
+
+    /**
+     * Replaces the counters with the result of the aggregations.
+     *
+     * @return Mono completing once the counters are reconciled, or at once if a reconciliation is already running.
+     */
+    public Mono<Void> reconcile() {
+        if (!reconciling.compareAndSet(false, true)) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> {
+                    // changes from now on go to a fresh delta that survives the reconciliation
+                    TypeCounts started = typeCounts.startReconciliation();
+                    typeCounts = started;
+                    long currentHour = currentHour();
+                    Instant since = Instant.ofEpochMilli((currentHour - HOURS + 1) * HOUR_MILLIS);
+                    return customerRepository.countByType()
+                            .collectList()
+                            .zipWith(customerRepository.countCreatedPerHour(since).collectList())
+                            .doOnNext(counts -> {
+                                long[] base = new long[TYPES.length];
+                                for (CustomerTypeCount count : counts.getT1()) {
+                                    if (count.getType() != null) {
+                                        base[count.getType().ordinal()] = count.getCount();
+                                    }
+                                }
+                                typeCounts = typeCounts.reconciled(base);
+                                Map<Long, Long> perHour = counts.getT2().stream()
+                                        .collect(Collectors.toMap(count -> count.getHourStart() / HOUR_MILLIS, HourlyCreationCount::getCount));
+                                for (long hour = currentHour - HOURS + 1; hour <= currentHour; hour++) {
+                                    setHour(hour, perHour.getOrDefault(hour, 0L), currentHour);
+                                }
+                                reconciledAt = Instant.now();
+                            });
+                })
+                .then()
+                .doFinally(signal -> reconciling.set(false));
+    }
+
+    /**
+     * Returns the current counters.
+     *
+     * @throws StatisticsNotReadyException if the counters have not been reconciled yet.
+     */
+    public Snapshot snapshot() {
+        Instant reconciled = reconciledAt;
+        if (reconciled == null) {
+            throw new StatisticsNotReadyException();
+        }
+        TypeCounts counts = typeCounts;
+        Map<CustomerType, Long> byType = new EnumMap<>(CustomerType.class);
+        for (CustomerType type : TYPES) {
+            byType.put(type, Math.max(0, counts.get(type)));
+        }
+        long currentHour = currentHour();
+        Map<Instant, Long> perHour = new LinkedHashMap<>();
+        for (long hour = currentHour - HOURS + 1; hour <= currentHour; hour++) {
+            int bucket = bucket(hour);
+            perHour.put(Instant.ofEpochMilli(hour * HOUR_MILLIS),
+                    bucketHours.get(bucket) == hour ? createdPerHour.get(bucket) : 0L);
+        }
+        return new Snapshot(byType, perHour, reconciled);
+    }
+
+    private void add(CustomerType type, long amount) {
+        if (type != null) {
+            typeCounts.delta[type.ordinal()].add(amount);
+        }
+    }
+
+    private void setHour(long hour, long count, long currentHour) {
+        int bucket = bucket(hour);
+        if (hour == currentHour && bucketHours.get(bucket) == hour) {
+            // creations of this instance in the current hour may be newer than the aggregation
+            createdPerHour.accumulateAndGet(bucket, count, Math::max);
+        } else {
+            createdPerHour.set(bucket, count);
+            bucketHours.set(bucket, hour);
+        }
+    }
+
+    private long currentHour() {
+        return System.currentTimeMillis() / HOUR_MILLIS;
+    }
+
+    private static int bucket(long hour) {
+        return (int) (hour % HOURS);
+    }
+
+    /**
+     * Counts by type as the last reconciled values plus the changes recorded since.
+     * While a reconciliation runs, the changes recorded before it started are kept
+     * separately so that they can be dropped once its result replaces them.
+     */
+    private static final class TypeCounts {
+
+        private final long[] base;
+
+        private final LongAdder[] previousDelta;
+
+        private final LongAdder[] delta;
+
+        TypeCounts(long[] base, LongAdder[] previousDelta) {
+            this.base = base;
+            this.previousDelta = previousDelta;
+            this.delta = new LongAdder[TYPES.length];
+            for (int i = 0; i < delta.length; i++) {
+                delta[i] = new LongAdder();
+            }
+        }
+
+        private TypeCounts(long[] base, LongAdder[] previousDelta, LongAdder[] delta) {
+            this.base = base;
+            this.previousDelta = previousDelta;
+            this.delta = delta;
+        }
+
+        long get(CustomerType type) {
+            int i = type.ordinal();
+            return base[i] + (previousDelta != null ? previousDelta[i].sum() : 0) + delta[i].sum();
+        }
+
+        TypeCounts startReconciliation() {
+            long[] folded = base.clone();
+            if (previousDelta != null) {
+                for (int i = 0; i < folded.length; i++) {
+                    folded[i] += previousDelta[i].sum();
+                }
+            }
+            return new TypeCounts(folded, delta);
+        }
+
+        TypeCounts reconciled(long[] reconciledBase) {
+            return new TypeCounts(reconciledBase, null, delta);
+        }
+    }
+
+    /**
+     * Counters at one point in time.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Snapshot {
+        private final Map<CustomerType, Long> countsByType;
+        private final Map<Instant, Long> createdPerHour;
+        private final Instant reconciledAt;
+    }
+}
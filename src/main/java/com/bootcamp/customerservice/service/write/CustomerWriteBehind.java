@@ -0,0 +1,326 @@
+package com.bootcamp.customerservice.service.write;
+
+import com.bootcamp.customerservice.entity.Customer;
+import com.bootcamp.customerservice.metrics.HotPathMetrics;
+import com.bootcamp.customerservice.repository.CustomerBulkWriteResult;
+import com.bootcamp.customerservice.repository.CustomerRepository;
+import com.bootcamp.customerservice.repository.CustomerUpdate;
+import com.bootcamp.customerservice.repository.VersionedFieldsWrite;
+import com.mongodb.WriteConcern;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Write path for customer creates and updates.
+ * When enabled, writes from concurrent requests are collected over a short window, or up
+ * to a maximum batch size, and sent to Mongo as one unordered bulk write. Updates of the
+ * same customer within a window are merged into a single write guarded by the version read
+ * before it, while every caller still gets the result of its own update, or its own error.
+ * Updates whose bulk write fails or finds a newer version are retried one by one.
+ * The window bounds the latency added to each write, and the write concern sets how durable
+ * a write is when its caller gets the result. Pending writes are flushed on shutdown.
+ * When disabled, every write goes straight to the repository.
+ */
+@Slf4j
+@Component
+public class CustomerWriteBehind implements DisposableBean {
+
+    private static final Sinks.EmitFailureHandler RETRY_NON_SERIALIZED =
+            (signalType, emitResult) -> emitResult == Sinks.EmitResult.FAIL_NON_SERIALIZED;
+
+    private final CustomerRepository customerRepository;
+
+    private final HotPathMetrics hotPathMetrics;
+
+    private final boolean enabled;
+
+    private final WriteConcern writeConcern;
+
+    private final Duration shutdownTimeout;
+
+    private final Sinks.Many<PendingWrite> pendingWrites = Sinks.many().unicast().onBackpressureBuffer();
+
+    private final CompletableFuture<Void> flushed;
+
+    private volatile boolean closed;
+
+    public CustomerWriteBehind(CustomerRepository customerRepository,
+                               HotPathMetrics hotPathMetrics,
+                               @Value("${customer.write-behind.enabled}") boolean enabled,
+                               @Value("${customer.write-behind.window-ms}") long windowMillis,
+                               @Value("${customer.write-behind.max-batch-size}") int maxBatchSize,
+                               @Value("${customer.write-behind.write-concern}") String writeConcern,
+                               @Value("${customer.write-behind.shutdown-timeout-ms}") long shutdownTimeoutMillis) {
+        this.customerRepository = customerRepository;
+        this.hotPathMetrics = hotPathMetrics;
+        this.enabled = enabled;
+        this.writeConcern = Objects.requireNonNull(WriteConcern.valueOf(writeConcern), "Unknown write concern " + writeConcern);
+        this.shutdownTimeout = Duration.ofMillis(shutdownTimeoutMillis);
+        this.flushed = enabled
+                ? pendingWrites.asFlux()
+                        .bufferTimeout(maxBatchSize, Duration.ofMillis(windowMillis))
+                        .flatMap(this::flush)
+                        .then()
+                        .toFuture()
+                : CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Inserts a new customer, assigning its ID and initial version.
+     *
+     * @param customer The customer to insert.
+     * @return Mono emitting the inserted customer.
+     */
+    public Mono<Customer> insert(Customer customer) {
+        return Mono.defer(() -> {
+            CustomerRepository.assignNewIdentity(customer);
+            PendingInsert insert = new PendingInsert(customer, Sinks.one());
+            if (!enqueue(insert)) {
+                return customerRepository.insert(customer);
+            }
+            return insert.getResult().asMono();
+        });
+    }
+
+    /**
+     * Writes the fields of a customer and increments its version, with the semantics of
+     * {@link CustomerRepository#updateFields(String, Long, Customer, boolean)}.
+     *
+     * @return Mono emitting the updated customer and its previous type, or empty if no customer matched.
+     */
+    public Mono<CustomerUpdate> update(String customerId, Long expectedVersion, Customer changes, boolean partial) {
+        return Mono.defer(() -> {
+            PendingUpdate update = new PendingUpdate(customerId, expectedVersion, changes, partial, Sinks.one());
+            if (!enqueue(update)) {
+                return customerRepository.updateFields(customerId, expectedVersion, changes, partial);
+            }
+            return update.getResult().asMono();
+        });
+    }
+
+    /**
+     * Hands a write to the pipeline, unless it is disabled or already closed.
+     * A write that loses the race with {@link #destroy()} is refused by the completed sink
+     * and goes straight to the repository instead of waiting for a flush that never comes.
+     *
+     * @return true if the write will be answered by a flush.
+     */
+    private boolean enqueue(PendingWrite write) {
+        if (!enabled || closed) {
+            return false;
+        }
+        Sinks.EmitResult result;
+        do {
+            result = pendingWrites.tryEmitNext(write);
+        } while (result == Sinks.EmitResult.FAIL_NON_SERIALIZED);
+        return result.isSuccess();
+    }
+
+    /**
+     * Stops taking writes into the pipeline and waits for the pending ones to be written.
+     */
+    @Override
+    public void destroy() {
+        if (!enabled) {
+            return;
+        }
+        closed = true;
+        pendingWrites.emitComplete(RETRY_NON_SERIALIZED);
+        try {
+            flushed.get(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.warn("Pending customer writes were not flushed within {}: {}", shutdownTimeout, e.getMessage());
+        }
+    }
+
+    private Mono<Void> flush(List<PendingWrite> batch) {
+        List<PendingInsert> inserts = new ArrayList<>();
+        Map<String, List<PendingUpdate>> updatesById = new LinkedHashMap<>();
+        for (PendingWrite write : batch) {
+            if (write instanceof PendingInsert) {
+                inserts.add((PendingInsert) write);
+            } else {
+                PendingUpdate update = (PendingUpdate) write;
+                updatesById.computeIfAbsent(update.getCustomerId(), id -> new ArrayList<>()).add(update);
+            }
+        }
+        Mono<Map<String, Customer>> stored = updatesById.isEmpty()
+                ? Mono.just(Map.of())
+                : hotPathMetrics.timeMongo("findAllById", customerRepository.findAllById(updatesById.keySet()))
+                        .collectMap(Customer::getId);
+        return stored
+                .flatMap(current -> {
+                    List<MergedUpdate> merged = updatesById.values().stream()
+                            .map(updates -> merge(current.get(updates.get(0).getCustomerId()), updates))
+                            .collect(Collectors.toList());
+                    List<MergedUpdate> toWrite = merged.stream()
+                            .filter(MergedUpdate::isWriting)
+                            .collect(Collectors.toList());
+                    // updates with nothing to write are answered from what was read
+                    merged.stream().filter(update -> !update.isWriting()).forEach(MergedUpdate::complete);
+                    if (inserts.isEmpty() && toWrite.isEmpty()) {
+                        return Mono.empty();
+                    }
+                    List<Customer> insertedCustomers = inserts.stream().map(PendingInsert::getCustomer).collect(Collectors.toList());
+                    List<VersionedFieldsWrite> fieldWrites = toWrite.stream().map(MergedUpdate::getWrite).collect(Collectors.toList());
+                    return hotPathMetrics.timeMongo("bulkWrite", customerRepository.bulkWrite(insertedCustomers, fieldWrites, writeConcern))
+                            .flatMap(result -> complete(inserts, toWrite, result));
+                })
+                .onErrorResume(e -> {
+                    log.error("Bulk write of {} customer changes failed: {}", batch.size(), e.getMessage());
+                    batch.forEach(write -> write.fail(e));
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> complete(List<PendingInsert> inserts, List<MergedUpdate> updates, CustomerBulkWriteResult result) {
+        for (int i = 0; i < inserts.size(); i++) {
+            PendingInsert insert = inserts.get(i);
+            Exception error = result.getFailedInserts().get(i);
+            if (error != null) {
+                insert.getResult().tryEmitError(error);
+            } else {
+                insert.getResult().tryEmitValue(insert.getCustomer());
+            }
+        }
+        List<PendingUpdate> retries = new ArrayList<>();
+        for (MergedUpdate update : updates) {
+            if (result.getUnappliedUpdates().contains(update.getCustomerId())) {
+                retries.addAll(update.getUpdates());
+            } else {
+                update.complete();
+            }
+        }
+        if (!retries.isEmpty()) {
+            log.debug("Retrying {} customer updates one by one", retries.size());
+        }
+        // one customer at a time, in arrival order, so that its updates apply in the order they came in
+        return Flux.fromIterable(retries)
+                .concatMap(this::updateIndividually)
+                .then();
+    }
+
+    private Mono<Void> updateIndividually(PendingUpdate update) {
+        return hotPathMetrics.timeMongo("updateFields", customerRepository.updateFields(
+                        update.getCustomerId(), update.getExpectedVersion(), update.getChanges(), update.isPartial()))
+                .doOnNext(result -> update.getResult().tryEmitValue(result))
+                .switchIfEmpty(Mono.fromRunnable(() -> update.getResult().tryEmitEmpty()))
+                .onErrorResume(e -> {
+                    update.getResult().tryEmitError(e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * Applies the updates of one customer in arrival order to the stored customer.
+     * An update whose expected version is not the version left by the previous ones
+     * does not match, as it would not have matched had the updates been written one by one.
+     */
+    private static MergedUpdate merge(Customer stored, List<PendingUpdate> updates) {
+        List<CustomerUpdate> results = new ArrayList<>(updates.size());
+        if (stored == null) {
+            updates.forEach(update -> results.add(null));
+            return new MergedUpdate(updates, results, null);
+        }
+        Customer current = stored;
+        boolean eligibilityChanged = false;
+        for (PendingUpdate update : updates) {
+            if (update.getExpectedVersion() != null && !update.getExpectedVersion().equals(current.getVersion())) {
+                results.add(null);
+                continue;
+            }
+            CustomerUpdate applied = CustomerUpdate.of(current, update.getChanges(), update.isPartial());
+            results.add(applied);
+            current = applied.getCustomer();
+            eligibilityChanged |= update.getChanges().getEligibility() != null;
+        }
+        VersionedFieldsWrite write = current != stored
+                ? new VersionedFieldsWrite(current, stored.getVersion(), eligibilityChanged)
+                : null;
+        return new MergedUpdate(updates, results, write);
+    }
+
+    /**
+     * A write waiting in the current window.
+     */
+    private interface PendingWrite {
+
+        void fail(Throwable error);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class PendingInsert implements PendingWrite {
+        private final Customer customer;
+        private final Sinks.One<Customer> result;
+
+        @Override
+        public void fail(Throwable error) {
+            result.tryEmitError(error);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class PendingUpdate implements PendingWrite {
+        private final String customerId;
+        private final Long expectedVersion;
+        private final Customer changes;
+        private final boolean partial;
+        private final Sinks.One<CustomerUpdate> result;
+
+        @Override
+        public void fail(Throwable error) {
+            result.tryEmitError(error);
+        }
+    }
+
+    /**
+     * The updates of one customer in a window, the result each one gets if the merged write
+     * is applied, and the merged write, or null if none of them changes the customer.
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class MergedUpdate {
+        private final List<PendingUpdate> updates;
+        private final List<CustomerUpdate> results;
+        private final VersionedFieldsWrite write;
+
+        String getCustomerId() {
+            return updates.get(0).getCustomerId();
+        }
+
+        boolean isWriting() {
+            return write != null;
+        }
+
+        void complete() {
+            for (int i = 0; i < updates.size(); i++) {
+                CustomerUpdate result = results.get(i);
+                if (result != null) {
+                    updates.get(i).getResult().tryEmitValue(result);
+                } else {
+                    updates.get(i).getResult().tryEmitEmpty();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.bootcamp.customerservice.webclient.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Collects per-customer probes over a short window, or up to a maximum batch size,
+ * and sends them to the downstream service as a single bulk request.
+ * The bulk results are fanned back out to the waiting callers. When the bulk endpoint
+ * is not available the batcher falls back to per-ID calls for the rest of its lifetime.
+ *
+ * @param <T> Type of the probed value.
+ */
+@Slf4j
+public class ProbeBatcher<T> implements Disposable {
+
+    private static final Sinks.EmitFailureHandler RETRY_NON_SERIALIZED =
+            (signalType, emitResult) -> emitResult == Sinks.EmitResult.FAIL_NON_SERIALIZED;
+
+    private final String name;
+
+    private final Function<List<String>, Mono<Map<String, T>>> bulkCall;
+
+    private final Function<String, Mono<T>> singleCall;
+
+    private final Sinks.Many<PendingProbe<T>> pendingProbes = Sinks.many().unicast().onBackpressureBuffer();
+
+    private final Disposable subscription;
+
+    private volatile boolean bulkSupported = true;
+
+    public ProbeBatcher(String name, int maxBatchSize, Duration window,
+                        Function<List<String>, Mono<Map<String, T>>> bulkCall,
+                        Function<String, Mono<T>> singleCall) {
+        this.name = name;
+        this.bulkCall = bulkCall;
+        this.singleCall = singleCall;
+        this.subscription = pendingProbes.asFlux()
+                .bufferTimeout(maxBatchSize, window)
+                .flatMap(this::dispatch)
+                .subscribe();
+    }
+
+    /**
+     * Queues a probe for the given customer.
+     *
+     * @param customerId The ID of the customer to probe.
+     * @return Mono completed with the result of the batch containing this probe.
+     */
+    public Mono<T> submit(String customerId) {
+        return Mono.defer(() -> {
+            Sinks.One<T> result = Sinks.one();
+            pendingProbes.emitNext(new PendingProbe<>(customerId, result), RETRY_NON_SERIALIZED);
+            return result.asMono();
+        });
+    }
+
+    @Override
+    public void dispose() {
+        subscription.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return subscription.isDisposed();
+    }
+
+    private Mono<Void> dispatch(List<PendingProbe<T>> batch) {
+        if (!bulkSupported || batch.size() == 1) {
+            return callIndividually(batch);
+        }
+        List<String> customerIds = batch.stream()
+                .map(PendingProbe::getCustomerId)
+                .distinct()
+                .collect(Collectors.toList());
+        return bulkCall.apply(customerIds)
+                .flatMap(results -> Flux.fromIterable(batch)
+                        .flatMap(probe -> results.containsKey(probe.getCustomerId())
+                                ? Mono.fromRunnable(() -> complete(probe, results.get(probe.getCustomerId())))
+                                : callIndividually(List.of(probe)))
+                        .then())
+                .onErrorResume(WebClientResponseException.class, e -> {
+                    if (!isBulkUnsupported(HttpStatus.resolve(e.getRawStatusCode()))) {
+                        return Mono.error(e);
+                    }
+                    log.warn("Bulk endpoint for {} probes is not available ({}), falling back to per-ID calls", name, e.getRawStatusCode());
+                    bulkSupported = false;
+                    return callIndividually(batch);
+                })
+                .onErrorResume(e -> {
+                    log.error("Bulk {} probe for {} customers failed: {}", name, customerIds.size(), e.getMessage());
+                    batch.forEach(probe -> probe.getResult().tryEmitError(e));
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> callIndividually(List<PendingProbe<T>> batch) {
+        return Flux.fromIterable(batch)
+                .flatMap(probe -> singleCall.apply(probe.getCustomerId())
+                        .doOnNext(value -> complete(probe, value))
+                        .switchIfEmpty(Mono.fromRunnable(() -> probe.getResult().tryEmitEmpty()))
+                        .onErrorResume(e -> {
+                            probe.getResult().tryEmitError(e);
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+
+    private void complete(PendingProbe<T> probe, T value) {
+        if (value == null) {
+            probe.getResult().tryEmitEmpty();
+        } else {
+            probe.getResult().tryEmitValue(value);
+        }
+    }
+
+    private static boolean isBulkUnsupported(HttpStatus status) {
+        return status == HttpStatus.NOT_FOUND
+                || status == HttpStatus.METHOD_NOT_ALLOWED
+                || status == HttpStatus.NOT_IMPLEMENTED;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class PendingProbe<T> {
+        private final String customerId;
+        private final Sinks.One<T> result;
+    }
+}
@@ -0,0 +1,52 @@
+package com.bootcamp.customerservice.webclient.batch;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * Creates the probe functions used by the downstream clients.
+ * When batching is disabled the per-ID call is returned unchanged.
+ */
+@Component
+public class ProbeBatcherFactory implements DisposableBean {
+
+    private final boolean enabled;
+
+    private final int maxBatchSize;
+
+    private final Duration window;
+
+    private final List<ProbeBatcher<?>> batchers = new CopyOnWriteArrayList<>();
+
+    public ProbeBatcherFactory(@Value("${downstream.batching.enabled}") boolean enabled,
+                               @Value("${downstream.batching.max-size}") int maxBatchSize,
+                               @Value("${downstream.batching.window-ms}") long windowMillis) {
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.window = Duration.ofMillis(windowMillis);
+    }
+
+    public <T> Function<String, Mono<T>> create(String name,
+                                                Function<List<String>, Mono<Map<String, T>>> bulkCall,
+                                                Function<String, Mono<T>> singleCall) {
+        if (!enabled) {
+            return singleCall;
+        }
+        ProbeBatcher<T> batcher = new ProbeBatcher<>(name, maxBatchSize, window, bulkCall, singleCall);
+        batchers.add(batcher);
+        return batcher::submit;
+    }
+
+    @Override
+    public void destroy() {
+        batchers.forEach(ProbeBatcher::dispose);
+    }
+}
@@ -0,0 +1,84 @@
+package com.bootcamp.customerservice.webclient.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * TTL cache for the remote eligibility facts of a customer.
+ * Each fact type has its own cache and TTL. Concurrent lookups of the same fact
+ * for the same customer share a single in-flight remote call.
+ */
+@Slf4j
+@Component
+public class EligibilityCache {
+
+    private final boolean enabled;
+
+    private final Map<EligibilityFact, AsyncCache<String, Object>> caches = new EnumMap<>(EligibilityFact.class);
+
+    public EligibilityCache(@Value("${eligibility.cache.enabled}") boolean enabled,
+                            @Value("${eligibility.cache.maximum-size}") long maximumSize,
+                            @Value("${eligibility.cache.credit-card-ttl-seconds}") long creditCardTtlSeconds,
+                            @Value("${eligibility.cache.savings-balance-ttl-seconds}") long savingsBalanceTtlSeconds,
+                            @Value("${eligibility.cache.current-account-ttl-seconds}") long currentAccountTtlSeconds,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        caches.put(EligibilityFact.CREDIT_CARD, buildCache(maximumSize, creditCardTtlSeconds));
+        caches.put(EligibilityFact.SAVINGS_BALANCE, buildCache(maximumSize, savingsBalanceTtlSeconds));
+        caches.put(EligibilityFact.CURRENT_ACCOUNT, buildCache(maximumSize, currentAccountTtlSeconds));
+        caches.forEach((fact, cache) ->
+                CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "eligibility", "fact", fact.name()));
+    }
+
+    /**
+     * Returns the cached fact for a customer, loading it with the given function on a miss.
+     * When the cache is disabled the loader is always called.
+     *
+     * @param fact       The fact to look up.
+     * @param customerId The ID of the customer.
+     * @param loader     Function performing the remote call.
+     * @return Mono emitting the fact value.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> get(EligibilityFact fact, String customerId, Function<String, Mono<T>> loader) {
+        if (!enabled) {
+            return loader.apply(customerId);
+        }
+        AsyncCache<String, Object> cache = caches.get(fact);
+        return Mono.deferContextual(context -> Mono.fromFuture(cache.get(customerId, (id, executor) -> loader.apply(id)
+                                .map(Object.class::cast)
+                                .contextWrite(context)
+                                .toFuture())
+                        .copy()))
+                .map(value -> (T) value);
+    }
+
+    public void evict(String customerId) {
+        caches.values().forEach(cache -> cache.synchronous().invalidate(customerId));
+        log.info("Eligibility facts evicted for customer {}", customerId);
+    }
+
+    public void evictAll() {
+        caches.values().forEach(cache -> cache.synchronous().invalidateAll());
+        log.info("All eligibility facts evicted");
+    }
+
+    private static AsyncCache<String, Object> buildCache(long maximumSize, long ttlSeconds) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .buildAsync();
+    }
+}
@@ -0,0 +1,30 @@
+package com.bootcamp.customerservice.webclient.cache;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint to evict cached eligibility facts.
+ */
+@Component
+@Endpoint(id = "eligibilitycache")
+public class EligibilityCacheEndpoint {
+
+    private final EligibilityCache eligibilityCache;
+
+    public EligibilityCacheEndpoint(EligibilityCache eligibilityCache) {
+        this.eligibilityCache = eligibilityCache;
+    }
+
+    @DeleteOperation
+    public void evictAll() {
+        eligibilityCache.evictAll();
+    }
+
+    @DeleteOperation
+    public void evict(@Selector String customerId) {
+        eligibilityCache.evict(customerId);
+    }
+}
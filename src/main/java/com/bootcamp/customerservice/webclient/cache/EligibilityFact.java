@@ -0,0 +1,13 @@
+package com.bootcamp.customerservice.webclient.cache;
+
+/**
+ * Remote facts used to check VIP and PYME eligibility.
+ */
+public enum EligibilityFact {
+
+    CREDIT_CARD,
+
+    SAVINGS_BALANCE,
+
+    CURRENT_ACCOUNT
+}
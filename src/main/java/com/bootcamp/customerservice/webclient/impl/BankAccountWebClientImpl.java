@@ -1,16 +1,31 @@
 package com.bootcamp.customerservice.webclient.impl;
 
+import com.bootcamp.customerservice.config.DownstreamProperties;
+import com.bootcamp.customerservice.metrics.HotPathMetrics;
 import com.bootcamp.customerservice.webclient.BankAccountWebClient;
+import com.bootcamp.customerservice.webclient.batch.ProbeBatcherFactory;
+import com.bootcamp.customerservice.webclient.cache.EligibilityCache;
+import com.bootcamp.customerservice.webclient.cache.EligibilityFact;
+import com.bootcamp.customerservice.webclient.resilience.DownstreamResilience;
 import com.bootcamp.customerservice.webclient.model.AccountType;
 import com.bootcamp.customerservice.webclient.model.BankAccountDTO;
+import com.bootcamp.customerservice.webclient.probe.StreamingJsonProbe;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriBuilder;
 import reactor.core.publisher.Mono;
 import org.springframework.http.HttpStatus;
 
+import java.net.URI;
+
+import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 @Service
 @Slf4j
@@ -18,12 +33,79 @@ public class BankAccountWebClientImpl implements BankAccountWebClient {
 
    private final WebClient accountServiceWebClient;
 
-    public BankAccountWebClientImpl(@Qualifier("accountServiceClient") WebClient accountServiceWebClient) {
+   private final EligibilityCache eligibilityCache;
+
+   private final Function<String, Mono<Double>> savingAccountBalanceProbe;
+
+   private final Function<String, Mono<Boolean>> currentAccountProbe;
+
+   private final DownstreamResilience.Guard accountServiceGuard;
+
+   private final HotPathMetrics hotPathMetrics;
+
+   private final DownstreamProperties.Client accountServiceProperties;
+
+    public BankAccountWebClientImpl(@Qualifier("accountServiceClient") WebClient accountServiceWebClient,
+                                    EligibilityCache eligibilityCache,
+                                    ProbeBatcherFactory probeBatcherFactory,
+                                    DownstreamResilience downstreamResilience,
+                                    HotPathMetrics hotPathMetrics,
+                                    DownstreamProperties downstreamProperties) {
         this.accountServiceWebClient = accountServiceWebClient;
+        this.accountServiceProperties = downstreamProperties.client(DownstreamProperties.ACCOUNT_SERVICE);
+        this.eligibilityCache = eligibilityCache;
+        this.hotPathMetrics = hotPathMetrics;
+        this.accountServiceGuard = downstreamResilience.forClient(DownstreamProperties.ACCOUNT_SERVICE);
+        this.savingAccountBalanceProbe = probeBatcherFactory.create("savings-balance",
+                this::fetchSavingAccountBalances, this::fetchSavingAccountBalance);
+        this.currentAccountProbe = probeBatcherFactory.create("current-account",
+                this::fetchCurrentAccounts, this::fetchCurrentAccount);
     }
 
 
     public Mono<Double> getSavingAccountBalance(String customerId) {
+        return eligibilityCache.get(EligibilityFact.SAVINGS_BALANCE, customerId, savingAccountBalanceProbe);
+    }
+
+    public Mono<Boolean> hasCurrentAccount(String customerId) {
+        // errors fall back to false outside the cache so that they are not cached
+        return eligibilityCache.get(EligibilityFact.CURRENT_ACCOUNT, customerId, currentAccountProbe)
+                .onErrorResume(e -> {
+                    log.error("Error checking current account for customer {}", customerId);
+                    return Mono.just(false);
+                });
+    }
+
+    private Mono<Map<String, Double>> fetchSavingAccountBalances(List<String> customerIds) {
+        return accountServiceWebClient.post()
+                .uri("/accounts/first-account/customer/balances/type/{accountType}", AccountType.SAVINGS)
+                .bodyValue(customerIds)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<Map<String, Double>>() {
+                })
+                .transform(accountServiceGuard::guarded)
+                .transform(call -> hotPathMetrics.timeDownstream(DownstreamProperties.ACCOUNT_SERVICE, "getSavingAccountBalanceBulk", call));
+    }
+
+    private Mono<Map<String, Boolean>> fetchCurrentAccounts(List<String> customerIds) {
+        return accountServiceWebClient.post()
+                .uri("/accounts/customer/exists/type/{accountType}", AccountType.CURRENT)
+                .bodyValue(customerIds)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<Map<String, Boolean>>() {
+                })
+                .transform(accountServiceGuard::guarded)
+                .transform(call -> hotPathMetrics.timeDownstream(DownstreamProperties.ACCOUNT_SERVICE, "hasCurrentAccountBulk", call));
+    }
+
+    private Mono<Double> fetchSavingAccountBalance(String customerId) {
+        return (accountServiceProperties.isStreamingProbes() ? streamSavingAccountBalance(customerId) : decodeSavingAccountBalance(customerId))
+                .transform(accountServiceGuard::idempotent)
+                .doOnError(error -> log.error("Error retrieving savings account balance for customer {}: {}", customerId, error.getMessage()))
+                .transform(call -> hotPathMetrics.timeDownstream(DownstreamProperties.ACCOUNT_SERVICE, "getSavingAccountBalance", call));
+    }
+
+    private Mono<Double> decodeSavingAccountBalance(String customerId) {
         return accountServiceWebClient.get()
                 .uri("/accounts/first-account/customer/{customerId}/type/{accountType}", customerId, AccountType.SAVINGS)
                 .retrieve()
@@ -32,19 +114,59 @@ public class BankAccountWebClientImpl implements BankAccountWebClient {
                 .onStatus(HttpStatus::is5xxServerError, response ->
                         Mono.error(new RuntimeException("Server error occurred while retrieving savings account balance")))
                 .bodyToMono(BankAccountDTO.class)
-                .map(BankAccountDTO::getBalance)
-                .doOnError(error -> log.error("Error retrieving savings account balance for customer {}: {}", customerId, error.getMessage()));
+                .map(BankAccountDTO::getBalance);
     }
 
-    public Mono<Boolean> hasCurrentAccount(String customerId) {
+    /**
+     * Reads the balance token of the account as it streams in, without binding the rest of the account.
+     */
+    private Mono<Double> streamSavingAccountBalance(String customerId) {
+        return accountServiceWebClient.get()
+                .uri("/accounts/first-account/customer/{customerId}/type/{accountType}", customerId, AccountType.SAVINGS)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchangeToMono(response -> {
+                    if (response.statusCode().is4xxClientError()) {
+                        return Mono.error(new RuntimeException("Error retrieving savings account balance"));
+                    }
+                    if (response.statusCode().is5xxServerError()) {
+                        return Mono.error(new RuntimeException("Server error occurred while retrieving savings account balance"));
+                    }
+                    return StreamingJsonProbe.numberField(response.bodyToFlux(DataBuffer.class), "balance");
+                });
+    }
+
+    private Mono<Boolean> fetchCurrentAccount(String customerId) {
+        return (accountServiceProperties.isStreamingProbes() ? streamCurrentAccount(customerId) : decodeCurrentAccounts(customerId))
+                .transform(accountServiceGuard::idempotent)
+                .transform(call -> hotPathMetrics.timeDownstream(DownstreamProperties.ACCOUNT_SERVICE, "hasCurrentAccount", call));
+    }
+
+    private Mono<Boolean> decodeCurrentAccounts(String customerId) {
         return accountServiceWebClient.get()
                 .uri("/accounts/customer/{customerId}/type/{accountType}", customerId, AccountType.CURRENT)
                 .retrieve()
                 .bodyToFlux(BankAccountDTO.class)
-                .hasElements()
-                .onErrorResume(e -> {
-                    log.error("Error checking current account for customer {}", customerId);
-                    return Mono.just(false);
-                });
+                .hasElements();
+    }
+
+    /**
+     * Answers as soon as the first account of the listing starts and cancels the rest of the response.
+     * Where the service supports it, only one account is asked for in the first place.
+     */
+    private Mono<Boolean> streamCurrentAccount(String customerId) {
+        return accountServiceWebClient.get()
+                .uri(uriBuilder -> currentAccountsUri(uriBuilder, customerId))
+                .accept(MediaType.APPLICATION_JSON)
+                .exchangeToMono(response -> response.statusCode().isError()
+                        ? response.createException().flatMap(Mono::error)
+                        : StreamingJsonProbe.hasElements(response.bodyToFlux(DataBuffer.class)));
+    }
+
+    private URI currentAccountsUri(UriBuilder uriBuilder, String customerId) {
+        uriBuilder.path("/accounts/customer/{customerId}/type/{accountType}");
+        if (accountServiceProperties.isProbeLimitSupported()) {
+            uriBuilder.queryParam("limit", 1);
+        }
+        return uriBuilder.build(customerId, AccountType.CURRENT);
     }
 }
\ No newline at end of file
@@ -1,29 +1,73 @@
 package com.bootcamp.customerservice.webclient.impl;
 
+import com.bootcamp.customerservice.config.DownstreamProperties;
+import com.bootcamp.customerservice.metrics.HotPathMetrics;
 import com.bootcamp.customerservice.webclient.CreditServiceClient;
+import com.bootcamp.customerservice.webclient.batch.ProbeBatcherFactory;
+import com.bootcamp.customerservice.webclient.cache.EligibilityCache;
+import com.bootcamp.customerservice.webclient.cache.EligibilityFact;
+import com.bootcamp.customerservice.webclient.resilience.DownstreamResilience;
 import io.reactivex.rxjava3.core.Single;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
 @Service
 public class CreditServiceClientImpl implements CreditServiceClient {
 
     private final WebClient creditServiceWebClient;
 
-    public CreditServiceClientImpl(@Qualifier("creditServiceClient") WebClient creditServiceWebClient) {
+    private final EligibilityCache eligibilityCache;
+
+    private final Function<String, Mono<Boolean>> creditCardProbe;
+
+    private final DownstreamResilience.Guard creditServiceGuard;
+
+    private final HotPathMetrics hotPathMetrics;
+
+    public CreditServiceClientImpl(@Qualifier("creditServiceClient") WebClient creditServiceWebClient,
+                                   EligibilityCache eligibilityCache,
+                                   ProbeBatcherFactory probeBatcherFactory,
+                                   DownstreamResilience downstreamResilience,
+                                   HotPathMetrics hotPathMetrics) {
         this.creditServiceWebClient = creditServiceWebClient;
+        this.eligibilityCache = eligibilityCache;
+        this.hotPathMetrics = hotPathMetrics;
+        this.creditServiceGuard = downstreamResilience.forClient(DownstreamProperties.CREDIT_SERVICE);
+        this.creditCardProbe = probeBatcherFactory.create("credit-card", this::fetchCreditCards, this::fetchCreditCard);
     }
 
     @Override
     public Mono<Boolean> hasCreditCard(String customerId) {
+        return eligibilityCache.get(EligibilityFact.CREDIT_CARD, customerId, creditCardProbe);
+    }
+
+    private Mono<Map<String, Boolean>> fetchCreditCards(List<String> customerIds) {
+        return creditServiceWebClient.post()
+                .uri("/exists-creditcard/bulk")
+                .bodyValue(customerIds)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<Map<String, Boolean>>() {
+                })
+                .transform(creditServiceGuard::guarded)
+                .transform(call -> hotPathMetrics.timeDownstream(DownstreamProperties.CREDIT_SERVICE, "hasCreditCardBulk", call));
+    }
+
+    private Mono<Boolean> fetchCreditCard(String customerId) {
         return creditServiceWebClient.get()
                 .uri("/exists-creditcard/{customerId}", customerId)
                 .retrieve()
                 .onStatus(HttpStatus::is4xxClientError, clientResponse ->
                         Mono.error(new RuntimeException("Error checking credit card existence")))
-                .bodyToMono(Boolean.class);
+                .bodyToMono(Boolean.class)
+                .transform(creditServiceGuard::idempotent)
+                .transform(call -> hotPathMetrics.timeDownstream(DownstreamProperties.CREDIT_SERVICE, "hasCreditCard", call));
     }
 }
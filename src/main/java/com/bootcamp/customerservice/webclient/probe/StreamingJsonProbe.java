@@ -0,0 +1,179 @@
+package com.bootcamp.customerservice.webclient.probe;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Answers simple questions about a JSON response body while it streams in, without binding it.
+ * Body chunks are fed to a non-blocking Jackson parser and tokens are inspected one at a time;
+ * as soon as the answer is known the body subscription is cancelled, so the rest of a large
+ * response is discarded instead of being decoded into objects.
+ */
+public final class StreamingJsonProbe {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private StreamingJsonProbe() {
+    }
+
+    /**
+     * Tells whether the body holds at least one value: a non-empty array, or an object.
+     *
+     * @param body The response body.
+     * @return Mono emitting true once the first array element starts, or false for an empty array, null or no body.
+     */
+    public static Mono<Boolean> hasElements(Flux<DataBuffer> body) {
+        return probe(body, HasElements::new).map(answer -> answer.orElse(false));
+    }
+
+    /**
+     * Reads a number field of the body object, or of the first object when the body is an array.
+     *
+     * @param body  The response body.
+     * @param field Name of the field.
+     * @return Mono emitting the field value, or empty if it is null or absent.
+     */
+    public static Mono<Double> numberField(Flux<DataBuffer> body, String field) {
+        return probe(body, () -> new NumberField(field)).flatMap(Mono::justOrEmpty);
+    }
+
+    private static <T> Mono<Optional<T>> probe(Flux<DataBuffer> body, Supplier<TokenHandler<T>> handlerSupplier) {
+        return Mono.defer(() -> {
+            JsonParser parser = createParser();
+            ByteArrayFeeder feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+            TokenHandler<T> handler = handlerSupplier.get();
+            return body
+                    .handle((DataBuffer buffer, SynchronousSink<Optional<T>> sink) -> {
+                        try {
+                            byte[] bytes = new byte[buffer.readableByteCount()];
+                            buffer.read(bytes);
+                            feeder.feedInput(bytes, 0, bytes.length);
+                            Optional<T> answer = drain(parser, handler);
+                            if (answer != null) {
+                                sink.next(answer);
+                            }
+                        } catch (IOException e) {
+                            sink.error(e);
+                        } finally {
+                            DataBufferUtils.release(buffer);
+                        }
+                    })
+                    // the first answer cancels the body
+                    .next()
+                    .switchIfEmpty(Mono.fromCallable(() -> {
+                        feeder.endOfInput();
+                        Optional<T> answer = drain(parser, handler);
+                        return answer != null ? answer : handler.atEnd();
+                    }))
+                    .doFinally(signal -> close(parser));
+        });
+    }
+
+    private static <T> Optional<T> drain(JsonParser parser, TokenHandler<T> handler) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            Optional<T> answer = handler.onToken(token, parser);
+            if (answer != null) {
+                return answer;
+            }
+        }
+        return null;
+    }
+
+    private static JsonParser createParser() {
+        try {
+            return JSON_FACTORY.createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void close(JsonParser parser) {
+        try {
+            parser.close();
+        } catch (IOException e) {
+            // nothing left to release
+        }
+    }
+
+    /**
+     * Inspects tokens in order and returns a non-null answer once it is known.
+     */
+    private interface TokenHandler<T> {
+
+        Optional<T> onToken(JsonToken token, JsonParser parser) throws IOException;
+
+        Optional<T> atEnd();
+    }
+
+    private static final class HasElements implements TokenHandler<Boolean> {
+
+        private boolean inArray;
+
+        @Override
+        public Optional<Boolean> onToken(JsonToken token, JsonParser parser) {
+            if (!inArray && token == JsonToken.START_ARRAY) {
+                inArray = true;
+                return null;
+            }
+            return Optional.of(token != JsonToken.END_ARRAY && token != JsonToken.VALUE_NULL);
+        }
+
+        @Override
+        public Optional<Boolean> atEnd() {
+            return Optional.of(false);
+        }
+    }
+
+    private static final class NumberField implements TokenHandler<Double> {
+
+        private final String field;
+
+        private boolean valueNext;
+
+        NumberField(String field) {
+            this.field = field;
+        }
+
+        @Override
+        public Optional<Double> onToken(JsonToken token, JsonParser parser) throws IOException {
+            if (valueNext) {
+                return token.isNumeric() ? Optional.of(parser.getDoubleValue()) : Optional.empty();
+            }
+            JsonStreamContext context = parser.getParsingContext();
+            if (token == JsonToken.FIELD_NAME && holdsTargetObject(context.getParent()) && field.equals(parser.getCurrentName())) {
+                valueNext = true;
+            } else if (token == JsonToken.END_OBJECT && holdsTargetObject(context)) {
+                // the object closed without the field
+                return Optional.empty();
+            }
+            return null;
+        }
+
+        @Override
+        public Optional<Double> atEnd() {
+            return Optional.empty();
+        }
+
+        /**
+         * Whether an object directly inside this context is the body itself or the first element of the body array.
+         */
+        private static boolean holdsTargetObject(JsonStreamContext container) {
+            return container.inRoot()
+                    || (container.inArray() && container.getParent().inRoot() && container.getCurrentIndex() == 0);
+        }
+    }
+}
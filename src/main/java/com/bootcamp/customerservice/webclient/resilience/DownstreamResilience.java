@@ -0,0 +1,88 @@
+package com.bootcamp.customerservice.webclient.resilience;
+
+import com.bootcamp.customerservice.config.DownstreamProperties;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Provides the circuit breaker, bulkhead and retry policy of each downstream client.
+ */
+@Component
+public class DownstreamResilience {
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+
+    private final BulkheadRegistry bulkheadRegistry;
+
+    private final DownstreamProperties downstreamProperties;
+
+    public DownstreamResilience(CircuitBreakerRegistry circuitBreakerRegistry,
+                                BulkheadRegistry bulkheadRegistry,
+                                DownstreamProperties downstreamProperties) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.downstreamProperties = downstreamProperties;
+    }
+
+    public Guard forClient(String clientName) {
+        DownstreamProperties.Client client = downstreamProperties.client(clientName);
+        Retry retry = Retry.backoff(client.getRetryMaxAttempts(), client.getRetryBackoff())
+                .jitter(client.getRetryJitter())
+                .filter(DownstreamResilience::isTransient)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+        return new Guard(circuitBreakerRegistry.circuitBreaker(clientName), bulkheadRegistry.bulkhead(clientName), retry);
+    }
+
+    private static boolean isTransient(Throwable error) {
+        if (error instanceof WebClientResponseException) {
+            return ((WebClientResponseException) error).getRawStatusCode() >= 500;
+        }
+        return error instanceof WebClientRequestException || error instanceof TimeoutException;
+    }
+
+    /**
+     * Resilience policy of one downstream client.
+     */
+    public static class Guard {
+
+        private final CircuitBreaker circuitBreaker;
+
+        private final Bulkhead bulkhead;
+
+        private final Retry retry;
+
+        Guard(CircuitBreaker circuitBreaker, Bulkhead bulkhead, Retry retry) {
+            this.circuitBreaker = circuitBreaker;
+            this.bulkhead = bulkhead;
+            this.retry = retry;
+        }
+
+        /**
+         * Guards a call with the circuit breaker and the bulkhead.
+         */
+        public <T> Mono<T> guarded(Mono<T> call) {
+            return call
+                    .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                    .transformDeferred(BulkheadOperator.of(bulkhead));
+        }
+
+        /**
+         * Guards an idempotent call and retries it with jittered exponential backoff on transient errors.
+         * Calls rejected by an open circuit or a full bulkhead are not retried.
+         */
+        public <T> Mono<T> idempotent(Mono<T> call) {
+            return guarded(call).retryWhen(retry);
+        }
+    }
+}
@@ -1,13 +1,50 @@
 package com.bootcamp.customerservice;
 
+import com.bootcamp.customerservice.repository.memory.InMemoryPersistence;
+import io.netty.util.concurrent.EventExecutor;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.client.reactive.ReactorResourceFactory;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.blockhound.BlockingOperationError;
+import reactor.netty.resources.LoopResources;
 
-@SpringBootTest
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starts the application on the in-memory store, with blocking calls on non-blocking threads failing.
+ * The context is closed after the class, which turns blocking call detection back off for the
+ * tests that follow: their scheduler threads started before BlockHound was installed.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "customer.diagnostics.blocking-calls=fail")
+@ActiveProfiles(InMemoryPersistence.PROFILE)
+@DirtiesContext
 class CustomerServiceApplicationTests {
 
+    @Autowired
+    private ReactorResourceFactory resourceFactory;
+
     @Test
     void contextLoads() {
     }
 
+    @Test
+    void blockingCallOnAnEventLoopFails() {
+        EventExecutor eventLoop = resourceFactory.getLoopResources().onServer(LoopResources.DEFAULT_NATIVE).next();
+
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> eventLoop.submit(() -> {
+                    Thread.sleep(1);
+                    return null;
+                }).get(5, TimeUnit.SECONDS));
+
+        assertTrue(failure.getCause() instanceof BlockingOperationError, "failed with " + failure.getCause());
+    }
 }
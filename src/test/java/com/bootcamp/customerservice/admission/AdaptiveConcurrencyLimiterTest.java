@@ -0,0 +1,79 @@
+package com.bootcamp.customerservice.admission;
+
+import com.bootcamp.customerservice.config.AdmissionProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Limit adjustments for fixed latency samples, with the limiter kept saturated.
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = Duration.ofMillis(5).toNanos();
+
+    private static final long SLOW = Duration.ofMillis(100).toNanos();
+
+    @Test
+    void shrinksTheLimitWhenLatencyRises() {
+        AdaptiveConcurrencyLimiter limiter = limiter(500);
+
+        complete(limiter, 100, FAST);
+        int limitWhenFast = limiter.getLimit();
+        complete(limiter, 100, SLOW);
+        int limitWhenSlow = limiter.getLimit();
+
+        assertTrue(limitWhenFast > 20, "limit grew to " + limitWhenFast + " while requests were fast");
+        assertTrue(limitWhenSlow < limitWhenFast, "limit went from " + limitWhenFast + " to " + limitWhenSlow);
+    }
+
+    @Test
+    void followsALastingLatencyChangeAfterTheRttWindow() {
+        AdaptiveConcurrencyLimiter limiter = limiter(50);
+
+        complete(limiter, 100, FAST);
+        complete(limiter, 50, SLOW);
+        int limitWhenSlowdownStarted = limiter.getLimit();
+        complete(limiter, 50, SLOW);
+
+        assertTrue(limiter.getLimit() > limitWhenSlowdownStarted,
+                "limit went from " + limitWhenSlowdownStarted + " to " + limiter.getLimit());
+    }
+
+    @Test
+    void backsOffOnDroppedRequestsDownToTheMinimum() {
+        AdaptiveConcurrencyLimiter limiter = limiter(500);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.onDropped();
+        }
+
+        assertEquals(4, limiter.getLimit());
+        assertEquals(0, limiter.getInflight());
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(int rttWindow) {
+        AdmissionProperties.Limit config = new AdmissionProperties.Limit();
+        config.setInitialLimit(20);
+        config.setSmoothing(0.5);
+        config.setRttWindow(rttWindow);
+        return new AdaptiveConcurrencyLimiter(config);
+    }
+
+    /**
+     * Completes requests one at a time with the given latency, taking every free slot
+     * before each completion so that the limit is always the bottleneck.
+     */
+    private static void complete(AdaptiveConcurrencyLimiter limiter, int requests, long rttNanos) {
+        for (int i = 0; i < requests; i++) {
+            while (limiter.tryAcquire()) {
+                // fill the free slots
+            }
+            limiter.onSuccess(rttNanos);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.bootcamp.customerservice.admission;
+
+import com.bootcamp.customerservice.config.AdmissionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Overloads the admission filter with an in-process handler that holds every admitted request
+ * until all requests have been sent, and checks what gets through.
+ */
+class AdmissionControlFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicInteger concurrent = new AtomicInteger();
+
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+    @Test
+    void shedsRequestsOverTheConcurrencyLimit() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.getRead().setInitialLimit(10);
+        properties.getRead().setMaxLimit(10);
+        AdmissionControlFilter filter = new AdmissionControlFilter(properties, meterRegistry);
+
+        List<MockServerWebExchange> exchanges = send(filter, 200, 200, MockServerHttpRequest.get("/customers/1"));
+
+        List<MockServerWebExchange> rejected = withStatus(exchanges, HttpStatus.SERVICE_UNAVAILABLE);
+        assertTrue(maxConcurrent.get() <= 10, "at most 10 requests reached the handler, got " + maxConcurrent.get());
+        assertEquals(190, rejected.size());
+        assertTrue(rejected.stream().allMatch(exchange -> "1".equals(exchange.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER))));
+        assertEquals(rejected.size(), meterRegistry.get("customer.admission.rejected").tags("class", "read", "reason", "concurrency").counter().count());
+    }
+
+    @Test
+    void readsAndWritesHaveSeparateLimits() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.getWrite().setInitialLimit(2);
+        properties.getWrite().setMinLimit(1);
+        properties.getWrite().setMaxLimit(2);
+        AdmissionControlFilter filter = new AdmissionControlFilter(properties, meterRegistry);
+
+        List<MockServerWebExchange> writes = send(filter, 20, 20, MockServerHttpRequest.put("/customers/1"));
+        List<MockServerWebExchange> reads = send(filter, 20, 20, MockServerHttpRequest.get("/customers/1"));
+
+        assertEquals(18, withStatus(writes, HttpStatus.SERVICE_UNAVAILABLE).size());
+        assertEquals(0, withStatus(reads, HttpStatus.SERVICE_UNAVAILABLE).size());
+    }
+
+    @Test
+    void rateLimitsEachClient() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.getRateLimit().setEnabled(true);
+        properties.getRateLimit().setBurst(5);
+        properties.getRateLimit().setPermitsPerSecond(0.1);
+        AdmissionControlFilter filter = new AdmissionControlFilter(properties, meterRegistry);
+
+        List<MockServerWebExchange> first = send(filter, 10, 1,
+                MockServerHttpRequest.get("/customers/1").header("X-Client-Id", "statements"));
+        List<MockServerWebExchange> second = send(filter, 1, 1,
+                MockServerHttpRequest.get("/customers/1").header("X-Client-Id", "gateway"));
+
+        assertEquals(5, withStatus(first, HttpStatus.TOO_MANY_REQUESTS).size());
+        assertEquals(0, withStatus(second, HttpStatus.TOO_MANY_REQUESTS).size());
+    }
+
+    /**
+     * Sends the requests with at most {@code concurrency} in flight. Admitted requests are held
+     * until every request that fits in the concurrency has been sent, so what is admitted does
+     * not depend on timing.
+     */
+    private List<MockServerWebExchange> send(AdmissionControlFilter filter, int requests, int concurrency,
+                                             MockServerHttpRequest.BaseBuilder<?> request) {
+        Sinks.Empty<Void> release = Sinks.empty();
+        WebFilterChain handler = exchange -> Mono.defer(() -> {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            return release.asMono();
+        }).doFinally(signal -> concurrent.decrementAndGet());
+        List<MockServerWebExchange> exchanges = IntStream.range(0, requests)
+                .mapToObj(i -> MockServerWebExchange.from(request.build()))
+                .collect(Collectors.toList());
+        Mono<Void> sent = Flux.fromIterable(exchanges)
+                .flatMap(exchange -> filter.filter(exchange, handler), concurrency)
+                .then()
+                .cache();
+        sent.subscribe();
+        release.tryEmitEmpty();
+        sent.block();
+        return exchanges;
+    }
+
+    private static List<MockServerWebExchange> withStatus(List<MockServerWebExchange> exchanges, HttpStatus status) {
+        return exchanges.stream()
+                .filter(exchange -> exchange.getResponse().getStatusCode() == status)
+                .collect(Collectors.toList());
+    }
+}
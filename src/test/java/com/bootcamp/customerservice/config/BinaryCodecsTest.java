@@ -0,0 +1,89 @@
+package com.bootcamp.customerservice.config;
+
+import com.bootcamp.customerservice.model.CustomerDTO;
+import com.bootcamp.customerservice.model.CustomerType;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.EncoderHttpMessageWriter;
+import org.springframework.http.codec.HttpMessageReader;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.client.reactive.MockClientHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import reactor.core.publisher.Flux;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round trips of customer lists through the CBOR and Smile codecs registered on the server.
+ */
+class BinaryCodecsTest {
+
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    private final ServerCodecConfigurer configurer = ServerCodecConfigurer.create();
+
+    BinaryCodecsTest() {
+        new BinaryCodecs(Jackson2ObjectMapperBuilder.json()).customize(configurer);
+    }
+
+    @Test
+    void writesCustomerStreamsAsOneCborArray() {
+        assertEquals(customers(), roundTrip(MediaType.APPLICATION_CBOR));
+    }
+
+    @Test
+    void writesCustomerStreamsAsOneSmileArray() {
+        assertEquals(customers(), roundTrip(SMILE));
+    }
+
+    @Test
+    void leavesJsonToTheJsonCodecs() {
+        ResolvableType elementType = ResolvableType.forClass(CustomerDTO.class);
+        HttpMessageWriter<?> writer = configurer.getWriters().stream()
+                .filter(candidate -> candidate.canWrite(elementType, MediaType.APPLICATION_JSON))
+                .findFirst()
+                .orElseThrow();
+
+        assertTrue(writer instanceof EncoderHttpMessageWriter);
+        assertEquals(Jackson2JsonEncoder.class, ((EncoderHttpMessageWriter<?>) writer).getEncoder().getClass());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<CustomerDTO> roundTrip(MediaType mediaType) {
+        ResolvableType elementType = ResolvableType.forClass(CustomerDTO.class);
+        HttpMessageWriter<CustomerDTO> writer = (HttpMessageWriter<CustomerDTO>) configurer.getWriters().stream()
+                .filter(candidate -> candidate.canWrite(elementType, mediaType))
+                .findFirst()
+                .orElseThrow();
+        MockServerHttpResponse response = new MockServerHttpResponse();
+        writer.write(Flux.fromIterable(customers()), elementType, mediaType, response, Collections.emptyMap()).block();
+
+        ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, CustomerDTO.class);
+        HttpMessageReader<List<CustomerDTO>> reader = (HttpMessageReader<List<CustomerDTO>>) configurer.getReaders().stream()
+                .filter(candidate -> candidate.canRead(listType, mediaType))
+                .findFirst()
+                .orElseThrow();
+        DataBuffer body = DataBufferUtils.join(response.getBody()).block();
+        MockClientHttpResponse message = new MockClientHttpResponse(HttpStatus.OK);
+        message.getHeaders().setContentType(mediaType);
+        message.setBody(Flux.just(body));
+        return reader.readMono(listType, message, Collections.emptyMap()).block();
+    }
+
+    private static List<CustomerDTO> customers() {
+        return List.of(
+                new CustomerDTO().id("1").name("Ana Lopez").email("alopez@bootcamp.com").type(CustomerType.PERSONAL).version(0L),
+                new CustomerDTO().id("2").name("Acme SAC").email("acme@bootcamp.com").type(CustomerType.BUSINESS).version(3L));
+    }
+}
@@ -0,0 +1,65 @@
+package com.bootcamp.customerservice.diagnostics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.blockhound.BlockingOperationError;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Blocking calls on Reactor's non-blocking threads, in each mode of the reporter.
+ */
+class BlockingCallReporterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        BlockingCallReporter.setMode(BlockingCallReporter.Mode.OFF);
+        BlockingCallReporter.bindTo(null);
+    }
+
+    @Test
+    void failsTheBlockingCallInFailMode() {
+        BlockingCallReporter.install(BlockingCallReporter.Mode.FAIL);
+
+        StepVerifier.create(sleepOn())
+                .verifyErrorMatches(e -> e instanceof BlockingOperationError
+                        && e.getMessage().contains("java.lang.Thread.sleep"));
+    }
+
+    @Test
+    void countsTheBlockingCallAndLetsItThroughInReportMode() {
+        BlockingCallReporter.bindTo(meterRegistry);
+        BlockingCallReporter.install(BlockingCallReporter.Mode.REPORT);
+
+        StepVerifier.create(sleepOn()).expectNext("slept").verifyComplete();
+        StepVerifier.create(sleepOn()).expectNext("slept").verifyComplete();
+
+        assertEquals(2.0, meterRegistry.get(BlockingCallReporter.BLOCKING_CALLS_METRIC)
+                .tag("method", "java.lang.Thread.sleep")
+                .counter()
+                .count());
+    }
+
+    @Test
+    void ignoresBlockingCallsWhenOff() {
+        BlockingCallReporter.bindTo(meterRegistry);
+        BlockingCallReporter.install(BlockingCallReporter.Mode.OFF);
+
+        StepVerifier.create(sleepOn()).expectNext("slept").verifyComplete();
+
+        assertEquals(0, meterRegistry.find(BlockingCallReporter.BLOCKING_CALLS_METRIC).counters().size());
+    }
+
+    private static Mono<String> sleepOn() {
+        return Mono.fromCallable(() -> {
+            Thread.sleep(1);
+            return "slept";
+        }).subscribeOn(Schedulers.parallel());
+    }
+}
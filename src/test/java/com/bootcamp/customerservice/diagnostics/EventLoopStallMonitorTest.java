@@ -0,0 +1,56 @@
+package com.bootcamp.customerservice.diagnostics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.reactive.ReactorResourceFactory;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lag of the event loops as measured by the probes, and the stall time above the threshold.
+ */
+class EventLoopStallMonitorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ReactorResourceFactory resourceFactory = new ReactorResourceFactory();
+
+    @AfterEach
+    void tearDown() {
+        resourceFactory.destroy();
+    }
+
+    @Test
+    void addsUpTheLagAboveTheThreshold() {
+        EventLoopStallMonitor monitor = new EventLoopStallMonitor(resourceFactory, meterRegistry, true, 20);
+
+        monitor.record(Duration.ofMillis(5).toNanos());
+        monitor.record(Duration.ofMillis(50).toNanos());
+        monitor.record(Duration.ofMillis(120).toNanos());
+
+        assertEquals(3, meterRegistry.get("customer.eventloop.lag").timer().count());
+        assertEquals(0.13, meterRegistry.get("customer.eventloop.stall").counter().count(), 1e-9);
+    }
+
+    @Test
+    void probesEveryEventLoop() throws InterruptedException {
+        resourceFactory.setUseGlobalResources(false);
+        resourceFactory.afterPropertiesSet();
+        EventLoopStallMonitor monitor = new EventLoopStallMonitor(resourceFactory, meterRegistry, true, 20);
+
+        monitor.probe();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        long loops = meterRegistry.get("customer.eventloop.lag").timer().count();
+        while (loops == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            loops = meterRegistry.get("customer.eventloop.lag").timer().count();
+        }
+        assertTrue(loops > 0);
+    }
+}
@@ -0,0 +1,105 @@
+package com.bootcamp.customerservice.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Timing of API operations whose response body is streamed.
+ */
+class HotPathMetricsTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final HotPathMetrics hotPathMetrics = new HotPathMetrics(meterRegistry);
+
+    @Test
+    void timesAStreamedBodyUntilItCompletes() {
+        Sinks.Many<String> items = Sinks.many().unicast().onBackpressureBuffer();
+
+        ResponseEntity<Flux<String>> response = hotPathMetrics.timeStreamedOperation("listCustomers",
+                Mono.just(ResponseEntity.ok(items.asFlux()))).block(TIMEOUT);
+        assertNotNull(response);
+        assertNull(timer("listCustomers", "SUCCESSFUL"));
+        assertEquals(1, inFlight("listCustomers"));
+
+        Disposable body = response.getBody().subscribe();
+        items.tryEmitNext("first");
+        assertNull(timer("listCustomers", "SUCCESSFUL"));
+        items.tryEmitComplete();
+
+        assertEquals(1, timer("listCustomers", "SUCCESSFUL").count());
+        assertEquals(0, inFlight("listCustomers"));
+        body.dispose();
+    }
+
+    @Test
+    void recordsAStreamCancelledByTheClient() {
+        Sinks.Many<String> events = Sinks.many().multicast().directBestEffort();
+
+        ResponseEntity<Flux<String>> response = hotPathMetrics.timeStreamedOperation("streamCustomerEvents",
+                Mono.just(ResponseEntity.ok(events.asFlux()))).block(TIMEOUT);
+        assertNotNull(response);
+        Disposable body = response.getBody().subscribe();
+        body.dispose();
+
+        assertEquals(1, timer("streamCustomerEvents", "CANCELLED").count());
+        assertEquals(0, inFlight("streamCustomerEvents"));
+    }
+
+    @Test
+    void recordsABodyThatIsNeverSubscribedWhenTheExchangeEnds() {
+        ExchangeCompletion completion = new ExchangeCompletion();
+
+        ResponseEntity<Flux<String>> response = hotPathMetrics.timeStreamedOperation("batchGetCustomers",
+                        Mono.just(ResponseEntity.ok(Flux.just("first"))))
+                .contextWrite(context -> context.put(ExchangeCompletion.class, completion))
+                .block(TIMEOUT);
+        assertNotNull(response);
+        assertEquals(1, inFlight("batchGetCustomers"));
+
+        completion.end(SignalType.CANCEL);
+
+        assertEquals(1, timer("batchGetCustomers", "CANCELLED").count());
+        assertEquals(0, inFlight("batchGetCustomers"));
+    }
+
+    @Test
+    void recordsAStreamOnceWhenTheExchangeEndsAfterIt() {
+        ExchangeCompletion completion = new ExchangeCompletion();
+
+        ResponseEntity<Flux<String>> response = hotPathMetrics.timeStreamedOperation("listCustomers",
+                        Mono.just(ResponseEntity.ok(Flux.just("first", "second"))))
+                .contextWrite(context -> context.put(ExchangeCompletion.class, completion))
+                .block(TIMEOUT);
+        assertNotNull(response);
+        response.getBody().blockLast(TIMEOUT);
+        completion.end(SignalType.ON_COMPLETE);
+
+        assertEquals(1, meterRegistry.find("customer.api").tags("operation", "listCustomers").timers().size());
+        assertEquals(1, timer("listCustomers", "SUCCESSFUL").count());
+        assertEquals(0, inFlight("listCustomers"));
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return meterRegistry.find("customer.api").tags("operation", operation, "outcome", outcome).timer();
+    }
+
+    private double inFlight(String operation) {
+        return meterRegistry.get("customer.api.inflight").tags("operation", operation).gauge().value();
+    }
+}
@@ -0,0 +1,77 @@
+package com.bootcamp.customerservice.perf;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * End-to-end load test of the customer API against an embedded Mongo and local
+ * stubs of the account and credit services. Only runs with {@code -Dperf=true}
+ * (the {@code perf} Maven profile sets it and adds the embedded Mongo).
+ * The report is logged and written to {@code perf.report-file}. A blocking call on an
+ * event loop fails the request that makes it.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "perf", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.mongodb.embedded.version=4.4.9",
+        "spring.data.mongodb.uri=mongodb://localhost/bank_db",
+        "logging.level.com.bootcamp.customerservice=WARN",
+        "customer.diagnostics.blocking-calls=fail",
+        "customer.diagnostics.stall-monitor.enabled=true"
+})
+class CustomerServiceLoadTest {
+
+    private static final LoadSettings SETTINGS = new LoadSettings();
+
+    private static DownstreamStubServer accountService;
+
+    private static DownstreamStubServer creditService;
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void downstreamProperties(DynamicPropertyRegistry registry) {
+        accountService = new DownstreamStubServer(SETTINGS.getDownstreamLatency(), SETTINGS.getDownstreamJitter(),
+                SETTINGS.getDownstreamErrorRate(), SETTINGS.getSeed()).start();
+        creditService = new DownstreamStubServer(SETTINGS.getDownstreamLatency(), SETTINGS.getDownstreamJitter(),
+                SETTINGS.getDownstreamErrorRate(), SETTINGS.getSeed() + 1).start();
+        registry.add("account.service.url", accountService::baseUrl);
+        registry.add("creditproduct.service.url", creditService::baseUrl);
+    }
+
+    @AfterAll
+    static void stopDownstreams() {
+        if (accountService != null) {
+            accountService.stop();
+        }
+        if (creditService != null) {
+            creditService.stop();
+        }
+    }
+
+    @Test
+    void replayCustomerMix() throws Exception {
+        WebClient webClient = WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(16 * 1024 * 1024))
+                .build();
+        LoadDriver driver = new LoadDriver(webClient, SETTINGS);
+        driver.loadDataset();
+
+        LoadReport report = driver.run(accountService, creditService);
+        report.writeTo(SETTINGS.getReportFile());
+        log.info("Load test report ({}):{}", SETTINGS.getReportFile(), report);
+
+        assertEquals(SETTINGS.getRequests(), report.totalRequests());
+    }
+}
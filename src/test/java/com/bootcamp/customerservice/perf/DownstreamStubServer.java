@@ -0,0 +1,125 @@
+package com.bootcamp.customerservice.perf;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Local stand-in for the account service and the credit service.
+ * Every response is delayed by a fixed latency plus a random jitter, and a share
+ * of the requests fails with 503 Service Unavailable.
+ * Every customer has a credit card, a current account and a savings balance above the VIP minimum.
+ */
+class DownstreamStubServer {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final double SAVINGS_BALANCE = 10_000.0;
+
+    private final Duration latency;
+
+    private final Duration jitter;
+
+    private final double errorRate;
+
+    private final Random random;
+
+    private final AtomicLong requests = new AtomicLong();
+
+    private final AtomicLong injectedErrors = new AtomicLong();
+
+    private DisposableServer server;
+
+    DownstreamStubServer(Duration latency, Duration jitter, double errorRate, long seed) {
+        this.latency = latency;
+        this.jitter = jitter;
+        this.errorRate = errorRate;
+        this.random = new Random(seed);
+    }
+
+    DownstreamStubServer start() {
+        server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes
+                        .post("/accounts/first-account/customer/balances/type/SAVINGS",
+                                (request, response) -> bulk(request, response, id -> SAVINGS_BALANCE))
+                        .post("/accounts/customer/exists/type/CURRENT",
+                                (request, response) -> bulk(request, response, id -> true))
+                        .get("/accounts/first-account/customer/{customerId}/type/SAVINGS",
+                                (request, response) -> single(response,
+                                        "{\"customerId\":\"" + request.param("customerId") + "\",\"type\":\"SAVINGS\",\"balance\":" + SAVINGS_BALANCE + "}"))
+                        .get("/accounts/customer/{customerId}/type/CURRENT",
+                                (request, response) -> single(response,
+                                        "[{\"customerId\":\"" + request.param("customerId") + "\",\"type\":\"CURRENT\",\"balance\":0.0}]"))
+                        .post("/exists-creditcard/bulk",
+                                (request, response) -> bulk(request, response, id -> true))
+                        .get("/exists-creditcard/{customerId}",
+                                (request, response) -> single(response, "true")))
+                .bindNow();
+        return this;
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.port();
+    }
+
+    long requests() {
+        return requests.get();
+    }
+
+    long injectedErrors() {
+        return injectedErrors.get();
+    }
+
+    void stop() {
+        if (server != null) {
+            server.disposeNow();
+        }
+    }
+
+    private Publisher<Void> single(HttpServerResponse response, String body) {
+        return respond(response, Mono.just(body));
+    }
+
+    private Publisher<Void> bulk(HttpServerRequest request, HttpServerResponse response, Function<String, Object> valueFor) {
+        return respond(response, request.receive().aggregate().asString().map(body -> bulkResponse(body, valueFor)));
+    }
+
+    private Publisher<Void> respond(HttpServerResponse response, Mono<String> body) {
+        requests.incrementAndGet();
+        if (random.nextDouble() < errorRate) {
+            injectedErrors.incrementAndGet();
+            return Mono.delay(delay()).then(response.status(503).send());
+        }
+        return Mono.delay(delay()).then(response.header("Content-Type", "application/json").sendString(body).then());
+    }
+
+    private Duration delay() {
+        long jitterNanos = jitter.isZero() ? 0 : (long) (random.nextDouble() * jitter.toNanos());
+        return latency.plusNanos(jitterNanos);
+    }
+
+    private static String bulkResponse(String body, Function<String, Object> valueFor) {
+        try {
+            List<String> customerIds = MAPPER.readValue(body, new TypeReference<List<String>>() {
+            });
+            Map<String, Object> results = customerIds.stream().distinct().collect(Collectors.toMap(id -> id, valueFor));
+            return MAPPER.writeValueAsString(results);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
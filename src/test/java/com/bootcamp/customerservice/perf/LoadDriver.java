@@ -0,0 +1,197 @@
+package com.bootcamp.customerservice.perf;
+
+import com.bootcamp.customerservice.model.CustomerDTO;
+import com.bootcamp.customerservice.model.CustomerType;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replays a seeded mix of create/get/update/list requests against the customer API.
+ * The request plan is derived from the seed alone, so runs with the same settings
+ * send the same requests in the same order.
+ */
+class LoadDriver {
+
+    private static final CustomerType[] CREATE_TYPES = {CustomerType.PERSONAL, CustomerType.BUSINESS};
+
+    private static final int LIST_PAGE_SIZE = 50;
+
+    private final WebClient webClient;
+
+    private final LoadSettings settings;
+
+    private final List<CustomerDTO> dataset = new ArrayList<>();
+
+    private final AtomicLong createdCustomers = new AtomicLong();
+
+    LoadDriver(WebClient webClient, LoadSettings settings) {
+        this.webClient = webClient;
+        this.settings = settings;
+    }
+
+    /**
+     * Creates the customers that get, update and list requests are sent for.
+     */
+    void loadDataset() {
+        List<CustomerDTO> created = Flux.range(0, settings.getDatasetSize())
+                .map(i -> new CustomerDTO()
+                        .name("Dataset Customer " + i)
+                        .email("dataset-" + settings.getSeed() + "-" + i + "@perf.local")
+                        .type(CREATE_TYPES[i % CREATE_TYPES.length]))
+                .flatMapSequential(customer -> webClient.post()
+                        .uri("/customers")
+                        .bodyValue(customer)
+                        .retrieve()
+                        .bodyToMono(CustomerDTO.class), settings.getConcurrency())
+                .collectList()
+                .block();
+        dataset.addAll(created);
+    }
+
+    /**
+     * Sends the warm-up requests, then the measured ones.
+     */
+    LoadReport run(DownstreamStubServer... downstreams) {
+        Random random = new Random(settings.getSeed());
+        execute(plan(random, settings.getWarmupRequests()), null, null);
+
+        long downstreamRequestsBefore = downstreamRequests(downstreams);
+        long downstreamErrorsBefore = injectedErrors(downstreams);
+        Map<LoadOperation, Histogram> latencies = new EnumMap<>(LoadOperation.class);
+        Map<LoadOperation, AtomicLong> errors = new EnumMap<>(LoadOperation.class);
+        for (LoadOperation operation : LoadOperation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(3));
+            errors.put(operation, new AtomicLong());
+        }
+        long start = System.nanoTime();
+        execute(plan(random, settings.getRequests()), latencies, errors);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        Map<LoadOperation, Long> errorCounts = new EnumMap<>(LoadOperation.class);
+        errors.forEach((operation, count) -> errorCounts.put(operation, count.get()));
+        return new LoadReport(settings, latencies, errorCounts, elapsed,
+                downstreamRequests(downstreams) - downstreamRequestsBefore,
+                injectedErrors(downstreams) - downstreamErrorsBefore);
+    }
+
+    private List<PlannedRequest> plan(Random random, int size) {
+        int totalWeight = settings.getMix().values().stream().mapToInt(Integer::intValue).sum();
+        List<PlannedRequest> plan = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int pick = random.nextInt(totalWeight);
+            LoadOperation operation = null;
+            for (Map.Entry<LoadOperation, Integer> entry : settings.getMix().entrySet()) {
+                pick -= entry.getValue();
+                if (pick < 0) {
+                    operation = entry.getKey();
+                    break;
+                }
+            }
+            plan.add(new PlannedRequest(operation, random.nextInt(dataset.size()), random.nextInt(CustomerType.values().length)));
+        }
+        return plan;
+    }
+
+    private void execute(List<PlannedRequest> plan, Map<LoadOperation, Histogram> latencies, Map<LoadOperation, AtomicLong> errors) {
+        Flux.fromIterable(plan)
+                .flatMap(request -> Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    return send(request)
+                            .onErrorReturn(false)
+                            .doOnNext(success -> {
+                                if (latencies != null) {
+                                    latencies.get(request.operation)
+                                            .recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                                    if (!success) {
+                                        errors.get(request.operation).incrementAndGet();
+                                    }
+                                }
+                            });
+                }), settings.getConcurrency())
+                .blockLast();
+    }
+
+    private Mono<Boolean> send(PlannedRequest request) {
+        CustomerDTO target = dataset.get(request.customerIndex);
+        switch (request.operation) {
+            case CREATE:
+                long n = createdCustomers.incrementAndGet();
+                return exchange(webClient.post()
+                        .uri("/customers")
+                        .bodyValue(new CustomerDTO()
+                                .name("Load Customer " + n)
+                                .email("load-" + settings.getSeed() + "-" + n + "@perf.local")
+                                .type(CREATE_TYPES[(int) (n % CREATE_TYPES.length)])));
+            case GET:
+                return exchange(webClient.get().uri("/customers/{customerId}", target.getId()));
+            case UPDATE:
+                return exchange(webClient.put()
+                        .uri("/customers/{customerId}", target.getId())
+                        .bodyValue(new CustomerDTO()
+                                .name(target.getName())
+                                .email(target.getEmail())
+                                .type(CustomerType.values()[request.typeIndex])));
+            case LIST:
+                return exchange(webClient.get()
+                        .uri(uri -> uri.path("/customers")
+                                .queryParam("limit", LIST_PAGE_SIZE)
+                                .queryParam("after", target.getId())
+                                .build()));
+            default:
+                throw new IllegalArgumentException("Unknown operation " + request.operation);
+        }
+    }
+
+    private static Mono<Boolean> exchange(WebClient.RequestHeadersSpec<?> request) {
+        return request.exchangeToMono(response -> response.bodyToMono(Void.class)
+                .then(Mono.just(isSuccess(response))));
+    }
+
+    private static boolean isSuccess(ClientResponse response) {
+        HttpStatus status = HttpStatus.resolve(response.rawStatusCode());
+        return status != null && status.is2xxSuccessful();
+    }
+
+    private static long downstreamRequests(DownstreamStubServer... downstreams) {
+        long requests = 0;
+        for (DownstreamStubServer downstream : downstreams) {
+            requests += downstream.requests();
+        }
+        return requests;
+    }
+
+    private static long injectedErrors(DownstreamStubServer... downstreams) {
+        long errors = 0;
+        for (DownstreamStubServer downstream : downstreams) {
+            errors += downstream.injectedErrors();
+        }
+        return errors;
+    }
+
+    private static class PlannedRequest {
+
+        private final LoadOperation operation;
+        private final int customerIndex;
+        private final int typeIndex;
+
+        PlannedRequest(LoadOperation operation, int customerIndex, int typeIndex) {
+            this.operation = operation;
+            this.customerIndex = customerIndex;
+            this.typeIndex = typeIndex;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.bootcamp.customerservice.perf;
+
+/**
+ * Customer API operations replayed by the load driver.
+ */
+enum LoadOperation {
+    CREATE,
+    GET,
+    UPDATE,
+    LIST
+}
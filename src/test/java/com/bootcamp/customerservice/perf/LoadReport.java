@@ -0,0 +1,124 @@
+package com.bootcamp.customerservice.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Throughput and latency percentiles of a load test run, per operation and overall.
+ * Latencies are recorded in microseconds and reported in milliseconds.
+ */
+class LoadReport {
+
+    private final LoadSettings settings;
+
+    private final Map<LoadOperation, Histogram> latencies;
+
+    private final Map<LoadOperation, Long> errors;
+
+    private final Duration elapsed;
+
+    private final long downstreamRequests;
+
+    private final long downstreamErrors;
+
+    LoadReport(LoadSettings settings, Map<LoadOperation, Histogram> latencies, Map<LoadOperation, Long> errors,
+               Duration elapsed, long downstreamRequests, long downstreamErrors) {
+        this.settings = settings;
+        this.latencies = new EnumMap<>(latencies);
+        this.errors = new EnumMap<>(errors);
+        this.elapsed = elapsed;
+        this.downstreamRequests = downstreamRequests;
+        this.downstreamErrors = downstreamErrors;
+    }
+
+    long totalRequests() {
+        return latencies.values().stream().mapToLong(Histogram::getTotalCount).sum();
+    }
+
+    long totalErrors() {
+        return errors.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    double throughput() {
+        return totalRequests() / (elapsed.toNanos() / 1e9);
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> settingsMap = new LinkedHashMap<>();
+        settingsMap.put("seed", settings.getSeed());
+        settingsMap.put("datasetSize", settings.getDatasetSize());
+        settingsMap.put("warmupRequests", settings.getWarmupRequests());
+        settingsMap.put("requests", settings.getRequests());
+        settingsMap.put("concurrency", settings.getConcurrency());
+        settingsMap.put("mix", settings.getMix());
+        settingsMap.put("downstreamLatencyMs", settings.getDownstreamLatency().toMillis());
+        settingsMap.put("downstreamJitterMs", settings.getDownstreamJitter().toMillis());
+        settingsMap.put("downstreamErrorRate", settings.getDownstreamErrorRate());
+
+        Histogram all = new Histogram(3);
+        Map<String, Object> operations = new LinkedHashMap<>();
+        latencies.forEach((operation, histogram) -> {
+            all.add(histogram);
+            operations.put(operation.name(), summary(histogram, errors.getOrDefault(operation, 0L)));
+        });
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("settings", settingsMap);
+        report.put("elapsedMs", elapsed.toMillis());
+        report.put("throughputPerSecond", round(throughput()));
+        report.put("total", summary(all, totalErrors()));
+        report.put("operations", operations);
+        report.put("downstreamRequests", downstreamRequests);
+        report.put("downstreamInjectedErrors", downstreamErrors);
+        return report;
+    }
+
+    void writeTo(String file) throws IOException {
+        Path path = Paths.get(file);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), toMap());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder table = new StringBuilder(String.format("%n%-8s %10s %8s %10s %10s %10s %10s%n",
+                "op", "requests", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        latencies.forEach((operation, histogram) -> table.append(String.format("%-8s %10d %8d %10.2f %10.2f %10.2f %10.2f%n",
+                operation, histogram.getTotalCount(), errors.getOrDefault(operation, 0L),
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()))));
+        table.append(String.format("throughput: %.1f req/s over %d ms%n", throughput(), elapsed.toMillis()));
+        return table.toString();
+    }
+
+    private static Map<String, Object> summary(Histogram histogram, long errors) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", histogram.getTotalCount());
+        summary.put("errors", errors);
+        summary.put("p50Ms", round(millis(histogram.getValueAtPercentile(50))));
+        summary.put("p99Ms", round(millis(histogram.getValueAtPercentile(99))));
+        summary.put("p999Ms", round(millis(histogram.getValueAtPercentile(99.9))));
+        summary.put("maxMs", round(millis(histogram.getMaxValue())));
+        return summary;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,44 @@
+package com.bootcamp.customerservice.perf;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings of a load test run, read from {@code perf.*} system properties.
+ * Two runs with the same settings replay the same sequence of operations.
+ */
+@Getter
+class LoadSettings {
+
+    private final long seed = Long.getLong("perf.seed", 48L);
+
+    private final int datasetSize = Integer.getInteger("perf.dataset-size", 1_000);
+
+    private final int warmupRequests = Integer.getInteger("perf.warmup-requests", 2_000);
+
+    private final int requests = Integer.getInteger("perf.requests", 20_000);
+
+    private final int concurrency = Integer.getInteger("perf.concurrency", 64);
+
+    private final Map<LoadOperation, Integer> mix = parseMix(System.getProperty("perf.mix", "create=10,get=60,update=20,list=10"));
+
+    private final Duration downstreamLatency = Duration.ofMillis(Long.getLong("perf.downstream.latency-ms", 5L));
+
+    private final Duration downstreamJitter = Duration.ofMillis(Long.getLong("perf.downstream.jitter-ms", 5L));
+
+    private final double downstreamErrorRate = Double.parseDouble(System.getProperty("perf.downstream.error-rate", "0.0"));
+
+    private final String reportFile = System.getProperty("perf.report-file", "target/perf/load-report.json");
+
+    private static Map<LoadOperation, Integer> parseMix(String mix) {
+        Map<LoadOperation, Integer> weights = new EnumMap<>(LoadOperation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            weights.put(LoadOperation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+}
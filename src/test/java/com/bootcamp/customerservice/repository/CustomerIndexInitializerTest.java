@@ -0,0 +1,44 @@
+package com.bootcamp.customerservice.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Startup outcome of the customer index creation.
+ */
+class CustomerIndexInitializerTest {
+
+    private final CustomerRepository customerRepository = mock(CustomerRepository.class);
+
+    private final CustomerIndexInitializer initializer = new CustomerIndexInitializer(customerRepository, Duration.ofSeconds(1));
+
+    @Test
+    void startsOnceTheIndexesAreInPlace() {
+        when(customerRepository.ensureIndexes()).thenReturn(Mono.empty());
+
+        assertDoesNotThrow(initializer::createIndexes);
+    }
+
+    @Test
+    void failsStartupWhenAnIndexCanNotBeBuilt() {
+        when(customerRepository.ensureIndexes()).thenReturn(Mono.error(
+                new DataIntegrityViolationException("E11000 duplicate key error index: email_ci_unique")));
+
+        assertThrows(IllegalStateException.class, initializer::createIndexes);
+    }
+
+    @Test
+    void failsStartupWhenIndexCreationHangs() {
+        when(customerRepository.ensureIndexes()).thenReturn(Mono.never());
+
+        assertThrows(IllegalStateException.class, initializer::createIndexes);
+    }
+}
@@ -0,0 +1,160 @@
+package com.bootcamp.customerservice.repository.memory;
+
+import com.bootcamp.customerservice.entity.Customer;
+import com.bootcamp.customerservice.entity.EligibilitySnapshot;
+import com.bootcamp.customerservice.model.CustomerType;
+import com.bootcamp.customerservice.repository.CustomerBulkWriteResult;
+import com.bootcamp.customerservice.repository.CustomerUpdate;
+import com.bootcamp.customerservice.repository.VersionedFieldsWrite;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.WriteConcern;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Mongo semantics of the in-memory customer store, and its recovery from the snapshot and change log.
+ */
+class InMemoryCustomerRepositoryTest {
+
+    private final InMemoryCustomerRepository repository = new InMemoryCustomerRepository(InMemoryPersistence.none());
+
+    @Test
+    void assignsIdAndVersionOnInsertAndRejectsStaleSaves() {
+        Customer customer = repository.save(customer(null, "Ana Lopez", CustomerType.PERSONAL)).block();
+
+        assertNotNull(customer);
+        assertEquals(24, customer.getId().length());
+        assertEquals(0L, customer.getVersion());
+
+        customer.setName("Ana Maria Lopez");
+        StepVerifier.create(repository.save(customer).map(Customer::getVersion)).expectNext(1L).verifyComplete();
+        customer.setVersion(0L);
+        StepVerifier.create(repository.save(customer)).verifyError(OptimisticLockingFailureException.class);
+        StepVerifier.create(repository.findById(customer.getId()).map(Customer::getName))
+                .expectNext("Ana Maria Lopez")
+                .verifyComplete();
+    }
+
+    @Test
+    void keepsEmailsUniqueIgnoringCase() {
+        repository.save(customer(null, "Ana Lopez", CustomerType.PERSONAL)).block();
+
+        StepVerifier.create(repository.save(customer(null, "ANA Lopez", CustomerType.VIP)))
+                .verifyError(DuplicateKeyException.class);
+        StepVerifier.create(repository.findByEmail("ANA.LOPEZ@bootcamp.com").map(Customer::getName))
+                .expectNext("Ana Lopez")
+                .verifyComplete();
+        StepVerifier.create(repository.count()).expectNext(1L).verifyComplete();
+    }
+
+    @Test
+    void pagesThroughATypeInIdOrder() {
+        for (int i = 0; i < 6; i++) {
+            repository.save(customer("c" + i, "Customer " + i, i % 2 == 0 ? CustomerType.VIP : CustomerType.PYME)).block();
+        }
+
+        StepVerifier.create(repository.findPage(CustomerType.VIP, "c0", 2).map(Customer::getId))
+                .expectNext("c2", "c4")
+                .verifyComplete();
+        StepVerifier.create(repository.findPage(null, "c3", 0).map(Customer::getId))
+                .expectNext("c4", "c5")
+                .verifyComplete();
+    }
+
+    @Test
+    void updatesFieldsOnlyAtTheExpectedVersion() {
+        Customer stored = repository.save(customer(null, "Ana Lopez", CustomerType.PERSONAL)).block();
+        assertNotNull(stored);
+        Customer changes = Customer.builder().type(CustomerType.VIP).build();
+
+        StepVerifier.create(repository.updateFields(stored.getId(), 7L, changes, true)).verifyComplete();
+        CustomerUpdate update = repository.updateFields(stored.getId(), 0L, changes, true).block();
+
+        assertNotNull(update);
+        assertEquals(CustomerType.PERSONAL, update.getPreviousType());
+        assertEquals("Ana Lopez", update.getCustomer().getName());
+        assertEquals(1L, update.getCustomer().getVersion());
+        StepVerifier.create(repository.findPage(CustomerType.VIP, null, 0).map(Customer::getId))
+                .expectNext(stored.getId())
+                .verifyComplete();
+    }
+
+    @Test
+    void reportsTheOutcomeOfEveryBulkWrite() {
+        repository.save(customer("c1", "Ana Lopez", CustomerType.PERSONAL)).block();
+        Customer renamed = customer("c1", "Ana Maria Lopez", CustomerType.PERSONAL);
+        renamed.setVersion(1L);
+        Customer stale = customer("c1", "Ana M. Lopez", CustomerType.PERSONAL);
+        stale.setVersion(1L);
+
+        CustomerBulkWriteResult result = repository.bulkWrite(
+                List.of(inserted("c2", "Luis Vega"), inserted("c3", "Luis Vega")),
+                List.of(new VersionedFieldsWrite(renamed, 0L, false), new VersionedFieldsWrite(stale, 0L, false)),
+                WriteConcern.ACKNOWLEDGED).block();
+
+        assertNotNull(result);
+        assertEquals(Set.of(1), result.getFailedInserts().keySet());
+        assertTrue(result.getFailedInserts().get(1) instanceof DuplicateKeyException);
+        assertEquals(Set.of("c1"), result.getUnappliedUpdates());
+        StepVerifier.create(repository.findById("c1").map(Customer::getName))
+                .expectNext("Ana Maria Lopez")
+                .verifyComplete();
+    }
+
+    @Test
+    void reloadsFromTheSnapshotAndTheChangeLog(@TempDir Path directory) {
+        InMemoryPersistence persistence = new InMemoryPersistence(new ObjectMapper().findAndRegisterModules(),
+                directory.toString(), false);
+        InMemoryCustomerRepository first = new InMemoryCustomerRepository(persistence);
+        first.load();
+        first.save(customer("c1", "Ana Lopez", CustomerType.VIP)).block();
+        first.save(customer("c2", "Luis Vega", CustomerType.PYME)).block();
+        first.compact();
+        first.updateEligibility("c1", EligibilitySnapshot.builder()
+                .eligible(true)
+                .validatedAt(Instant.parse("2024-01-01T00:00:00Z"))
+                .build()).block();
+        first.deleteById("c2").block();
+        first.save(customer("c3", "Eva Ruiz", CustomerType.PERSONAL)).block();
+        // the first store is not destroyed, as after a crash, so the last writes are only in the log
+        InMemoryCustomerRepository second = new InMemoryCustomerRepository(persistence);
+        second.load();
+
+        List<Customer> customers = second.findAll().collectList().block();
+        assertNotNull(customers);
+        assertEquals(List.of("c1", "c3"), customers.stream().map(Customer::getId).collect(Collectors.toList()));
+        assertTrue(customers.get(0).getEligibility().getEligible());
+        StepVerifier.create(second.findByEmail("eva.ruiz@bootcamp.com").map(Customer::getId))
+                .expectNext("c3")
+                .verifyComplete();
+        second.destroy();
+    }
+
+    private static Customer inserted(String id, String name) {
+        Customer customer = customer(id, name, CustomerType.BUSINESS);
+        customer.setVersion(0L);
+        return customer;
+    }
+
+    private static Customer customer(String id, String name, CustomerType type) {
+        return Customer.builder()
+                .id(id)
+                .name(name)
+                .email(name.toLowerCase().replace(' ', '.') + "@bootcamp.com")
+                .type(type)
+                .build();
+    }
+}
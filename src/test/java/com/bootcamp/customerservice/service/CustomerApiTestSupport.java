@@ -0,0 +1,71 @@
+package com.bootcamp.customerservice.service;
+
+import com.bootcamp.customerservice.model.CustomerDTO;
+import com.bootcamp.customerservice.model.CustomerType;
+import com.bootcamp.customerservice.repository.memory.InMemoryPersistence;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Base of the tests that call the customer API on the in-memory store, with blocking calls
+ * on non-blocking threads failing. The context is closed after each class, which turns
+ * blocking call detection back off for the tests that follow.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "customer.diagnostics.blocking-calls=fail")
+@ActiveProfiles(InMemoryPersistence.PROFILE)
+@DirtiesContext
+abstract class CustomerApiTestSupport {
+
+    static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    CustomerDTO create(String name, CustomerType type) {
+        CustomerDTO created = webTestClient.post().uri("/customers")
+                .bodyValue(new CustomerDTO().name(name).email(newEmail()).type(type))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(CustomerDTO.class)
+                .returnResult().getResponseBody();
+        assertNotNull(created);
+        assertNotNull(created.getId());
+        return created;
+    }
+
+    CustomerDTO get(String customerId) {
+        CustomerDTO customer = webTestClient.get().uri("/customers/{id}", customerId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(CustomerDTO.class)
+                .returnResult().getResponseBody();
+        assertNotNull(customer);
+        return customer;
+    }
+
+    /**
+     * Waits until a view loaded when the application starts stops answering 503.
+     */
+    void awaitLoaded(String uri) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (webTestClient.get().uri(uri).exchange().returnResult(String.class).getStatus() == HttpStatus.SERVICE_UNAVAILABLE) {
+            assertTrue(System.nanoTime() < deadline, uri + " still not loaded");
+            Thread.sleep(20);
+        }
+    }
+
+    static String newEmail() {
+        return UUID.randomUUID() + "@example.com";
+    }
+}
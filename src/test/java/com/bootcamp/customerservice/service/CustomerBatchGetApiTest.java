@@ -0,0 +1,69 @@
+package com.bootcamp.customerservice.service;
+
+import com.bootcamp.customerservice.model.CustomerDTO;
+import com.bootcamp.customerservice.model.CustomerIdList;
+import com.bootcamp.customerservice.model.CustomerLookupResult;
+import com.bootcamp.customerservice.model.CustomerType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Batch lookups split into chunks of two IDs, one store query per chunk.
+ */
+@TestPropertySource(properties = "customer.batch-get.chunk-size=2")
+class CustomerBatchGetApiTest extends CustomerApiTestSupport {
+
+    private static final String MISSING_ID = "000000000000000000000000";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void answersEveryIdInRequestOrderAcrossChunks() {
+        CustomerDTO first = create("Marta Gil", CustomerType.BUSINESS);
+        CustomerDTO second = create("Pablo Gil", CustomerType.PERSONAL);
+        CustomerDTO third = create("Rosa Gil", CustomerType.PERSONAL);
+        CustomerDTO fourth = create("Luis Gil", CustomerType.BUSINESS);
+        List<String> ids = List.of(third.getId(), MISSING_ID, first.getId(), fourth.getId(), second.getId());
+        long queriesBefore = findAllByIdQueries();
+
+        List<CustomerLookupResult> lookups = webTestClient.post().uri("/customers/batch-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CustomerIdList().ids(ids))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(CustomerLookupResult.class)
+                .getResponseBody()
+                .collectList()
+                .block(TIMEOUT);
+
+        assertNotNull(lookups);
+        assertEquals(ids.size(), lookups.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(ids.get(i), lookups.get(i).getId());
+        }
+        assertFalse(lookups.get(1).getFound());
+        assertNull(lookups.get(1).getCustomer());
+        assertTrue(lookups.get(3).getFound());
+        assertEquals(fourth.getName(), lookups.get(3).getCustomer().getName());
+        assertEquals(3, findAllByIdQueries() - queriesBefore);
+    }
+
+    private long findAllByIdQueries() {
+        return meterRegistry.find("customer.mongo").tag("operation", "findAllById").timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+}
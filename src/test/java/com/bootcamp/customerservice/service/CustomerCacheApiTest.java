@@ -0,0 +1,39 @@
+package com.bootcamp.customerservice.service;
+
+import com.bootcamp.customerservice.model.CustomerDTO;
+import com.bootcamp.customerservice.model.CustomerType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Lookups by ID served from the customer cache see the writes made through the API.
+ */
+class CustomerCacheApiTest extends CustomerApiTestSupport {
+
+    @Test
+    void servesTheUpdatedCustomerAfterAnUpdate() {
+        CustomerDTO created = create("Ana Lopez", CustomerType.PERSONAL);
+        assertEquals("Ana Lopez", get(created.getId()).getName());
+
+        webTestClient.patch().uri("/customers/{id}", created.getId())
+                .bodyValue(new CustomerDTO().name("Ana Maria Lopez"))
+                .exchange()
+                .expectStatus().isOk();
+
+        CustomerDTO cached = get(created.getId());
+        assertEquals("Ana Maria Lopez", cached.getName());
+        assertEquals(1L, cached.getVersion());
+    }
+
+    @Test
+    void forgetsADeletedCustomer() {
+        CustomerDTO created = create("Luis Perez", CustomerType.PERSONAL);
+        get(created.getId());
+
+        webTestClient.delete().uri("/customers/{id}", created.getId()).exchange().expectStatus().isNoContent();
+
+        webTestClient.get().uri("/customers/{id}", created.getId()).exchange().expectStatus().isNotFound();
+        webTestClient.delete().uri("/customers/{id}", created.getId()).exchange().expectStatus().isNotFound();
+    }
+}
@@ -0,0 +1,16 @@
+package com.bootcamp.customerservice.service;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Refreshing the eligibility snapshot of a customer.
+ */
+class CustomerEligibilityApiTest extends CustomerApiTestSupport {
+
+    @Test
+    void doesNotRefreshAMissingCustomer() {
+        webTestClient.post().uri("/customers/{id}/eligibility/refresh", "000000000000000000000000")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
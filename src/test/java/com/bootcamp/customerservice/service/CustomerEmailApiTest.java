@@ -0,0 +1,39 @@
+package com.bootcamp.customerservice.service;
+
+import com.bootcamp.customerservice.model.CustomerDTO;
+import com.bootcamp.customerservice.model.CustomerType;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Lookups by email and the uniqueness of customer emails.
+ */
+class CustomerEmailApiTest extends CustomerApiTestSupport {
+
+    @Test
+    void findsACustomerByEmailIgnoringCase() {
+        CustomerDTO created = create("Ana Lopez", CustomerType.PERSONAL);
+
+        CustomerDTO byEmail = webTestClient.get().uri("/customers/email/{email}", created.getEmail().toUpperCase())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(CustomerDTO.class)
+                .returnResult().getResponseBody();
+
+        assertNotNull(byEmail);
+        assertEquals(created.getId(), byEmail.getId());
+    }
+
+    @Test
+    void rejectsADuplicateEmail() {
+        CustomerDTO created = create("Luis Perez", CustomerType.PERSONAL);
+
+        webTestClient.post().uri("/customers")
+                .bodyValue(new CustomerDTO().name("Luis Perez Again").email(created.getEmail()).type(CustomerType.PERSONAL))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+    }
+}
@@ -0,0 +1,33 @@
+package com.bootcamp.customerservice.service;
+
+import com.bootcamp.customerservice.model.CustomerDTO;
+import com.bootcamp.customerservice.model.CustomerEvent;
+import com.bootcamp.customerservice.model.CustomerType;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * The stream of customer change events.
+ */
+class CustomerEventsApiTest extends CustomerApiTestSupport {
+
+    @Test
+    void streamsTheEventOfACreatedCustomer() {
+        CustomerDTO created = create("Eva Ruiz", CustomerType.PERSONAL);
+
+        CustomerEvent event = webTestClient.get().uri("/customers/events?since=0")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(CustomerEvent.class)
+                .getResponseBody()
+                .filter(candidate -> created.getId().equals(candidate.getCustomerId()))
+                .blockFirst(TIMEOUT);
+
+        assertNotNull(event);
+        assertEquals(CustomerEvent.TypeEnum.CREATED, event.getType());
+    }
+}
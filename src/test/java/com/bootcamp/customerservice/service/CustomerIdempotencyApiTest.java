@@ -0,0 +1,50 @@
+package com.bootcamp.customerservice.service;
+
+import com.bootcamp.customerservice.model.CustomerDTO;
+import com.bootcamp.customerservice.model.CustomerType;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Retried creates carrying an idempotency key.
+ */
+class CustomerIdempotencyApiTest extends CustomerApiTestSupport {
+
+    @Test
+    void replaysTheFirstResponseToARetriedCreate() {
+        String key = UUID.randomUUID().toString();
+        CustomerDTO body = new CustomerDTO().name("Rosa Diaz").email(newEmail()).type(CustomerType.PERSONAL);
+
+        CustomerDTO first = webTestClient.post().uri("/customers").header("Idempotency-Key", key).bodyValue(body)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(CustomerDTO.class)
+                .returnResult().getResponseBody();
+        CustomerDTO retried = webTestClient.post().uri("/customers").header("Idempotency-Key", key).bodyValue(body)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().exists("Idempotent-Replayed")
+                .expectBody(CustomerDTO.class)
+                .returnResult().getResponseBody();
+
+        assertNotNull(first);
+        assertNotNull(retried);
+        assertEquals(first.getId(), retried.getId());
+    }
+
+    @Test
+    void createsAgainWithoutAKey() {
+        CustomerDTO body = new CustomerDTO().name("Rosa Diaz").email(newEmail()).type(CustomerType.PERSONAL);
+        webTestClient.post().uri("/customers").bodyValue(body).exchange().expectStatus().isCreated();
+
+        webTestClient.post().uri("/customers").bodyValue(body)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT)
+                .expectHeader().doesNotExist("Idempotent-Replayed");
+    }
+}
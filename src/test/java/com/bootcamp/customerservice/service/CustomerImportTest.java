@@ -0,0 +1,82 @@
+package com.bootcamp.customerservice.service;
+
+import com.bootcamp.customerservice.entity.Customer;
+import com.bootcamp.customerservice.model.CustomerImportResult;
+import com.bootcamp.customerservice.repository.CustomerRepository;
+import com.bootcamp.customerservice.repository.memory.InMemoryPersistence;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Imports customers through the API on the in-memory store.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "customer.diagnostics.blocking-calls=fail")
+@ActiveProfiles(InMemoryPersistence.PROFILE)
+@DirtiesContext
+class CustomerImportTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Test
+    void reportsEachRecordOfABatchOnceWithItsOwnOutcome() {
+        String ana = UUID.randomUUID() + "@example.com";
+        String luis = UUID.randomUUID() + "@example.com";
+        String body = record("Ana Lopez", ana) + record("Luis Perez", luis)
+                + record("Ana Lopez Again", ana.toUpperCase()) + record("Vip Customer", UUID.randomUUID() + "@example.com", "VIP");
+
+        List<CustomerImportResult> results = webTestClient.post().uri("/customers/import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(CustomerImportResult.class)
+                .getResponseBody()
+                .collectList()
+                .block(TIMEOUT);
+
+        assertNotNull(results);
+        assertEquals(4, results.size());
+        assertEquals(CustomerImportResult.StatusEnum.CREATED, results.get(0).getStatus());
+        assertEquals(CustomerImportResult.StatusEnum.CREATED, results.get(1).getStatus());
+        assertEquals(CustomerImportResult.StatusEnum.FAILED, results.get(2).getStatus());
+        assertNull(results.get(2).getId());
+        assertEquals(CustomerImportResult.StatusEnum.REJECTED, results.get(3).getStatus());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex().longValue());
+        }
+
+        Customer stored = customerRepository.findByEmail(ana).block(TIMEOUT);
+        assertNotNull(stored);
+        assertEquals(results.get(0).getId(), stored.getId());
+        assertEquals("Ana Lopez", stored.getName());
+        assertEquals(0L, stored.getVersion());
+    }
+
+    private static String record(String name, String email) {
+        return record(name, email, "PERSONAL");
+    }
+
+    private static String record(String name, String email, String type) {
+        return "{\"name\":\"" + name + "\",\"email\":\"" + email + "\",\"type\":\"" + type + "\"}\n";
+    }
+}
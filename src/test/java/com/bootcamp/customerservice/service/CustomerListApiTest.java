@@ -0,0 +1,53 @@
+package com.bootcamp.customerservice.service;
+
+import com.bootcamp.customerservice.model.CustomerDTO;
+import com.bootcamp.customerservice.model.CustomerType;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Listing customers as a JSON page or an NDJSON stream, after a keyset cursor.
+ */
+class CustomerListApiTest extends CustomerApiTestSupport {
+
+    @Test
+    void listsTheCustomersOfAType() {
+        CustomerDTO business = create("Marta Gil", CustomerType.BUSINESS);
+        CustomerDTO personal = create("Pablo Gil", CustomerType.PERSONAL);
+
+        List<CustomerDTO> page = webTestClient.get().uri("/customers?type=BUSINESS&limit=1000")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(CustomerDTO.class)
+                .returnResult().getResponseBody();
+
+        assertNotNull(page);
+        assertTrue(page.stream().anyMatch(customer -> customer.getId().equals(business.getId())));
+        assertTrue(page.stream().noneMatch(customer -> customer.getId().equals(personal.getId())));
+        assertTrue(page.stream().allMatch(customer -> customer.getType() == CustomerType.BUSINESS));
+    }
+
+    @Test
+    void streamsTheCustomersAfterTheCursor() {
+        CustomerDTO first = create("Marta Ruiz", CustomerType.BUSINESS);
+        CustomerDTO second = create("Pablo Ruiz", CustomerType.BUSINESS);
+
+        List<CustomerDTO> streamed = webTestClient.get().uri("/customers?after={id}", first.getId())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(CustomerDTO.class)
+                .getResponseBody()
+                .collectList()
+                .block(TIMEOUT);
+
+        assertNotNull(streamed);
+        assertTrue(streamed.stream().anyMatch(customer -> customer.getId().equals(second.getId())));
+        assertTrue(streamed.stream().noneMatch(customer -> customer.getId().equals(first.getId())));
+    }
+}
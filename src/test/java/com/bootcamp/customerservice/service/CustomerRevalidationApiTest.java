@@ -0,0 +1,52 @@
+package com.bootcamp.customerservice.service;
+
+import com.bootcamp.customerservice.model.RevalidationProgress;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starting the VIP/PYME revalidation job and following its progress.
+ */
+class CustomerRevalidationApiTest extends CustomerApiTestSupport {
+
+    @Test
+    void runsTheRevalidationAndReportsItsProgress() throws InterruptedException {
+        assertEquals(RevalidationProgress.StatusEnum.IDLE, progress().getStatus());
+
+        webTestClient.post().uri("/customers/revalidation")
+                .exchange()
+                .expectStatus().isAccepted();
+
+        RevalidationProgress progress = awaitCompletion();
+        assertEquals(0L, progress.getProcessed());
+
+        webTestClient.post().uri("/customers/revalidation")
+                .exchange()
+                .expectStatus().isAccepted();
+        awaitCompletion();
+    }
+
+    private RevalidationProgress awaitCompletion() throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        RevalidationProgress progress = progress();
+        while (progress.getStatus() != RevalidationProgress.StatusEnum.COMPLETED) {
+            assertTrue(System.nanoTime() < deadline, "revalidation still " + progress.getStatus());
+            Thread.sleep(20);
+            progress = progress();
+        }
+        return progress;
+    }
+
+    private RevalidationProgress progress() {
+        RevalidationProgress progress = webTestClient.get().uri("/customers/revalidation")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(RevalidationProgress.class)
+                .returnResult().getResponseBody();
+        assertNotNull(progress);
+        return progress;
+    }
+}
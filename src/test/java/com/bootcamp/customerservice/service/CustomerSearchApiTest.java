@@ -0,0 +1,68 @@
+package com.bootcamp.customerservice.service;
+
+import com.bootcamp.customerservice.model.CustomerDTO;
+import com.bootcamp.customerservice.model.CustomerSearchHit;
+import com.bootcamp.customerservice.model.CustomerSearchPage;
+import com.bootcamp.customerservice.model.CustomerType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Prefix search over the names and emails of customers, a page at a time.
+ */
+class CustomerSearchApiTest extends CustomerApiTestSupport {
+
+    @BeforeEach
+    void awaitIndex() throws InterruptedException {
+        awaitLoaded("/customers/search?q=a");
+    }
+
+    @Test
+    void pagesThroughTheCustomersMatchingAPrefix() {
+        String surname = "Zq" + UUID.randomUUID().toString().substring(0, 8);
+        CustomerDTO first = create("Marta " + surname, CustomerType.BUSINESS);
+        CustomerDTO second = create("Pablo " + surname, CustomerType.PERSONAL);
+
+        CustomerSearchPage firstPage = search(surname.toLowerCase(), 0);
+        assertEquals(1, firstPage.getHits().size());
+        assertEquals(1, firstPage.getNextOffset());
+        CustomerSearchPage secondPage = search(surname.toLowerCase(), 1);
+        assertEquals(1, secondPage.getHits().size());
+        assertNull(secondPage.getNextOffset());
+
+        Set<String> found = Stream.concat(firstPage.getHits().stream(), secondPage.getHits().stream())
+                .map(CustomerSearchHit::getCustomer)
+                .map(CustomerDTO::getId)
+                .collect(Collectors.toSet());
+        assertEquals(Set.of(first.getId(), second.getId()), found);
+    }
+
+    @Test
+    void findsACustomerByEmailPrefix() {
+        CustomerDTO created = create("Ines Mora", CustomerType.PERSONAL);
+
+        CustomerSearchPage page = search(created.getEmail().substring(0, 8), 0);
+
+        assertEquals(1, page.getHits().size());
+        assertEquals(created.getId(), page.getHits().get(0).getCustomer().getId());
+    }
+
+    private CustomerSearchPage search(String query, int offset) {
+        CustomerSearchPage page = webTestClient.get().uri("/customers/search?q={q}&limit=1&offset={offset}", query, offset)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(CustomerSearchPage.class)
+                .returnResult().getResponseBody();
+        assertNotNull(page);
+        return page;
+    }
+}
@@ -0,0 +1,47 @@
+package com.bootcamp.customerservice.service;
+
+import com.bootcamp.customerservice.model.CustomerStatistics;
+import com.bootcamp.customerservice.model.CustomerType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Customer statistics kept up to date by the writes made through the API.
+ */
+class CustomerStatisticsApiTest extends CustomerApiTestSupport {
+
+    @Test
+    void countsTheCustomersCreatedAndDeleted() throws InterruptedException {
+        awaitLoaded("/customers/statistics");
+        CustomerStatistics before = statistics();
+
+        String customerId = create("Ines Mora", CustomerType.PERSONAL).getId();
+        create("Marta Mora", CustomerType.BUSINESS);
+        CustomerStatistics created = statistics();
+        assertEquals(before.getTotal() + 2, created.getTotal());
+        assertEquals(count(before, CustomerType.PERSONAL) + 1, count(created, CustomerType.PERSONAL));
+        assertEquals(count(before, CustomerType.BUSINESS) + 1, count(created, CustomerType.BUSINESS));
+        assertEquals(before.getCreatedThisHour() + 2, created.getCreatedThisHour());
+
+        webTestClient.delete().uri("/customers/{id}", customerId).exchange().expectStatus().isNoContent();
+        CustomerStatistics deleted = statistics();
+        assertEquals(before.getTotal() + 1, deleted.getTotal());
+        assertEquals(count(before, CustomerType.PERSONAL), count(deleted, CustomerType.PERSONAL));
+    }
+
+    private CustomerStatistics statistics() {
+        CustomerStatistics statistics = webTestClient.get().uri("/customers/statistics")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(CustomerStatistics.class)
+                .returnResult().getResponseBody();
+        assertNotNull(statistics);
+        return statistics;
+    }
+
+    private static long count(CustomerStatistics statistics, CustomerType type) {
+        return statistics.getCountsByType().getOrDefault(type.getValue(), 0L);
+    }
+}
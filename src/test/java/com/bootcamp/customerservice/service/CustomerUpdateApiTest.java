@@ -0,0 +1,79 @@
+package com.bootcamp.customerservice.service;
+
+import com.bootcamp.customerservice.model.CustomerDTO;
+import com.bootcamp.customerservice.model.CustomerType;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Versioned replacements and partial updates of a customer.
+ */
+class CustomerUpdateApiTest extends CustomerApiTestSupport {
+
+    @Test
+    void replacesACustomerAtTheExpectedVersion() {
+        CustomerDTO created = create("Ana Lopez", CustomerType.PERSONAL);
+        assertEquals(0L, created.getVersion());
+
+        CustomerDTO updated = webTestClient.put().uri("/customers/{id}", created.getId())
+                .bodyValue(new CustomerDTO().name("Ana Maria Lopez").email(created.getEmail()).type(CustomerType.BUSINESS).version(0L))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(CustomerDTO.class)
+                .returnResult().getResponseBody();
+
+        assertNotNull(updated);
+        assertEquals(CustomerType.BUSINESS, updated.getType());
+        assertEquals(1L, updated.getVersion());
+    }
+
+    @Test
+    void rejectsAReplacementAtAStaleVersion() {
+        CustomerDTO created = create("Luis Perez", CustomerType.PERSONAL);
+        webTestClient.put().uri("/customers/{id}", created.getId())
+                .bodyValue(new CustomerDTO().name("Luis Perez").email(created.getEmail()).type(CustomerType.BUSINESS).version(0L))
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.put().uri("/customers/{id}", created.getId())
+                .bodyValue(new CustomerDTO().name("Stale Update").email(created.getEmail()).type(CustomerType.PERSONAL).version(0L))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+
+        CustomerDTO current = get(created.getId());
+        assertEquals(CustomerType.BUSINESS, current.getType());
+        assertEquals(1L, current.getVersion());
+    }
+
+    @Test
+    void patchesOnlyTheGivenFields() {
+        CustomerDTO created = create("Rosa Diaz", CustomerType.BUSINESS);
+
+        CustomerDTO patched = webTestClient.patch().uri("/customers/{id}", created.getId())
+                .bodyValue(new CustomerDTO().name("Rosa D."))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(CustomerDTO.class)
+                .returnResult().getResponseBody();
+
+        assertNotNull(patched);
+        assertEquals("Rosa D.", patched.getName());
+        assertEquals(created.getEmail(), patched.getEmail());
+        assertEquals(CustomerType.BUSINESS, patched.getType());
+    }
+
+    @Test
+    void doesNotUpdateAMissingCustomer() {
+        webTestClient.put().uri("/customers/{id}", "000000000000000000000000")
+                .bodyValue(new CustomerDTO().name("Gone").email(newEmail()).type(CustomerType.PERSONAL))
+                .exchange()
+                .expectStatus().isNotFound();
+        webTestClient.patch().uri("/customers/{id}", "000000000000000000000000")
+                .bodyValue(new CustomerDTO().name("Gone"))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
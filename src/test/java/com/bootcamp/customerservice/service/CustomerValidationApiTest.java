@@ -0,0 +1,32 @@
+package com.bootcamp.customerservice.service;
+
+import com.bootcamp.customerservice.model.CustomerDTO;
+import com.bootcamp.customerservice.model.CustomerType;
+import com.bootcamp.customerservice.model.ErrorCode;
+import com.bootcamp.customerservice.model.ErrorResponse;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Creates rejected by the customer type validation.
+ */
+class CustomerValidationApiTest extends CustomerApiTestSupport {
+
+    @Test
+    void rejectsACustomerOfARestrictedType() {
+        CustomerDTO vip = new CustomerDTO().name("Vip Customer").email(newEmail()).type(CustomerType.VIP);
+
+        ErrorResponse error = webTestClient.post().uri("/customers")
+                .bodyValue(vip)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(ErrorResponse.class)
+                .returnResult().getResponseBody();
+
+        assertNotNull(error);
+        assertEquals(ErrorCode.INVALID_CUSTOMER_TYPE, error.getCode());
+        webTestClient.get().uri("/customers/email/{email}", vip.getEmail()).exchange().expectStatus().isNotFound();
+    }
+}
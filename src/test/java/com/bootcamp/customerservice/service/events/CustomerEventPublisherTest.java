@@ -0,0 +1,103 @@
+package com.bootcamp.customerservice.service.events;
+
+import com.bootcamp.customerservice.model.CustomerDTO;
+import com.bootcamp.customerservice.model.CustomerEvent;
+import com.bootcamp.customerservice.service.exceptions.CustomerEventsExpiredException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Replay, resume and slow-subscriber behaviour of the in-memory customer event stream.
+ */
+class CustomerEventPublisherTest {
+
+    private final CustomerEventPublisher publisher = new CustomerEventPublisher(3, 2, new SimpleMeterRegistry());
+
+    @Test
+    void resumesAfterTheGivenSequence() {
+        publishCreated(3);
+
+        StepVerifier.create(publisher.events(1L).map(CustomerEvent::getSequence))
+                .expectNext(2L, 3L)
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void subscribersWithoutSequenceOnlyReceiveNewEvents() {
+        publishCreated(2);
+
+        StepVerifier.create(publisher.events(null))
+                .then(() -> publisher.deleted("customer-9"))
+                .expectNextMatches(event -> event.getSequence() == 3L
+                        && event.getType() == CustomerEvent.TypeEnum.DELETED
+                        && "customer-9".equals(event.getCustomerId()))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void rejectsSequencesNoLongerInTheReplayBuffer() {
+        publishCreated(5);
+
+        assertThrows(CustomerEventsExpiredException.class, () -> publisher.events(1L));
+        assertThrows(CustomerEventsExpiredException.class, () -> publisher.events(6L));
+    }
+
+    @Test
+    void failsAResumeWhoseEventsExpireBeforeItIsSubscribed() {
+        publishCreated(2);
+        Flux<CustomerEvent> events = publisher.events(1L);
+
+        publishCreated(3);
+
+        StepVerifier.create(events)
+                .verifyError(CustomerEventsExpiredException.class);
+    }
+
+    @Test
+    void deliversEventsPublishedConcurrentlyInSequenceOrder() {
+        CustomerEventPublisher large = new CustomerEventPublisher(1000, 1000, new SimpleMeterRegistry());
+        List<Long> received = new CopyOnWriteArrayList<>();
+        Disposable subscription = large.events(0L).map(CustomerEvent::getSequence).subscribe(received::add);
+
+        Flux.range(0, 400)
+                .parallel(4)
+                .runOn(Schedulers.boundedElastic())
+                .doOnNext(i -> large.created(new CustomerDTO().id("customer-" + i)))
+                .sequential()
+                .blockLast(Duration.ofSeconds(5));
+
+        subscription.dispose();
+        assertEquals(LongStream.rangeClosed(1, 400).boxed().collect(Collectors.toList()), received);
+    }
+
+    @Test
+    void slowSubscribersLoseTheirOldestEvents() {
+        StepVerifier.create(publisher.events(0L).map(CustomerEvent::getSequence), 0)
+                .then(() -> publishCreated(5))
+                .thenRequest(2)
+                .expectNext(4L, 5L)
+                .thenCancel()
+                .verify();
+    }
+
+    private void publishCreated(int count) {
+        for (int i = 0; i < count; i++) {
+            publisher.created(new CustomerDTO().id("customer-" + i));
+        }
+    }
+}
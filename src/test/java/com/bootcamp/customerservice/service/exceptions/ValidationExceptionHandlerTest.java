@@ -0,0 +1,59 @@
+package com.bootcamp.customerservice.service.exceptions;
+
+import com.bootcamp.customerservice.model.ErrorCode;
+import com.bootcamp.customerservice.model.ErrorResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Mapping of rejected customers to error responses, and the rate limit on their logging.
+ */
+class ValidationExceptionHandlerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ValidationExceptionHandler handler = new ValidationExceptionHandler(meterRegistry, 2, 60);
+
+    @Test
+    void answersWithTheErrorCodeAndCountsEveryRejection() {
+        NoCreditCardException rejection = new NoCreditCardException("VIP customers must have a credit card.");
+
+        ResponseEntity<ErrorResponse> response = handler.handleValidation(rejection);
+        handler.handleValidation(rejection);
+        handler.handleValidation(rejection);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(ErrorCode.NO_CREDIT_CARD, response.getBody().getCode());
+        assertEquals("VIP customers must have a credit card.", response.getBody().getMessage());
+        assertEquals(3.0, meterRegistry.get("customer.validation.rejected")
+                .tag("code", ErrorCode.NO_CREDIT_CARD.getValue())
+                .counter()
+                .count());
+    }
+
+    @Test
+    void rejectionsCarryNoStackTrace() {
+        assertEquals(0, new InsufficientBalanceException("below minimum").getStackTrace().length);
+    }
+
+    @Test
+    void logsAFewLinesPerIntervalAndReportsTheDroppedOnes() {
+        RateLimitedLog log = new RateLimitedLog(2, Duration.ofSeconds(1));
+        long start = System.nanoTime();
+
+        assertEquals(0, log.tryAcquire(start));
+        assertEquals(0, log.tryAcquire(start + 1));
+        assertEquals(-1, log.tryAcquire(start + 2));
+        assertEquals(-1, log.tryAcquire(start + 3));
+        assertEquals(2, log.tryAcquire(start + Duration.ofSeconds(1).toNanos()));
+        assertEquals(0, log.tryAcquire(start + Duration.ofSeconds(1).toNanos() + 1));
+    }
+}
@@ -0,0 +1,101 @@
+package com.bootcamp.customerservice.service.idempotency;
+
+import com.bootcamp.customerservice.repository.memory.InMemoryIdempotencyRecordRepository;
+import com.bootcamp.customerservice.repository.memory.InMemoryPersistence;
+import com.bootcamp.customerservice.service.exceptions.IdempotentRequestInProgressException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Replays of idempotent requests on one instance, and on two instances sharing the record store.
+ */
+class IdempotencyStoreTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final InMemoryIdempotencyRecordRepository recordRepository =
+            new InMemoryIdempotencyRecordRepository(InMemoryPersistence.none());
+
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @Test
+    void runsARetryOfAServerErrorAgainAndSharesItWithItsDuplicates() {
+        IdempotencyStore store = store(false);
+        Sinks.One<ResponseEntity<String>> retried = Sinks.one();
+
+        ResponseEntity<String> failed = execute(store, Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("busy"))).block(TIMEOUT);
+        Mono<ResponseEntity<String>> retry = execute(store, retried.asMono()).cache();
+        retry.subscribe();
+        Mono<ResponseEntity<String>> duplicate = execute(store, Mono.just(ResponseEntity.status(HttpStatus.CREATED).body("duplicate"))).cache();
+        duplicate.subscribe();
+        // a late subscriber of the failed attempt must not drop the retry in progress
+        execute(store, Mono.just(ResponseEntity.status(HttpStatus.CREATED).body("late"))).subscribe();
+        retried.tryEmitValue(ResponseEntity.status(HttpStatus.CREATED).body("created"));
+
+        assertNotNull(failed);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, failed.getStatusCode());
+        assertEquals("created", retry.block(TIMEOUT).getBody());
+        ResponseEntity<String> replayed = duplicate.block(TIMEOUT);
+        assertEquals("created", replayed.getBody());
+        assertEquals("true", replayed.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void answersConflictWhileAnotherInstanceHoldsTheKeyAndReplaysItsResponseAfterwards() {
+        IdempotencyStore first = store(true);
+        IdempotencyStore second = store(true);
+        Sinks.One<ResponseEntity<String>> running = Sinks.one();
+        Mono<ResponseEntity<String>> original = execute(first, running.asMono()).cache();
+        original.subscribe();
+
+        StepVerifier.create(execute(second, Mono.just(ResponseEntity.status(HttpStatus.CREATED).body("duplicate"))))
+                .verifyError(IdempotentRequestInProgressException.class);
+
+        running.tryEmitValue(ResponseEntity.status(HttpStatus.CREATED).body("created"));
+        assertEquals("created", original.block(TIMEOUT).getBody());
+        ResponseEntity<String> replayed = execute(second, Mono.just(ResponseEntity.status(HttpStatus.CREATED).body("duplicate"))).block(TIMEOUT);
+        assertNotNull(replayed);
+        assertEquals("created", replayed.getBody());
+        assertEquals("true", replayed.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void releasesTheKeyOfAServerErrorForOtherInstances() {
+        IdempotencyStore first = store(true);
+        IdempotencyStore second = store(true);
+
+        execute(first, Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("busy"))).block(TIMEOUT);
+        ResponseEntity<String> retried = execute(second, Mono.just(ResponseEntity.status(HttpStatus.CREATED).body("created"))).block(TIMEOUT);
+
+        assertNotNull(retried);
+        assertEquals("created", retried.getBody());
+        assertNull(retried.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals(2, runs.get());
+    }
+
+    private Mono<ResponseEntity<String>> execute(IdempotencyStore store, Mono<ResponseEntity<String>> operation) {
+        return store.execute("createCustomer", "key-1", "request", String.class, () -> {
+            runs.incrementAndGet();
+            return operation;
+        });
+    }
+
+    private IdempotencyStore store(boolean mongoEnabled) {
+        return new IdempotencyStore(100, 60, mongoEnabled, recordRepository, new ObjectMapper(), new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,168 @@
+package com.bootcamp.customerservice.service.revalidation;
+
+import com.bootcamp.customerservice.entity.Customer;
+import com.bootcamp.customerservice.entity.EligibilitySnapshot;
+import com.bootcamp.customerservice.entity.RevalidationCheckpoint;
+import com.bootcamp.customerservice.metrics.HotPathMetrics;
+import com.bootcamp.customerservice.model.CustomerType;
+import com.bootcamp.customerservice.model.RevalidationProgress;
+import com.bootcamp.customerservice.repository.memory.InMemoryCustomerRepository;
+import com.bootcamp.customerservice.repository.memory.InMemoryPersistence;
+import com.bootcamp.customerservice.repository.memory.InMemoryRevalidationCheckpointRepository;
+import com.bootcamp.customerservice.service.EligibilityService;
+import com.bootcamp.customerservice.service.cache.CustomerCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the revalidation job on the in-memory stores with a stubbed eligibility service.
+ */
+class RevalidationJobTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private static final Instant VALIDATED_AT = Instant.parse("2026-01-01T02:00:00Z");
+
+    private final InMemoryCustomerRepository customerRepository = new InMemoryCustomerRepository(InMemoryPersistence.none());
+
+    private final InMemoryRevalidationCheckpointRepository checkpointRepository =
+            new InMemoryRevalidationCheckpointRepository(InMemoryPersistence.none());
+
+    private final EligibilityService eligibilityService = mock(EligibilityService.class);
+
+    private final Set<String> revalidated = ConcurrentHashMap.newKeySet();
+
+    private final RevalidationJob job = new RevalidationJob(customerRepository, checkpointRepository, eligibilityService,
+            new CustomerCache(100, 60, new SimpleMeterRegistry()), new HotPathMetrics(new SimpleMeterRegistry()), 4, 2);
+
+    @Test
+    void resumesAfterTheLastCustomerOfTheCheckpoint() {
+        revalidateAs(true);
+        List<Customer> vips = List.of(store("Vip One", CustomerType.VIP), store("Vip Two", CustomerType.VIP), store("Vip Three", CustomerType.VIP));
+        List<Customer> pymes = List.of(store("Pyme One", CustomerType.PYME), store("Pyme Two", CustomerType.PYME));
+        checkpointRepository.save(RevalidationCheckpoint.builder()
+                .id(RevalidationJob.CHECKPOINT_ID)
+                .status(RevalidationProgress.StatusEnum.RUNNING)
+                .currentType(CustomerType.VIP)
+                .lastCustomerId(vips.get(1).getId())
+                .processed(2)
+                .eligible(2)
+                .startedAt(VALIDATED_AT)
+                .build()).block(TIMEOUT);
+
+        RevalidationCheckpoint finished = runToEnd();
+
+        assertEquals(Set.of(vips.get(2).getId(), pymes.get(0).getId(), pymes.get(1).getId()), revalidated);
+        assertEquals(CustomerType.PYME, finished.getCurrentType());
+        assertEquals(pymes.get(1).getId(), finished.getLastCustomerId());
+        assertEquals(5, finished.getProcessed());
+        assertEquals(5, finished.getEligible());
+        assertEquals(VALIDATED_AT, finished.getStartedAt());
+        assertNull(eligibilityOf(vips.get(0)));
+        assertEquals(VALIDATED_AT, eligibilityOf(vips.get(2)).getValidatedAt());
+    }
+
+    @Test
+    void keepsASnapshotTakenWhileTheBatchWasValidated() {
+        Customer vip = store("Vip One", CustomerType.VIP);
+        Instant refreshedAt = VALIDATED_AT.plusSeconds(1);
+        when(eligibilityService.revalidate(any(Customer.class))).thenAnswer(invocation -> {
+            // a refresh of the customer lands between the job's read and its write
+            customerRepository.updateEligibility(vip.getId(), snapshot(false, refreshedAt)).block(TIMEOUT);
+            return Mono.just(snapshot(true, VALIDATED_AT));
+        });
+
+        RevalidationCheckpoint finished = runToEnd();
+
+        assertEquals(1, finished.getProcessed());
+        EligibilitySnapshot stored = eligibilityOf(vip);
+        assertEquals(refreshedAt, stored.getValidatedAt());
+        assertFalse(stored.getEligible());
+    }
+
+    @Test
+    void startsAfterAStartThatWasNeverSubscribed() {
+        revalidateAs(true);
+        store("Vip One", CustomerType.VIP);
+
+        job.start();
+
+        assertEquals(1, runToEnd().getProcessed());
+    }
+
+    @Test
+    void leavesAStoppedRunToBeResumed() {
+        store("Vip One", CustomerType.VIP);
+        when(eligibilityService.revalidate(any(Customer.class))).thenReturn(Mono.never());
+        assertNotNull(job.start().block(TIMEOUT));
+
+        job.destroy();
+
+        RevalidationCheckpoint stopped = checkpointRepository.findById(RevalidationJob.CHECKPOINT_ID).block(TIMEOUT);
+        assertEquals(RevalidationProgress.StatusEnum.RUNNING, stopped.getStatus());
+        revalidateAs(true);
+        assertEquals(1, runToEnd().getProcessed());
+    }
+
+    @Test
+    void rejectsALimitBelowTheCallsOfOneCustomer() {
+        assertThrows(IllegalArgumentException.class, () -> new RevalidationJob(customerRepository, checkpointRepository,
+                eligibilityService, new CustomerCache(100, 60, new SimpleMeterRegistry()),
+                new HotPathMetrics(new SimpleMeterRegistry()), 1, 2));
+    }
+
+    private RevalidationCheckpoint runToEnd() {
+        assertNotNull(job.start().block(TIMEOUT));
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        RevalidationCheckpoint progress = job.progress().block(TIMEOUT);
+        while (progress.getStatus() == RevalidationProgress.StatusEnum.RUNNING && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+            progress = job.progress().block(TIMEOUT);
+        }
+        assertEquals(RevalidationProgress.StatusEnum.COMPLETED, progress.getStatus());
+        return progress;
+    }
+
+    private void revalidateAs(boolean eligible) {
+        when(eligibilityService.revalidate(any(Customer.class))).thenAnswer(invocation -> {
+            revalidated.add(invocation.<Customer>getArgument(0).getId());
+            return Mono.just(snapshot(eligible, VALIDATED_AT));
+        });
+    }
+
+    private EligibilitySnapshot eligibilityOf(Customer customer) {
+        return customerRepository.findById(customer.getId()).block(TIMEOUT).getEligibility();
+    }
+
+    private Customer store(String name, CustomerType type) {
+        return customerRepository.save(Customer.builder()
+                .name(name)
+                .email(name.toLowerCase().replace(' ', '.') + "@bootcamp.com")
+                .type(type)
+                .build()).block(TIMEOUT);
+    }
+
+    private static EligibilitySnapshot snapshot(boolean eligible, Instant validatedAt) {
+        return EligibilitySnapshot.builder()
+                .hasCreditCard(eligible)
+                .eligible(eligible)
+                .validatedAt(validatedAt)
+                .build();
+    }
+}
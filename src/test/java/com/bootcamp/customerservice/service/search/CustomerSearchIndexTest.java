@@ -0,0 +1,109 @@
+package com.bootcamp.customerservice.service.search;
+
+import com.bootcamp.customerservice.entity.Customer;
+import com.bootcamp.customerservice.model.CustomerSearchHit;
+import com.bootcamp.customerservice.model.CustomerType;
+import com.bootcamp.customerservice.repository.CustomerRepository;
+import com.bootcamp.customerservice.service.exceptions.SearchIndexNotReadyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Matching, ranking, pagination and live updates of the in-memory customer search index.
+ */
+class CustomerSearchIndexTest {
+
+    private final CustomerRepository customerRepository = mock(CustomerRepository.class);
+
+    private final CustomerSearchIndex index = new CustomerSearchIndex(customerRepository, 1000, new SimpleMeterRegistry());
+
+    @Test
+    void rejectsSearchesUntilLoaded() {
+        assertThrows(SearchIndexNotReadyException.class, () -> index.search("maria", 0, 10));
+    }
+
+    @Test
+    void ranksExactThenPrefixThenWordPrefixThenSubstring() {
+        load(customer("1", "Ana Maria Lopez", "alopez@bootcamp.com"),
+                customer("2", "Maria", "maria@bootcamp.com"),
+                customer("3", "Mariano Perez", "mperez@bootcamp.com"),
+                customer("4", "Rosa Damaria", "rdamaria@bootcamp.com"));
+
+        List<CustomerSearchIndex.SearchHit> hits = index.search("Maria", 0, 10).getHits();
+
+        assertEquals(List.of("2", "3", "1", "4"), ids(hits));
+        assertEquals(List.of(CustomerSearchHit.MatchEnum.EXACT, CustomerSearchHit.MatchEnum.PREFIX,
+                        CustomerSearchHit.MatchEnum.WORD_PREFIX, CustomerSearchHit.MatchEnum.SUBSTRING),
+                hits.stream().map(CustomerSearchIndex.SearchHit::getMatch).collect(Collectors.toList()));
+    }
+
+    @Test
+    void ignoresCaseAndAccentsAndRequiresEveryWord() {
+        load(customer("1", "José Pérez", "jose.perez@bootcamp.com"),
+                customer("2", "José Gómez", "jgomez@bootcamp.com"));
+
+        assertEquals(List.of("1"), ids(index.search("jose PER", 0, 10).getHits()));
+        assertEquals(List.of("2"), ids(index.search("gomez@boot", 0, 10).getHits()));
+        assertEquals(List.of("1"), ids(index.search("jose.perez@bootcamp.com", 0, 10).getHits()));
+    }
+
+    @Test
+    void paginatesRankedMatches() {
+        load(customer("1", "Carla Ruiz", "c1@bootcamp.com"),
+                customer("2", "Carlos Ruiz", "c2@bootcamp.com"),
+                customer("3", "Carmen Ruiz", "c3@bootcamp.com"));
+
+        CustomerSearchIndex.SearchResult first = index.search("car", 0, 2);
+        CustomerSearchIndex.SearchResult second = index.search("car", 2, 2);
+
+        assertEquals(List.of("1", "2"), ids(first.getHits()));
+        assertTrue(first.isMore());
+        assertEquals(List.of("3"), ids(second.getHits()));
+        assertFalse(second.isMore());
+    }
+
+    @Test
+    void followsCreatesUpdatesAndDeletes() {
+        load(customer("1", "Lucia Torres", "ltorres@bootcamp.com"));
+
+        index.index(customer("2", "Lucas Vega", "lvega@bootcamp.com"));
+        index.index(customer("1", "Lucia Campos", "lcampos@bootcamp.com"));
+
+        assertEquals(List.of("2", "1"), ids(index.search("luc", 0, 10).getHits()));
+        assertEquals(List.of(), ids(index.search("torres", 0, 10).getHits()));
+
+        index.remove("2");
+
+        assertEquals(List.of("1"), ids(index.search("luc", 0, 10).getHits()));
+    }
+
+    private void load(Customer... customers) {
+        when(customerRepository.findPage(null, null, 0)).thenReturn(Flux.just(customers));
+        index.rebuild().block();
+    }
+
+    private static Customer customer(String id, String name, String email) {
+        return Customer.builder()
+                .id(id)
+                .name(name)
+                .email(email)
+                .type(CustomerType.PERSONAL)
+                .version(0L)
+                .build();
+    }
+
+    private static List<String> ids(List<CustomerSearchIndex.SearchHit> hits) {
+        return hits.stream().map(hit -> hit.getCustomer().getId()).collect(Collectors.toList());
+    }
+}
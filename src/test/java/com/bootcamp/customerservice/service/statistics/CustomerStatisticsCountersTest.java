@@ -0,0 +1,100 @@
+package com.bootcamp.customerservice.service.statistics;
+
+import com.bootcamp.customerservice.model.CustomerType;
+import com.bootcamp.customerservice.repository.CustomerRepository;
+import com.bootcamp.customerservice.repository.CustomerTypeCount;
+import com.bootcamp.customerservice.repository.HourlyCreationCount;
+import com.bootcamp.customerservice.service.exceptions.StatisticsNotReadyException;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Incremental updates and reconciliation of the in-memory customer statistics.
+ */
+class CustomerStatisticsCountersTest {
+
+    private final CustomerRepository customerRepository = mock(CustomerRepository.class);
+
+    private final CustomerStatisticsCounters counters = new CustomerStatisticsCounters(customerRepository);
+
+    @Test
+    void isNotReadyUntilReconciled() {
+        assertThrows(StatisticsNotReadyException.class, counters::snapshot);
+    }
+
+    @Test
+    void followsCreatesTypeChangesAndDeletes() {
+        reconcile(Map.of(CustomerType.PERSONAL, 10L, CustomerType.VIP, 2L), 0);
+
+        counters.created(CustomerType.PERSONAL);
+        counters.created(CustomerType.BUSINESS);
+        counters.typeChanged(CustomerType.PERSONAL, CustomerType.VIP);
+        counters.typeChanged(CustomerType.BUSINESS, CustomerType.BUSINESS);
+        counters.deleted(CustomerType.VIP);
+
+        Map<CustomerType, Long> counts = counters.snapshot().getCountsByType();
+        assertEquals(10L, counts.get(CustomerType.PERSONAL));
+        assertEquals(1L, counts.get(CustomerType.BUSINESS));
+        assertEquals(2L, counts.get(CustomerType.VIP));
+        assertEquals(0L, counts.get(CustomerType.PYME));
+        assertEquals(2L, createdLast24Hours());
+    }
+
+    @Test
+    void reconciliationReplacesTheCounters() {
+        reconcile(Map.of(CustomerType.PERSONAL, 10L), 0);
+        counters.created(CustomerType.PERSONAL);
+
+        reconcile(Map.of(CustomerType.PERSONAL, 50L, CustomerType.PYME, 5L), 7);
+
+        assertEquals(50L, counters.snapshot().getCountsByType().get(CustomerType.PERSONAL));
+        assertEquals(5L, counters.snapshot().getCountsByType().get(CustomerType.PYME));
+        assertEquals(7L, createdLast24Hours());
+    }
+
+    @Test
+    void keepsChangesMadeWhileReconciling() {
+        reconcile(Map.of(CustomerType.PERSONAL, 10L), 0);
+        Sinks.One<CustomerTypeCount> aggregation = Sinks.one();
+        when(customerRepository.countByType()).thenReturn(aggregation.asMono().flux());
+        when(customerRepository.countCreatedPerHour(any())).thenReturn(Flux.empty());
+
+        counters.reconcile().subscribe();
+        counters.created(CustomerType.PERSONAL);
+        aggregation.tryEmitValue(typeCount(CustomerType.PERSONAL, 20L));
+
+        assertEquals(21L, counters.snapshot().getCountsByType().get(CustomerType.PERSONAL));
+    }
+
+    private void reconcile(Map<CustomerType, Long> countsByType, long createdThisHour) {
+        when(customerRepository.countByType()).thenReturn(Flux.fromIterable(countsByType.entrySet())
+                .map(count -> typeCount(count.getKey(), count.getValue())));
+        HourlyCreationCount hourly = new HourlyCreationCount();
+        hourly.setHourStart(Instant.now().toEpochMilli() / Duration.ofHours(1).toMillis() * Duration.ofHours(1).toMillis());
+        hourly.setCount(createdThisHour);
+        when(customerRepository.countCreatedPerHour(any())).thenReturn(createdThisHour > 0 ? Flux.just(hourly) : Flux.empty());
+        counters.reconcile().block();
+    }
+
+    private long createdLast24Hours() {
+        return counters.snapshot().getCreatedPerHour().values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private static CustomerTypeCount typeCount(CustomerType type, long count) {
+        CustomerTypeCount typeCount = new CustomerTypeCount();
+        typeCount.setType(type);
+        typeCount.setCount(count);
+        return typeCount;
+    }
+}
@@ -0,0 +1,185 @@
+package com.bootcamp.customerservice.service.write;
+
+import com.bootcamp.customerservice.entity.Customer;
+import com.bootcamp.customerservice.metrics.HotPathMetrics;
+import com.bootcamp.customerservice.model.CustomerType;
+import com.bootcamp.customerservice.repository.CustomerBulkWriteResult;
+import com.bootcamp.customerservice.repository.CustomerRepository;
+import com.bootcamp.customerservice.repository.CustomerUpdate;
+import com.bootcamp.customerservice.repository.VersionedFieldsWrite;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Coalescing of concurrent customer writes into bulk writes, with per-caller results.
+ */
+class CustomerWriteBehindTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final CustomerRepository customerRepository = mock(CustomerRepository.class);
+
+    private final CustomerWriteBehind writeBehind = new CustomerWriteBehind(customerRepository,
+            new HotPathMetrics(new SimpleMeterRegistry()), true, 50, 100, "acknowledged", 5000);
+
+    @AfterEach
+    void tearDown() {
+        writeBehind.destroy();
+    }
+
+    @Test
+    void sendsConcurrentInsertsInOneBulkWriteAndReportsErrorsPerCaller() {
+        when(customerRepository.bulkWrite(anyList(), anyList(), any())).thenReturn(Mono.just(
+                new CustomerBulkWriteResult(Map.of(1, new DuplicateKeyException("duplicate email")), Set.of())));
+
+        List<Signal<Customer>> results = Flux.merge(
+                        writeBehind.insert(customer(null, "Ana Lopez")).materialize(),
+                        writeBehind.insert(customer(null, "Ana Lopez")).materialize())
+                .filter(signal -> !signal.isOnComplete())
+                .collectList()
+                .block(TIMEOUT);
+
+        verify(customerRepository, times(1)).bulkWrite(anyList(), eq(List.of()), any());
+        assertNotNull(results);
+        assertEquals(2, results.size());
+        assertTrue(results.stream().anyMatch(signal -> signal.hasValue() && ObjectId.isValid(signal.get().getId())
+                && signal.get().getVersion() == 0L));
+        assertTrue(results.stream().anyMatch(signal -> signal.hasError() && signal.getThrowable() instanceof DuplicateKeyException));
+    }
+
+    @Test
+    void insertsStraightAwayWithTheSameIdentityWhenDisabled() {
+        CustomerWriteBehind disabled = new CustomerWriteBehind(customerRepository,
+                new HotPathMetrics(new SimpleMeterRegistry()), false, 50, 100, "acknowledged", 5000);
+        when(customerRepository.insert(any(Customer.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        Customer customer = customer(null, "Ana Lopez");
+        customer.setVersion(7L);
+
+        Customer inserted = disabled.insert(customer).block(TIMEOUT);
+
+        assertNotNull(inserted);
+        assertTrue(ObjectId.isValid(inserted.getId()));
+        assertEquals(0L, inserted.getVersion());
+        verify(customerRepository).insert(customer);
+        verify(customerRepository, never()).bulkWrite(anyList(), anyList(), any());
+    }
+
+    @Test
+    void mergesUpdatesOfTheSameCustomerAndAnswersEachCaller() {
+        when(customerRepository.findAllById(anyIterable())).thenReturn(Flux.just(customer("c1", "Ana Lopez")));
+        when(customerRepository.bulkWrite(anyList(), anyList(), any())).thenReturn(Mono.just(
+                new CustomerBulkWriteResult(Map.of(), Set.of())));
+
+        Mono<CustomerUpdate> first = writeBehind.update("c1", 3L, customer(null, "Ana Maria Lopez"), true);
+        Mono<CustomerUpdate> second = writeBehind.update("c1", null, customer(null, "Ana M. Lopez"), true);
+        List<CustomerUpdate> results = Flux.mergeSequential(first, second).collectList().block(TIMEOUT);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<VersionedFieldsWrite>> writes = ArgumentCaptor.forClass(List.class);
+        verify(customerRepository).bulkWrite(eq(List.of()), writes.capture(), any());
+        VersionedFieldsWrite write = writes.getValue().get(0);
+        assertEquals(1, writes.getValue().size());
+        assertEquals(3L, write.getExpectedVersion());
+        assertEquals(5L, write.getCustomer().getVersion());
+        assertEquals("Ana M. Lopez", write.getCustomer().getName());
+        assertNotNull(results);
+        assertEquals("Ana Maria Lopez", results.get(0).getCustomer().getName());
+        assertEquals(4L, results.get(0).getCustomer().getVersion());
+        assertEquals(5L, results.get(1).getCustomer().getVersion());
+        verify(customerRepository, never()).updateFields(any(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    void retriesUnappliedUpdatesOneByOne() {
+        Customer changes = customer(null, "Ana Maria Lopez");
+        CustomerUpdate individual = CustomerUpdate.of(customer("c1", "Ana Lopez"), changes, true);
+        when(customerRepository.findAllById(anyIterable())).thenReturn(Flux.just(customer("c1", "Ana Lopez")));
+        when(customerRepository.bulkWrite(anyList(), anyList(), any())).thenReturn(Mono.just(
+                new CustomerBulkWriteResult(Map.of(), Set.of("c1"))));
+        when(customerRepository.updateFields("c1", null, changes, true)).thenReturn(Mono.just(individual));
+
+        CustomerUpdate result = writeBehind.update("c1", null, changes, true).block(TIMEOUT);
+
+        assertEquals(individual, result);
+    }
+
+    @Test
+    void answersUpdatesOfMissingCustomersWithoutWriting() {
+        when(customerRepository.findAllById(anyIterable())).thenReturn(Flux.empty());
+
+        Signal<CustomerUpdate> result = writeBehind.update("missing", null, customer(null, "Ana Lopez"), true)
+                .materialize()
+                .block(TIMEOUT);
+
+        assertNotNull(result);
+        assertTrue(result.isOnComplete());
+        verify(customerRepository, never()).bulkWrite(anyList(), anyList(), any());
+    }
+
+    @Test
+    void flushesPendingWritesOnShutdown() {
+        when(customerRepository.bulkWrite(anyList(), anyList(), any())).thenReturn(Mono.just(
+                new CustomerBulkWriteResult(Map.of(), Set.of())));
+        CustomerWriteBehind longWindow = new CustomerWriteBehind(customerRepository,
+                new HotPathMetrics(new SimpleMeterRegistry()), true, 60_000, 100, "acknowledged", 5000);
+        Mono<Customer> pending = longWindow.insert(customer(null, "Luis Vega")).cache();
+        pending.subscribe();
+
+        longWindow.destroy();
+
+        assertNotNull(pending.block(Duration.ofMillis(100)));
+    }
+
+    @Test
+    void writesStraightAwayOnceClosed() {
+        Customer changes = customer(null, "Ana Maria Lopez");
+        CustomerUpdate individual = CustomerUpdate.of(customer("c1", "Ana Lopez"), changes, true);
+        when(customerRepository.updateFields("c1", null, changes, true)).thenReturn(Mono.just(individual));
+        when(customerRepository.insert(any(Customer.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        // assembled before the shutdown, subscribed after it
+        Mono<CustomerUpdate> update = writeBehind.update("c1", null, changes, true);
+        Mono<Customer> insert = writeBehind.insert(customer(null, "Luis Vega"));
+
+        writeBehind.destroy();
+
+        assertEquals(individual, update.block(TIMEOUT));
+        assertNotNull(insert.block(TIMEOUT));
+        verify(customerRepository, never()).bulkWrite(anyList(), anyList(), any());
+    }
+
+    private static Customer customer(String id, String name) {
+        return Customer.builder()
+                .id(id)
+                .name(name)
+                .email(name.toLowerCase().replace(' ', '.') + "@bootcamp.com")
+                .type(CustomerType.PERSONAL)
+                .version(id != null ? 3L : null)
+                .build();
+    }
+}
@@ -0,0 +1,121 @@
+package com.bootcamp.customerservice.webclient.batch;
+
+import com.bootcamp.customerservice.config.DownstreamProperties;
+import com.bootcamp.customerservice.metrics.HotPathMetrics;
+import com.bootcamp.customerservice.webclient.cache.EligibilityCache;
+import com.bootcamp.customerservice.webclient.impl.CreditServiceClientImpl;
+import com.bootcamp.customerservice.webclient.resilience.DownstreamResilience;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.netty.http.server.HttpServerRoutes;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the batched credit card probe against a local stub of the credit service.
+ */
+class ProbeBatcherTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final AtomicInteger bulkCalls = new AtomicInteger();
+
+    private final AtomicInteger singleCalls = new AtomicInteger();
+
+    private DisposableServer server;
+
+    private ProbeBatcherFactory probeBatcherFactory;
+
+    @AfterEach
+    void tearDown() {
+        probeBatcherFactory.destroy();
+        server.disposeNow();
+    }
+
+    @Test
+    void concurrentProbesAreSentAsOneBulkRequest() {
+        CreditServiceClientImpl client = startClient(routes -> routes
+                .post("/exists-creditcard/bulk", (request, response) -> {
+                    bulkCalls.incrementAndGet();
+                    return response.header("Content-Type", "application/json")
+                            .sendString(request.receive().aggregate().asString().map(ProbeBatcherTest::bulkResponse));
+                })
+                .get("/exists-creditcard/{customerId}", this::singleResponse));
+
+        Map<String, Boolean> results = probe(client, "card-1", "none-2", "card-3", "none-4", "card-5");
+
+        assertEquals(Map.of("card-1", true, "none-2", false, "card-3", true, "none-4", false, "card-5", true), results);
+        assertEquals(1, bulkCalls.get());
+        assertEquals(0, singleCalls.get());
+    }
+
+    @Test
+    void fallsBackToPerIdCallsWhenBulkEndpointIsMissing() {
+        CreditServiceClientImpl client = startClient(routes -> routes
+                .get("/exists-creditcard/{customerId}", this::singleResponse));
+
+        Map<String, Boolean> first = probe(client, "card-1", "none-2", "card-3");
+        Map<String, Boolean> second = probe(client, "card-4", "none-5");
+
+        assertEquals(Map.of("card-1", true, "none-2", false, "card-3", true), first);
+        assertEquals(Map.of("card-4", true, "none-5", false), second);
+        assertEquals(5, singleCalls.get());
+    }
+
+    private CreditServiceClientImpl startClient(Consumer<HttpServerRoutes> routes) {
+        server = HttpServer.create().port(0).route(routes).bindNow();
+        probeBatcherFactory = new ProbeBatcherFactory(true, 10, 100);
+        EligibilityCache disabledCache = new EligibilityCache(false, 1, 1, 1, 1, new SimpleMeterRegistry());
+        DownstreamResilience downstreamResilience = new DownstreamResilience(CircuitBreakerRegistry.ofDefaults(),
+                BulkheadRegistry.ofDefaults(), new DownstreamProperties());
+        return new CreditServiceClientImpl(WebClient.create("http://localhost:" + server.port()),
+                disabledCache, probeBatcherFactory, downstreamResilience, new HotPathMetrics(new SimpleMeterRegistry()));
+    }
+
+    private Map<String, Boolean> probe(CreditServiceClientImpl client, String... customerIds) {
+        return Flux.fromArray(customerIds)
+                .flatMap(customerId -> client.hasCreditCard(customerId).map(result -> Map.entry(customerId, result)))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .block();
+    }
+
+    private Publisher<Void> singleResponse(HttpServerRequest request, HttpServerResponse response) {
+        singleCalls.incrementAndGet();
+        return response.header("Content-Type", "application/json")
+                .sendString(Mono.just(String.valueOf(hasCard(request.param("customerId")))));
+    }
+
+    private static String bulkResponse(String body) {
+        try {
+            List<String> customerIds = MAPPER.readValue(body, new TypeReference<List<String>>() {
+            });
+            return MAPPER.writeValueAsString(customerIds.stream()
+                    .collect(Collectors.toMap(id -> id, ProbeBatcherTest::hasCard)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean hasCard(String customerId) {
+        return customerId.startsWith("card");
+    }
+}
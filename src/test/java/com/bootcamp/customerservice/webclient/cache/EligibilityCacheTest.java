@@ -0,0 +1,100 @@
+package com.bootcamp.customerservice.webclient.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Per fact expiry, shared loads and bypass of the eligibility cache.
+ */
+class EligibilityCacheTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<String, Mono<Integer>> loader = customerId -> Mono.fromCallable(loads::incrementAndGet);
+
+    @Test
+    void sharesTheLoadOfAFactBetweenConcurrentLookups() {
+        EligibilityCache cache = cache(true, 60);
+        Sinks.One<Integer> remote = Sinks.one();
+        Function<String, Mono<Integer>> pending = customerId -> {
+            loads.incrementAndGet();
+            return remote.asMono();
+        };
+
+        Mono<Integer> first = cache.get(EligibilityFact.CREDIT_CARD, "c1", pending).cache();
+        Mono<Integer> second = cache.get(EligibilityFact.CREDIT_CARD, "c1", pending).cache();
+        first.subscribe();
+        second.subscribe();
+        remote.tryEmitValue(7);
+
+        assertEquals(7, first.block(TIMEOUT));
+        assertEquals(7, second.block(TIMEOUT));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void expiresEachFactAfterItsOwnTtl() throws InterruptedException {
+        EligibilityCache cache = cache(true, 1);
+        cache.get(EligibilityFact.CREDIT_CARD, "c1", loader).block(TIMEOUT);
+        cache.get(EligibilityFact.SAVINGS_BALANCE, "c1", loader).block(TIMEOUT);
+        assertEquals(1, cache.get(EligibilityFact.CREDIT_CARD, "c1", loader).block(TIMEOUT));
+        assertEquals(2, loads.get());
+
+        Thread.sleep(1_200);
+
+        assertEquals(3, cache.get(EligibilityFact.CREDIT_CARD, "c1", loader).block(TIMEOUT));
+        assertEquals(2, cache.get(EligibilityFact.SAVINGS_BALANCE, "c1", loader).block(TIMEOUT));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void doesNotKeepAFailedLoad() {
+        EligibilityCache cache = cache(true, 60);
+        Function<String, Mono<Integer>> failing = customerId -> Mono.error(new IllegalStateException("unavailable"));
+
+        assertThrows(IllegalStateException.class, () -> cache.get(EligibilityFact.CURRENT_ACCOUNT, "c1", failing).block(TIMEOUT));
+
+        assertEquals(1, cache.get(EligibilityFact.CURRENT_ACCOUNT, "c1", loader).block(TIMEOUT));
+    }
+
+    @Test
+    void callsTheLoaderEveryTimeWhenDisabled() {
+        EligibilityCache cache = cache(false, 60);
+
+        cache.get(EligibilityFact.CREDIT_CARD, "c1", loader).block(TIMEOUT);
+        cache.get(EligibilityFact.CREDIT_CARD, "c1", loader).block(TIMEOUT);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void loadsAgainAfterAnEviction() {
+        EligibilityCache cache = cache(true, 60);
+        cache.get(EligibilityFact.CREDIT_CARD, "c1", loader).block(TIMEOUT);
+        cache.get(EligibilityFact.CREDIT_CARD, "c2", loader).block(TIMEOUT);
+
+        cache.evict("c1");
+
+        assertEquals(3, cache.get(EligibilityFact.CREDIT_CARD, "c1", loader).block(TIMEOUT));
+        assertEquals(2, cache.get(EligibilityFact.CREDIT_CARD, "c2", loader).block(TIMEOUT));
+    }
+
+    /**
+     * Builds a cache whose credit card facts expire after the given TTL and whose other facts
+     * are kept for a minute.
+     */
+    private static EligibilityCache cache(boolean enabled, long creditCardTtlSeconds) {
+        return new EligibilityCache(enabled, 100, creditCardTtlSeconds, 60, 60, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,83 @@
+package com.bootcamp.customerservice.webclient.probe;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Token-level probes over JSON bodies split into arbitrary chunks.
+ */
+class StreamingJsonProbeTest {
+
+    private static final String ACCOUNT = "{\"id\":\"a1\",\"customerId\":\"c1\",\"type\":\"SAVINGS\",\"balance\":1250.5}";
+
+    @Test
+    void detectsTheFirstElementAndCancelsTheRest() {
+        AtomicInteger emitted = new AtomicInteger();
+        Flux<DataBuffer> body = chunks("[" + ACCOUNT + "," + ACCOUNT + "," + ACCOUNT + "]", 8)
+                .doOnNext(buffer -> emitted.incrementAndGet());
+
+        StepVerifier.create(StreamingJsonProbe.hasElements(body)).expectNext(true).verifyComplete();
+        assertTrue(emitted.get() <= 2, "read " + emitted.get() + " chunks");
+    }
+
+    @Test
+    void emptyListingsHaveNoElements() {
+        StepVerifier.create(StreamingJsonProbe.hasElements(chunks(" [ ] ", 1))).expectNext(false).verifyComplete();
+        StepVerifier.create(StreamingJsonProbe.hasElements(chunks("null", 2))).expectNext(false).verifyComplete();
+        StepVerifier.create(StreamingJsonProbe.hasElements(Flux.empty())).expectNext(false).verifyComplete();
+    }
+
+    @Test
+    void readsTheFieldOfTheBodyObject() {
+        StepVerifier.create(StreamingJsonProbe.numberField(chunks(ACCOUNT, 3), "balance"))
+                .expectNext(1250.5)
+                .verifyComplete();
+    }
+
+    @Test
+    void readsTheFieldOfTheFirstElementOnly() {
+        String body = "[{\"nested\":{\"balance\":1},\"id\":\"a1\"},{\"balance\":2}]";
+
+        StepVerifier.create(StreamingJsonProbe.numberField(chunks(body, 5), "balance")).verifyComplete();
+        StepVerifier.create(StreamingJsonProbe.numberField(chunks("[" + ACCOUNT + "]", 4), "balance"))
+                .expectNext(1250.5)
+                .verifyComplete();
+    }
+
+    @Test
+    void nullOrMissingFieldsAreEmpty() {
+        StepVerifier.create(StreamingJsonProbe.numberField(chunks("{\"balance\":null}", 4), "balance")).verifyComplete();
+        StepVerifier.create(StreamingJsonProbe.numberField(chunks("{}", 1), "balance")).verifyComplete();
+    }
+
+    @Test
+    void malformedBodiesFail() {
+        StepVerifier.create(StreamingJsonProbe.numberField(chunks("{\"balance\"}", 4), "balance"))
+                .expectError()
+                .verify();
+    }
+
+    private static Flux<DataBuffer> chunks(String json, int chunkSize) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int start = 0; start < bytes.length; start += chunkSize) {
+            int length = Math.min(chunkSize, bytes.length - start);
+            DataBuffer buffer = DefaultDataBufferFactory.sharedInstance.allocateBuffer(length);
+            buffer.write(bytes, start, length);
+            buffers.add(buffer);
+        }
+        assertEquals(bytes.length, buffers.stream().mapToInt(DataBuffer::readableByteCount).sum());
+        return Flux.fromIterable(buffers);
+    }
+}
@@ -0,0 +1,146 @@
+package com.bootcamp.customerservice.webclient.resilience;
+
+import com.bootcamp.customerservice.config.BinaryCodecs;
+import com.bootcamp.customerservice.config.DownstreamProperties;
+import com.bootcamp.customerservice.config.WebClientConfig;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs guarded calls of the credit service client against a local stub.
+ */
+class DownstreamResilienceTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private static final int RETRY_MAX_ATTEMPTS = 2;
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+
+    private final BulkheadRegistry bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+            .maxConcurrentCalls(1)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+
+    private DisposableServer server;
+
+    @AfterEach
+    void tearDown() {
+        server.disposeNow();
+    }
+
+    @Test
+    void retriesAServerErrorUpToTheMaxAttempts() {
+        WebClient webClient = startStub(HttpResponseStatus.SERVICE_UNAVAILABLE, Duration.ZERO);
+
+        WebClientResponseException error = assertThrows(WebClientResponseException.class,
+                () -> guard().idempotent(call(webClient)).block(TIMEOUT));
+
+        assertEquals(503, error.getRawStatusCode());
+        assertEquals(1 + RETRY_MAX_ATTEMPTS, calls.get());
+    }
+
+    @Test
+    void doesNotRetryAClientError() {
+        WebClient webClient = startStub(HttpResponseStatus.NOT_FOUND, Duration.ZERO);
+
+        WebClientResponseException error = assertThrows(WebClientResponseException.class,
+                () -> guard().idempotent(call(webClient)).block(TIMEOUT));
+
+        assertEquals(404, error.getRawStatusCode());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void rejectsWithoutRetryingWhileTheCircuitIsOpen() {
+        WebClient webClient = startStub(HttpResponseStatus.OK, Duration.ZERO);
+        DownstreamResilience.Guard guard = guard();
+        circuitBreakerRegistry.circuitBreaker(DownstreamProperties.CREDIT_SERVICE).transitionToOpenState();
+
+        assertThrows(CallNotPermittedException.class, () -> guard.idempotent(call(webClient)).block(TIMEOUT));
+
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void rejectsWithoutRetryingWhileTheBulkheadIsFull() {
+        WebClient webClient = startStub(HttpResponseStatus.OK, Duration.ZERO);
+        DownstreamResilience.Guard guard = guard();
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(DownstreamProperties.CREDIT_SERVICE);
+        bulkhead.acquirePermission();
+
+        try {
+            assertThrows(BulkheadFullException.class, () -> guard.idempotent(call(webClient)).block(TIMEOUT));
+        } finally {
+            bulkhead.releasePermission();
+        }
+
+        assertEquals(0, calls.get());
+        assertEquals("ok", guard.idempotent(call(webClient)).block(TIMEOUT));
+    }
+
+    @Test
+    void timesOutASlowResponseAndRetriesIt() {
+        WebClient webClient = startStub(HttpResponseStatus.OK, Duration.ofSeconds(2));
+
+        WebClientRequestException error = assertThrows(WebClientRequestException.class,
+                () -> guard().idempotent(call(webClient)).block(TIMEOUT));
+
+        assertInstanceOf(ReadTimeoutException.class, error.getCause());
+        assertEquals(1 + RETRY_MAX_ATTEMPTS, calls.get());
+    }
+
+    private WebClient startStub(HttpResponseStatus status, Duration delay) {
+        server = HttpServer.create().port(0)
+                .route(routes -> routes.get("/status", (request, response) -> {
+                    calls.incrementAndGet();
+                    return Mono.delay(delay).then(response.status(status).sendString(Mono.just("ok")).then());
+                }))
+                .bindNow();
+        return new WebClientConfig().creditServiceWebClient("http://localhost:" + server.port(), properties(),
+                new BinaryCodecs(Jackson2ObjectMapperBuilder.json()));
+    }
+
+    private DownstreamResilience.Guard guard() {
+        return new DownstreamResilience(circuitBreakerRegistry, bulkheadRegistry, properties())
+                .forClient(DownstreamProperties.CREDIT_SERVICE);
+    }
+
+    private static Mono<String> call(WebClient webClient) {
+        return webClient.get().uri("/status").retrieve().bodyToMono(String.class);
+    }
+
+    private static DownstreamProperties properties() {
+        DownstreamProperties.Client client = new DownstreamProperties.Client();
+        client.setResponseTimeout(Duration.ofMillis(300));
+        client.setRetryMaxAttempts(RETRY_MAX_ATTEMPTS);
+        client.setRetryBackoff(Duration.ofMillis(10));
+        DownstreamProperties properties = new DownstreamProperties();
+        properties.getClients().put(DownstreamProperties.CREDIT_SERVICE, client);
+        return properties;
+    }
+}